@@ -0,0 +1,262 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generates synthetic diffs in GitHub's format for benchmarking. The same scenario and seed always produce the same
+ * bytes, so results of different runs and revisions are comparable.
+ */
+final class DiffCorpus {
+
+    /**
+     * The shapes of diff that the benchmarks cover.
+     */
+    enum Scenario {
+
+        /**
+         * A few thousand files with one to three small hunks each, as in a typical large pull request.
+         */
+        MANY_SMALL_FILES,
+
+        /**
+         * A single file with thousands of hunks, e.g. a reformatted or generated source file.
+         */
+        ONE_GIANT_FILE,
+
+        /**
+         * Few hunks whose lines are tens of kilobytes long, e.g. minified assets or lock files.
+         */
+        LONG_LINES,
+
+        /**
+         * Many renamed files, most without any hunks, so nearly every line is a header line.
+         */
+        RENAMES,
+
+        /**
+         * Binary patches, whose base85-encoded payload lines are header lines to the parser.
+         */
+        BINARY_PATCHES
+
+    }
+
+    private static final String BASE85_ALPHABET
+            = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz!#$%&()*+-;<=>?@^_`{|}~";
+
+    private static final String WORD_CHARACTERS = "abcdefghijklmnopqrstuvwxyz_(){};=+.";
+
+    private final Random random;
+
+    private final StringBuilder out = new StringBuilder();
+
+    private DiffCorpus(final long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return the UTF-8 encoded diff of the given scenario.
+     */
+    @NotNull
+    static byte[] generate(@NotNull final Scenario scenario, final long seed) {
+        final DiffCorpus corpus = new DiffCorpus(seed);
+
+        switch (scenario) {
+            case MANY_SMALL_FILES:
+                corpus.appendManySmallFiles();
+                break;
+            case ONE_GIANT_FILE:
+                corpus.appendOneGiantFile();
+                break;
+            case LONG_LINES:
+                corpus.appendLongLines();
+                break;
+            case RENAMES:
+                corpus.appendRenames();
+                break;
+            case BINARY_PATCHES:
+                corpus.appendBinaryPatches();
+                break;
+            default:
+                throw new IllegalStateException("Unknown scenario: " + scenario);
+        }
+
+        return corpus.out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void appendManySmallFiles() {
+        for (int fileIndex = 0; fileIndex < 2000; fileIndex++) {
+            final String path = "src/main/java/module" + (fileIndex % 40) + "/File" + fileIndex + ".java";
+            appendFileHeader(path, path);
+
+            int fromLineStart = 1 + random.nextInt(50);
+            int toLineStart = fromLineStart;
+
+            for (int hunkIndex = 1 + random.nextInt(3); hunkIndex > 0; hunkIndex--) {
+                final int[] lineCounts = appendHunk(fromLineStart, toLineStart, 3 + random.nextInt(10), 40);
+                final int gap = lineCounts[0] + 10 + random.nextInt(100);
+                fromLineStart += gap;
+                toLineStart += gap + lineCounts[1] - lineCounts[0];
+            }
+        }
+    }
+
+    private void appendOneGiantFile() {
+        final String path = "src/main/resources/generated/Schema.java";
+        appendFileHeader(path, path);
+
+        int fromLineStart = 1;
+        int toLineStart = 1;
+
+        for (int hunkIndex = 0; hunkIndex < 5000; hunkIndex++) {
+            final int[] lineCounts = appendHunk(fromLineStart, toLineStart, 10 + random.nextInt(20), 60);
+            final int gap = lineCounts[0] + 5 + random.nextInt(20);
+            fromLineStart += gap;
+            toLineStart += gap + lineCounts[1] - lineCounts[0];
+        }
+    }
+
+    private void appendLongLines() {
+        for (int fileIndex = 0; fileIndex < 20; fileIndex++) {
+            final String path = "web/dist/bundle" + fileIndex + ".min.js";
+            appendFileHeader(path, path);
+            appendHunk(1, 1, 2 + random.nextInt(4), 10_000 + random.nextInt(90_000));
+        }
+    }
+
+    private void appendRenames() {
+        for (int fileIndex = 0; fileIndex < 3000; fileIndex++) {
+            final String fromPath = "old/package" + (fileIndex % 25) + "/Name" + fileIndex + ".java";
+            final String toPath = "new/package" + (fileIndex % 25) + "/subpackage/Name" + fileIndex + ".java";
+            final boolean isPureRename = random.nextInt(5) != 0;
+
+            out.append("diff --git a/").append(fromPath).append(" b/").append(toPath).append('\n');
+            out.append("similarity index ").append(isPureRename ? 100 : 80 + random.nextInt(20)).append("%\n");
+            out.append("rename from ").append(fromPath).append('\n');
+            out.append("rename to ").append(toPath).append('\n');
+
+            if (!isPureRename) {
+                out.append("index ").append(randomHex(7)).append("..").append(randomHex(7)).append(" 100644\n");
+                out.append("--- a/").append(fromPath).append('\n');
+                out.append("+++ b/").append(toPath).append('\n');
+                appendHunk(1, 1, 1 + random.nextInt(4), 40);
+            }
+        }
+    }
+
+    private void appendBinaryPatches() {
+        for (int fileIndex = 0; fileIndex < 200; fileIndex++) {
+            final String path = "assets/images/image" + fileIndex + ".png";
+            out.append("diff --git a/").append(path).append(" b/").append(path).append('\n');
+            out.append("index ").append(randomHex(7)).append("..").append(randomHex(7)).append(" 100644\n");
+            out.append("GIT binary patch\n");
+            appendBinaryHunk("literal", 500 + random.nextInt(20_000));
+            appendBinaryHunk("literal", random.nextInt(2_000));
+
+            // Interleave ordinary text diffs, as in a real pull request that adds images.
+            if (fileIndex % 4 == 0) {
+                final String textPath = "docs/page" + fileIndex + ".md";
+                appendFileHeader(textPath, textPath);
+                appendHunk(1, 1, 3 + random.nextInt(5), 60);
+            }
+        }
+    }
+
+    private void appendFileHeader(@NotNull final String fromPath, @NotNull final String toPath) {
+        out.append("diff --git a/").append(fromPath).append(" b/").append(toPath).append('\n');
+        out.append("index ").append(randomHex(7)).append("..").append(randomHex(7)).append(" 100644\n");
+        out.append("--- a/").append(fromPath).append('\n');
+        out.append("+++ b/").append(toPath).append('\n');
+    }
+
+    /**
+     * Appends a hunk of the given number of lines, each roughly of the given length.
+     *
+     * @return the number of "from" and "to" lines of the hunk.
+     */
+    @NotNull
+    private int[] appendHunk(final int fromLineStart, final int toLineStart, final int numberOfLines, final int lineLength) {
+        final StringBuilder lines = new StringBuilder();
+        int fromLineCount = 0;
+        int toLineCount = 0;
+
+        for (int lineIndex = 0; lineIndex < numberOfLines; lineIndex++) {
+            final int kind = random.nextInt(4);
+
+            if (kind == 0) {
+                lines.append('-');
+                fromLineCount++;
+            } else if (kind == 1) {
+                lines.append('+');
+                toLineCount++;
+            } else {
+                lines.append(' ');
+                fromLineCount++;
+                toLineCount++;
+            }
+
+            appendRandomText(lines, lineLength / 2 + random.nextInt(lineLength));
+            lines.append('\n');
+        }
+
+        out.append("@@ -").append(fromLineStart).append(',').append(fromLineCount)
+                .append(" +").append(toLineStart).append(',').append(toLineCount)
+                .append(" @@ public class Generated {\n")
+                .append(lines);
+
+        return new int[] {fromLineCount, toLineCount};
+    }
+
+    private void appendBinaryHunk(@NotNull final String kind, final int numberOfBytes) {
+        out.append(kind).append(' ').append(numberOfBytes).append('\n');
+
+        for (int remainingBytes = numberOfBytes; remainingBytes > 0; remainingBytes -= 52) {
+            final int lineBytes = Math.min(52, remainingBytes);
+            out.append(lineBytes <= 26 ? (char) ('A' + lineBytes - 1) : (char) ('a' + lineBytes - 27));
+
+            for (int i = 0; i < (lineBytes + 3) / 4 * 5; i++) {
+                out.append(BASE85_ALPHABET.charAt(random.nextInt(BASE85_ALPHABET.length())));
+            }
+
+            out.append('\n');
+        }
+
+        out.append('\n');
+    }
+
+    private void appendRandomText(@NotNull final StringBuilder target, final int length) {
+        for (int i = 0; i < length; i++) {
+            target.append(random.nextInt(6) == 0 ? ' ' : WORD_CHARACTERS.charAt(random.nextInt(WORD_CHARACTERS.length())));
+        }
+    }
+
+    @NotNull
+    private String randomHex(final int length) {
+        final StringBuilder result = new StringBuilder(length);
+
+        for (int i = 0; i < length; i++) {
+            result.append(Character.forDigit(random.nextInt(16), 16));
+        }
+
+        return result.toString();
+    }
+
+}
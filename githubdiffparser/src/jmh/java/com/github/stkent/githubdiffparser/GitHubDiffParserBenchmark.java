@@ -0,0 +1,195 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import com.github.stkent.githubdiffparser.models.DiffSet;
+import com.github.stkent.githubdiffparser.models.DiffStat;
+import com.github.stkent.githubdiffparser.models.FileLocation;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import com.github.stkent.githubdiffparser.models.LineLocation;
+import com.github.stkent.githubdiffparser.models.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing throughput for each input type, and the throughput of the position-mapping lookups, on every
+ * {@link DiffCorpus.Scenario}. Run with {@code ./gradlew jmh}; the gc profiler is enabled in the build script so that
+ * allocation rates are reported next to throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GitHubDiffParserBenchmark {
+
+    private static final long SEED = 20161017L;
+
+    private static final int NUMBER_OF_LOOKUPS = 5000;
+
+    @Param
+    public DiffCorpus.Scenario scenario;
+
+    private final GitHubDiffParser parser = new GitHubDiffParser();
+
+    /**
+     * Looks every input up in a cache that already holds its result.
+     */
+    private final GitHubDiffParser cacheHitParser = new GitHubDiffParser();
+
+    /**
+     * Looks every input up in a cache that cannot retain any result, so that every lookup parses and encodes.
+     */
+    private final GitHubDiffParser cacheMissParser = new GitHubDiffParser();
+
+    private byte[] bytes;
+
+    private File file;
+
+    private DiffSet diffSet;
+
+    private List<FileLocation> toFileLocations;
+
+    private Diff[] positionDiffs;
+
+    private int[] positions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        bytes = DiffCorpus.generate(scenario, SEED);
+
+        file = File.createTempFile("githubdiffparser-" + scenario, ".diff");
+        Files.write(file.toPath(), bytes);
+
+        final List<Diff> diffs = parser.parse(bytes);
+        cacheHitParser.setCache(new DiffCache(Long.MAX_VALUE));
+        cacheHitParser.parse(bytes);
+        cacheMissParser.setCache(new DiffCache(0));
+        diffSet = new DiffSet(diffs);
+        createLookups(diffs);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(file.toPath());
+    }
+
+    @Benchmark
+    public List<Diff> parseInputStream() {
+        return parser.parse(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public List<Diff> parseBytes() {
+        return parser.parse(bytes);
+    }
+
+    @Benchmark
+    public List<Diff> parseBytesCacheHit() {
+        return cacheHitParser.parse(bytes);
+    }
+
+    @Benchmark
+    public List<Diff> parseBytesCacheMiss() {
+        return cacheMissParser.parse(bytes);
+    }
+
+    @Benchmark
+    public List<Diff> parseFile() throws IOException {
+        return parser.parse(file);
+    }
+
+    @Benchmark
+    public List<DiffStat> parseDiffStatsBytes() {
+        return parser.parseDiffStats(bytes);
+    }
+
+    @Benchmark
+    public List<Diff> parsePositionsBytes() {
+        return parser.parsePositions(bytes);
+    }
+
+    /**
+     * Resolves {@value #NUMBER_OF_LOOKUPS} "to" file locations spread over all Diffs to their positions.
+     */
+    @Benchmark
+    public List<Integer> getDiffLineNumbersForToFileLocations() {
+        return diffSet.getDiffLineNumbersForToFileLocations(toFileLocations);
+    }
+
+    /**
+     * Maps {@value #NUMBER_OF_LOOKUPS} positions spread over all Diffs back to their line locations.
+     */
+    @Benchmark
+    public void getLineLocationsForDiffLineNumbers(final Blackhole blackhole) {
+        for (int i = 0; i < positions.length; i++) {
+            final LineLocation lineLocation = positionDiffs[i].getLineLocationForDiffLineNumber(positions[i]);
+            blackhole.consume(lineLocation);
+        }
+    }
+
+    private void createLookups(final List<Diff> diffs) {
+        final List<Diff> diffsWithHunks = new ArrayList<>();
+
+        for (final Diff diff : diffs) {
+            if (diff.getToFileName() != null && !diff.getHunks().isEmpty()) {
+                diffsWithHunks.add(diff);
+            }
+        }
+
+        final Random random = new Random(SEED);
+        toFileLocations = new ArrayList<>(NUMBER_OF_LOOKUPS);
+        positionDiffs = new Diff[NUMBER_OF_LOOKUPS];
+        positions = new int[NUMBER_OF_LOOKUPS];
+
+        for (int i = 0; i < NUMBER_OF_LOOKUPS; i++) {
+            final Diff diff = diffsWithHunks.get(random.nextInt(diffsWithHunks.size()));
+            final Hunk hunk = diff.getHunks().get(random.nextInt(diff.getHunks().size()));
+            final Range toFileRange = hunk.getToFileRange();
+            final int toFileLineNumber = toFileRange.getLineStart() + random.nextInt(Math.max(1, toFileRange.getLineCount()));
+            toFileLocations.add(new FileLocation(diff.getToFileName(), toFileLineNumber));
+
+            final Integer position = diff.getDiffLineNumberForToFileLocation(diff.getToFileName(), toFileLineNumber);
+            positionDiffs[i] = diff;
+            positions[i] = position != null ? position : 1;
+        }
+    }
+
+}
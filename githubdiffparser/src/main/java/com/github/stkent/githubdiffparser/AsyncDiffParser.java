@@ -0,0 +1,380 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Parses many independent inputs concurrently, returning a {@link CompletableFuture} for each. Inputs are parsed by a
+ * shared {@link GitHubDiffParser} (and so use its tracer and cache) on an {@link Executor}.
+ * 
+ * At most a fixed number of inputs are parsed at the same time, which bounds the memory held by partially parsed
+ * inputs; further inputs wait in a queue without occupying a thread. Cancelling a future stops its parse at the next
+ * read from its input, or before it starts if it is still queued.
+ * 
+ * By default, each input is parsed on its own virtual thread if the runtime supports them (Java 21 and later), and on a
+ * cached pool of daemon threads otherwise. A default executor is shut down by {@link #close()}; an executor supplied by
+ * the caller is left alone.
+ */
+public class AsyncDiffParser implements Closeable {
+
+    /**
+     * Opens an input to parse. Streams opened by a Source are closed once parsing them has finished.
+     */
+    public interface Source {
+
+        @NotNull
+        InputStream open() throws IOException;
+
+    }
+
+    public static final int DEFAULT_MAX_CONCURRENCY = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    private final GitHubDiffParser parser;
+
+    private final Executor executor;
+
+    @Nullable
+    private final ExecutorService ownedExecutor;
+
+    private final int maxConcurrency;
+
+    private final Queue<ParseTask> queuedTasks = new ArrayDeque<>();
+
+    private int numberOfRunningTasks = 0;
+
+    public AsyncDiffParser(@NotNull final GitHubDiffParser parser) {
+        this(parser, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * @param parser         the parser to parse each input with.
+     * @param maxConcurrency the maximum number of inputs to parse at the same time.
+     */
+    public AsyncDiffParser(@NotNull final GitHubDiffParser parser, final int maxConcurrency) {
+        this(parser, newDefaultExecutor(), maxConcurrency, true);
+    }
+
+    /**
+     * @param parser         the parser to parse each input with.
+     * @param executor       the executor to parse inputs on; not shut down by {@link #close()}.
+     * @param maxConcurrency the maximum number of inputs to parse at the same time.
+     */
+    public AsyncDiffParser(
+            @NotNull final GitHubDiffParser parser,
+            @NotNull final Executor executor,
+            final int maxConcurrency) {
+
+        this(parser, executor, maxConcurrency, false);
+    }
+
+    private AsyncDiffParser(
+            @NotNull final GitHubDiffParser parser,
+            @NotNull final Executor executor,
+            final int maxConcurrency,
+            final boolean ownsExecutor) {
+
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+
+        this.parser = parser;
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Parses the given input asynchronously. The input stream is not closed.
+     *
+     * @param in the diff to parse.
+     * @return a future of the Diffs in the input, in input order.
+     */
+    @NotNull
+    public CompletableFuture<List<Diff>> parseAsync(@NotNull final InputStream in) {
+        return submit(() -> in, false);
+    }
+
+    /**
+     * Opens and parses the given input asynchronously. The opened stream is closed when parsing it has finished.
+     *
+     * @param source the diff to parse.
+     * @return a future of the Diffs in the input, in input order.
+     */
+    @NotNull
+    public CompletableFuture<List<Diff>> parseAsync(@NotNull final Source source) {
+        return submit(source, true);
+    }
+
+    /**
+     * Parses all given inputs asynchronously. If any input fails to parse, the returned future fails with the same
+     * error and the remaining inputs are cancelled; cancelling the returned future cancels all inputs.
+     *
+     * @param sources the diffs to parse.
+     * @return a future of the Diffs in each input, in the order of the sources.
+     */
+    @NotNull
+    public CompletableFuture<List<List<Diff>>> parseAll(@NotNull final Collection<? extends Source> sources) {
+        final List<CompletableFuture<List<Diff>>> futures = new ArrayList<>(sources.size());
+
+        for (final Source source : sources) {
+            futures.add(parseAsync(source));
+        }
+
+        final CompletableFuture<List<List<Diff>>> result = new CompletableFuture<>();
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenRun(() -> {
+            final List<List<Diff>> diffs = new ArrayList<>(futures.size());
+
+            for (final CompletableFuture<List<Diff>> future : futures) {
+                diffs.add(future.join());
+            }
+
+            result.complete(diffs);
+        });
+
+        for (final CompletableFuture<List<Diff>> future : futures) {
+            future.whenComplete((diffs, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                }
+            });
+        }
+
+        result.whenComplete((diffs, failure) -> {
+            if (failure != null) {
+                for (final CompletableFuture<List<Diff>> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Shuts down the default executor, if this instance created one. Parses that are already running are finished,
+     * but queued inputs fail.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    @NotNull
+    private CompletableFuture<List<Diff>> submit(@NotNull final Source source, final boolean closeInput) {
+        final ParseTask task = new ParseTask(source, closeInput);
+
+        synchronized (queuedTasks) {
+            if (numberOfRunningTasks >= maxConcurrency) {
+                queuedTasks.add(task);
+                return task.future;
+            }
+
+            numberOfRunningTasks++;
+        }
+
+        execute(task);
+        return task.future;
+    }
+
+    /**
+     * Executes the given task, which holds a permit. If the executor rejects it, the task fails and its permit goes to
+     * the next queued task.
+     */
+    private void execute(@NotNull final ParseTask task) {
+        ParseTask nextTask = task;
+
+        while (nextTask != null) {
+            try {
+                executor.execute(nextTask);
+                return;
+            } catch (RejectedExecutionException e) {
+                nextTask.future.completeExceptionally(e);
+                nextTask = pollQueuedTask();
+            }
+        }
+    }
+
+    /**
+     * Hands the permit of a finished task to the next queued task that may still run, or releases it if there is none.
+     * Queued tasks fail once the executor has been shut down, as they would if they were handed to it.
+     */
+    @Nullable
+    private ParseTask pollRunnableTask() {
+        ParseTask nextTask = pollQueuedTask();
+
+        while (nextTask != null && executor instanceof ExecutorService && ((ExecutorService) executor).isShutdown()) {
+            nextTask.future.completeExceptionally(new RejectedExecutionException("The executor has been shut down."));
+            nextTask = pollQueuedTask();
+        }
+
+        return nextTask;
+    }
+
+    /**
+     * Hands the permit of a finished task to the next queued task, or releases it if there is none.
+     */
+    @Nullable
+    private ParseTask pollQueuedTask() {
+        synchronized (queuedTasks) {
+            final ParseTask nextTask = queuedTasks.poll();
+
+            if (nextTask == null) {
+                numberOfRunningTasks--;
+            }
+
+            return nextTask;
+        }
+    }
+
+    @NotNull
+    private static ExecutorService newDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(new DaemonThreadFactory());
+        }
+    }
+
+    private final class ParseTask implements Runnable {
+
+        private final CompletableFuture<List<Diff>> future = new CompletableFuture<>();
+
+        private final Source source;
+
+        private final boolean closeInput;
+
+        private ParseTask(@NotNull final Source source, final boolean closeInput) {
+            this.source = source;
+            this.closeInput = closeInput;
+        }
+
+        /**
+         * Runs this task, then the queued tasks that its permit passes to. Queued tasks are run in this loop rather
+         * than handed to the executor, which would recurse without bound if the executor runs tasks on the calling
+         * thread.
+         */
+        @Override
+        public void run() {
+            ParseTask task = this;
+
+            while (task != null) {
+                task.runOnce();
+                task = pollRunnableTask();
+            }
+        }
+
+        private void runOnce() {
+            try {
+                if (!future.isDone()) {
+                    future.complete(parse());
+                }
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+
+        @NotNull
+        private List<Diff> parse() throws IOException {
+            final InputStream in = source.open();
+
+            try {
+                return parser.parse(new CancellableInputStream(in, future));
+            } finally {
+                if (closeInput) {
+                    in.close();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Fails every read once the future it belongs to has been cancelled, so that abandoned parses stop reading.
+     */
+    private static final class CancellableInputStream extends FilterInputStream {
+
+        private final CompletableFuture<?> future;
+
+        private CancellableInputStream(@NotNull final InputStream in, @NotNull final CompletableFuture<?> future) {
+            super(in);
+            this.future = future;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkNotCancelled();
+            return super.read();
+        }
+
+        @Override
+        public int read(@NotNull final byte[] b, final int off, final int len) throws IOException {
+            checkNotCancelled();
+            return super.read(b, off, len);
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            checkNotCancelled();
+            return super.skip(n);
+        }
+
+        private void checkNotCancelled() throws InterruptedIOException {
+            if (future.isCancelled()) {
+                throw new InterruptedIOException("Parse was cancelled.");
+            }
+        }
+
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final ThreadFactory defaultThreadFactory = Executors.defaultThreadFactory();
+
+        @Override
+        public Thread newThread(@NotNull final Runnable runnable) {
+            final Thread thread = defaultThreadFactory.newThread(runnable);
+            thread.setName("githubdiffparser-" + thread.getName());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
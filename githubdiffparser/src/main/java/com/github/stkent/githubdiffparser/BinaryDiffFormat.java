@@ -0,0 +1,86 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Line;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants of the binary encoding of parsed Diffs written by {@link BinaryDiffWriter} and read by
+ * {@link BinaryDiffReader}.
+ * 
+ * All integers are unsigned LEB128 varints; range starts and counts are zigzag-encoded first. All strings and line
+ * contents are UTF-8 bytes prefixed with their length. The layout is:
+ * 
+ * <pre>
+ * file       := MAGIC version stringCount string* diffCount diff*
+ * diff       := diffFlags fromFileName toFileName headerCount string* hunkCount hunk*
+ * fileName   := 0 for null, or 1 + index into the string table
+ * hunk       := hunkFlags range? range? lineCount lineTypes content*
+ * range      := zigzag(lineStart) zigzag(lineCount)
+ * lineTypes  := four 2-bit line types per byte, first line in the lowest bits
+ * content    := 0 for null, or 1 + byteLength, followed by the bytes
+ * </pre>
+ *
+ * Version 1 has no diffFlags and never sets {@link #IS_TRUNCATED_HUNK}; {@link BinaryDiffReader} still decodes it, so
+ * Diffs stored before the truncated flags were added remain readable.
+ */
+final class BinaryDiffFormat {
+
+    static final byte[] MAGIC = {'G', 'H', 'D', 'P'};
+
+    static final int VERSION = 2;
+
+    static final int VERSION_WITHOUT_TRUNCATED_FLAGS = 1;
+
+    static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    static final int HAS_FROM_FILE_RANGE = 1;
+
+    static final int HAS_TO_FILE_RANGE = 1 << 1;
+
+    static final int IS_TRUNCATED_HUNK = 1 << 2;
+
+    static final int IS_TRUNCATED_DIFF = 1;
+
+    static final int LINE_TYPE_BITS = 2;
+
+    static final int LINE_TYPES_PER_BYTE = Byte.SIZE / LINE_TYPE_BITS;
+
+    static final int LINE_TYPE_MASK = (1 << LINE_TYPE_BITS) - 1;
+
+    /**
+     * The code of a line without a type; the codes of the other line types are their ordinals.
+     */
+    static final int NO_LINE_TYPE = LINE_TYPE_MASK;
+
+    private static final Line.LineType[] LINE_TYPES = Line.LineType.values();
+
+    private BinaryDiffFormat() {
+    }
+
+    static int encode(final Line.LineType lineType) {
+        return lineType == null ? NO_LINE_TYPE : lineType.ordinal();
+    }
+
+    static Line.LineType decode(final int lineTypeCode) {
+        return lineTypeCode == NO_LINE_TYPE ? null : LINE_TYPES[lineTypeCode];
+    }
+
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import com.github.stkent.githubdiffparser.models.Range;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.stkent.githubdiffparser.BinaryDiffFormat.*;
+
+/**
+ * Decodes Diffs encoded by {@link BinaryDiffWriter}. See {@link BinaryDiffFormat} for the layout.
+ * 
+ * Line contents are not copied or decoded: each Hunk keeps them as slices of the encoded input, which therefore must not
+ * be modified while the decoded Diffs are in use.
+ */
+public class BinaryDiffReader {
+
+    @NotNull
+    public List<Diff> read(@NotNull final byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Decodes the Diffs encoded between the position and the limit of the buffer. The position of the buffer is not
+     * changed.
+     */
+    @NotNull
+    public List<Diff> read(@NotNull final ByteBuffer buffer) {
+        return new Input(buffer).readDiffs();
+    }
+
+    /**
+     * Reads the stream to its end and decodes the Diffs encoded in it. The stream is not closed.
+     */
+    @NotNull
+    public List<Diff> read(@NotNull final InputStream in) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] chunk = new byte[8192];
+        int count;
+
+        while ((count = in.read(chunk)) != -1) {
+            bytes.write(chunk, 0, count);
+        }
+
+        return read(bytes.toByteArray());
+    }
+
+    private static final class Input {
+
+        @NotNull
+        private final ByteBuffer buffer;
+
+        private final int limit;
+
+        private int position;
+
+        Input(@NotNull final ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+            this.position = buffer.position();
+        }
+
+        @NotNull
+        List<Diff> readDiffs() {
+            for (final byte magicByte : MAGIC) {
+                if (readByte() != magicByte) {
+                    throw new IllegalStateException("Input is not a binary diff.");
+                }
+            }
+
+            final int version = readVarint();
+
+            if (version != VERSION && version != VERSION_WITHOUT_TRUNCATED_FLAGS) {
+                throw new IllegalStateException("Unsupported binary diff version: " + version);
+            }
+
+            final boolean hasDiffFlags = version != VERSION_WITHOUT_TRUNCATED_FLAGS;
+            final String[] stringTable = new String[readCount()];
+
+            for (int i = 0; i < stringTable.length; i++) {
+                stringTable[i] = readString();
+            }
+
+            final int numberOfDiffs = readCount();
+            final List<Diff> diffs = new ArrayList<>(numberOfDiffs);
+
+            for (int diffIndex = 0; diffIndex < numberOfDiffs; diffIndex++) {
+                final Diff diff = new Diff();
+                diff.setTruncated(hasDiffFlags && (readVarint() & IS_TRUNCATED_DIFF) != 0);
+                diff.setFromFileName(readFileName(stringTable));
+                diff.setToFileName(readFileName(stringTable));
+
+                final int numberOfHeaderLines = readCount();
+
+                for (int i = 0; i < numberOfHeaderLines; i++) {
+                    diff.getHeaderLines().add(readString());
+                }
+
+                final int numberOfHunks = readCount();
+
+                for (int i = 0; i < numberOfHunks; i++) {
+                    diff.getHunks().add(readHunk());
+                }
+
+                diffs.add(diff);
+            }
+
+            if (position != limit) {
+                throw new IllegalStateException("Binary diff has trailing bytes.");
+            }
+
+            return diffs;
+        }
+
+        @NotNull
+        private Hunk readHunk() {
+            final Hunk hunk = new Hunk();
+            final int hunkFlags = readVarint();
+            hunk.setTruncated((hunkFlags & IS_TRUNCATED_HUNK) != 0);
+
+            if ((hunkFlags & HAS_FROM_FILE_RANGE) != 0) {
+                hunk.setFromFileRange(readRange());
+            }
+
+            if ((hunkFlags & HAS_TO_FILE_RANGE) != 0) {
+                hunk.setToFileRange(readRange());
+            }
+
+            final int numberOfLines = readCount();
+            final int lineTypesPosition = position;
+            skip((numberOfLines + LINE_TYPES_PER_BYTE - 1) / LINE_TYPES_PER_BYTE);
+
+            for (int lineIndex = 0; lineIndex < numberOfLines; lineIndex++) {
+                final int packedLineTypes = buffer.get(lineTypesPosition + lineIndex / LINE_TYPES_PER_BYTE);
+                final int lineTypeCode = (packedLineTypes >> ((lineIndex % LINE_TYPES_PER_BYTE) * LINE_TYPE_BITS)) & LINE_TYPE_MASK;
+                final int contentLength = readNullableCount();
+
+                if (contentLength == -1) {
+                    hunk.addLine(decode(lineTypeCode), null);
+                } else {
+                    final int contentPosition = position;
+                    skip(contentLength);
+                    hunk.addLine(decode(lineTypeCode), buffer, contentPosition, contentLength, CHARSET);
+                }
+            }
+
+            return hunk;
+        }
+
+        @NotNull
+        private Range readRange() {
+            final int lineStart = unzigzag(readVarint());
+            final int lineCount = unzigzag(readVarint());
+            return new Range(lineStart, lineCount);
+        }
+
+        @Nullable
+        private String readFileName(@NotNull final String[] stringTable) {
+            final int index = readVarint() - 1;
+
+            if (index < -1 || index >= stringTable.length) {
+                throw new IllegalStateException("Binary diff refers to unknown file name " + index + ".");
+            }
+
+            return index < 0 ? null : stringTable[index];
+        }
+
+        @NotNull
+        private String readString() {
+            final int length = readCount();
+            final int start = position;
+            skip(length);
+
+            if (buffer.hasArray()) {
+                return new String(buffer.array(), buffer.arrayOffset() + start, length, CHARSET);
+            } else {
+                final byte[] bytes = new byte[length];
+                final ByteBuffer duplicate = buffer.duplicate();
+                duplicate.limit(start + length).position(start);
+                duplicate.get(bytes);
+                return new String(bytes, CHARSET);
+            }
+        }
+
+        /**
+         * Reads a varint that counts bytes or items of the input, and therefore cannot exceed the remaining input.
+         */
+        private int readCount() {
+            final int count = readVarint();
+
+            if (count < 0 || count > limit - position) {
+                throw new IllegalStateException("Binary diff is truncated or corrupt.");
+            }
+
+            return count;
+        }
+
+        /**
+         * Reads a count that is stored plus one, so that zero can stand for null.
+         *
+         * @return the count, or -1 for null.
+         */
+        private int readNullableCount() {
+            final int count = readVarint() - 1;
+
+            if (count < -1 || count > limit - position) {
+                throw new IllegalStateException("Binary diff is truncated or corrupt.");
+            }
+
+            return count;
+        }
+
+        private int readVarint() {
+            int result = 0;
+
+            for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+                final byte b = readByte();
+                result |= (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+
+            throw new IllegalStateException("Binary diff contains a malformed varint.");
+        }
+
+        private byte readByte() {
+            skip(1);
+            return buffer.get(position - 1);
+        }
+
+        private void skip(final int count) {
+            if (count < 0 || count > limit - position) {
+                throw new IllegalStateException("Binary diff is truncated or corrupt.");
+            }
+
+            position += count;
+        }
+
+        private static int unzigzag(final int value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+    }
+
+}
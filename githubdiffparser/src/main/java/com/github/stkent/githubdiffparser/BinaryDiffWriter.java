@@ -0,0 +1,240 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.ContentSlice;
+import com.github.stkent.githubdiffparser.models.Diff;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import com.github.stkent.githubdiffparser.models.Line;
+import com.github.stkent.githubdiffparser.models.Range;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.stkent.githubdiffparser.BinaryDiffFormat.*;
+
+/**
+ * Encodes parsed Diffs in a compact, versioned binary format that {@link BinaryDiffReader} decodes much faster than the
+ * original diff text can be parsed. See {@link BinaryDiffFormat} for the layout.
+ * 
+ * Content that was parsed from UTF-8 or US-ASCII input is copied without being decoded.
+ */
+public class BinaryDiffWriter {
+
+    /**
+     * @return the encoding of the given Diffs.
+     */
+    @NotNull
+    public byte[] write(@NotNull final List<Diff> diffs) {
+        final Output output = new Output();
+        write(diffs, output);
+        return output.toByteArray();
+    }
+
+    /**
+     * Writes the encoding of the given Diffs to a stream, which is not closed.
+     */
+    public void write(@NotNull final List<Diff> diffs, @NotNull final OutputStream out) throws IOException {
+        final Output output = new Output();
+        write(diffs, output);
+        out.write(output.bytes, 0, output.length);
+    }
+
+    private static void write(@NotNull final List<Diff> diffs, @NotNull final Output output) {
+        final Map<String, Integer> stringTable = new LinkedHashMap<>();
+
+        for (final Diff diff : diffs) {
+            addToStringTable(diff.getFromFileName(), stringTable);
+            addToStringTable(diff.getToFileName(), stringTable);
+        }
+
+        output.writeBytes(MAGIC);
+        output.writeVarint(VERSION);
+        output.writeVarint(stringTable.size());
+
+        for (final String string : stringTable.keySet()) {
+            output.writeString(string);
+        }
+
+        output.writeVarint(diffs.size());
+
+        for (final Diff diff : diffs) {
+            output.writeVarint(diff.isTruncated() ? IS_TRUNCATED_DIFF : 0);
+            writeFileName(diff.getFromFileName(), stringTable, output);
+            writeFileName(diff.getToFileName(), stringTable, output);
+
+            final List<String> headerLines = diff.getHeaderLines();
+            output.writeVarint(headerLines.size());
+
+            for (final String headerLine : headerLines) {
+                output.writeString(headerLine);
+            }
+
+            final List<Hunk> hunks = diff.getHunks();
+            output.writeVarint(hunks.size());
+
+            for (final Hunk hunk : hunks) {
+                writeHunk(hunk, output);
+            }
+        }
+    }
+
+    private static void addToStringTable(@Nullable final String string, @NotNull final Map<String, Integer> stringTable) {
+        if (string != null && !stringTable.containsKey(string)) {
+            stringTable.put(string, stringTable.size());
+        }
+    }
+
+    private static void writeFileName(
+            @Nullable final String fileName,
+            @NotNull final Map<String, Integer> stringTable,
+            @NotNull final Output output) {
+
+        output.writeVarint(fileName == null ? 0 : stringTable.get(fileName) + 1);
+    }
+
+    private static void writeHunk(@NotNull final Hunk hunk, @NotNull final Output output) {
+        final Range fromFileRange = hunk.getFromFileRange();
+        final Range toFileRange = hunk.getToFileRange();
+        output.writeVarint((fromFileRange != null ? HAS_FROM_FILE_RANGE : 0)
+                | (toFileRange != null ? HAS_TO_FILE_RANGE : 0)
+                | (hunk.isTruncated() ? IS_TRUNCATED_HUNK : 0));
+        writeRange(fromFileRange, output);
+        writeRange(toFileRange, output);
+
+        final List<Line> lines = hunk.getLines();
+        final int numberOfLines = lines.size();
+        final Line[] linesArray = lines.toArray(new Line[numberOfLines]);
+        output.writeVarint(numberOfLines);
+
+        for (int firstLineIndex = 0; firstLineIndex < numberOfLines; firstLineIndex += LINE_TYPES_PER_BYTE) {
+            int packedLineTypes = 0;
+
+            for (int i = 0; i < LINE_TYPES_PER_BYTE && firstLineIndex + i < numberOfLines; i++) {
+                packedLineTypes |= encode(linesArray[firstLineIndex + i].getLineType()) << (i * LINE_TYPE_BITS);
+            }
+
+            output.writeByte(packedLineTypes);
+        }
+
+        for (final Line line : linesArray) {
+            writeContent(line.getContentSequence(), output);
+        }
+    }
+
+    private static void writeRange(@Nullable final Range range, @NotNull final Output output) {
+        if (range != null) {
+            output.writeVarint(zigzag(range.getLineStart()));
+            output.writeVarint(zigzag(range.getLineCount()));
+        }
+    }
+
+    private static void writeContent(@Nullable final CharSequence content, @NotNull final Output output) {
+        if (content == null) {
+            output.writeVarint(0);
+        } else if (content instanceof ContentSlice && isUtf8Compatible((ContentSlice) content)) {
+            final ContentSlice slice = (ContentSlice) content;
+            output.writeVarint(slice.getByteLength() + 1);
+            output.writeBytes(slice.getBuffer(), slice.getOffset(), slice.getByteLength());
+        } else {
+            final byte[] bytes = content.toString().getBytes(CHARSET);
+            output.writeVarint(bytes.length + 1);
+            output.writeBytes(bytes);
+        }
+    }
+
+    private static boolean isUtf8Compatible(@NotNull final ContentSlice slice) {
+        return slice.getCharset().equals(CHARSET) || slice.getCharset().equals(StandardCharsets.US_ASCII);
+    }
+
+    private static int zigzag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * A growable byte array; unlike {@link java.io.ByteArrayOutputStream} it is not synchronized.
+     */
+    private static final class Output {
+
+        private byte[] bytes = new byte[4096];
+
+        private int length = 0;
+
+        void writeByte(final int value) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) value;
+        }
+
+        void writeVarint(int value) {
+            ensureCapacity(5);
+
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+
+            bytes[length++] = (byte) value;
+        }
+
+        void writeBytes(@NotNull final byte[] source) {
+            ensureCapacity(source.length);
+            System.arraycopy(source, 0, bytes, length, source.length);
+            length += source.length;
+        }
+
+        void writeBytes(@NotNull final ByteBuffer source, final int offset, final int count) {
+            ensureCapacity(count);
+
+            if (source.hasArray()) {
+                System.arraycopy(source.array(), source.arrayOffset() + offset, bytes, length, count);
+            } else {
+                final ByteBuffer duplicate = source.duplicate();
+                duplicate.limit(offset + count).position(offset);
+                duplicate.get(bytes, length, count);
+            }
+
+            length += count;
+        }
+
+        void writeString(@NotNull final String string) {
+            final byte[] encoded = string.getBytes(CHARSET);
+            writeVarint(encoded.length);
+            writeBytes(encoded);
+        }
+
+        @NotNull
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void ensureCapacity(final int count) {
+            if (length + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+            }
+        }
+
+    }
+
+}
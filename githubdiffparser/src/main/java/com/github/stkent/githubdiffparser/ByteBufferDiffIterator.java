@@ -0,0 +1,357 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.ContentSlice;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import com.github.stkent.githubdiffparser.models.Line;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link DiffIterator} that splits lines directly out of a {@link ByteBuffer}. Lines are classified by looking at
+ * their raw bytes. The content of hunk lines is not decoded at all: each line refers to its bytes in the buffer through
+ * a {@link ContentSlice}, so the buffer must not be modified while the parsed Diffs are in use, unless the content is
+ * copied onto the heap (see {@link #setCopyingContent(boolean)}). Only file names and header lines are decoded,
+ * straight from the buffer.
+ * 
+ * Lines are terminated by '\n', '\r' or "\r\n", exactly as {@link java.io.BufferedReader#readLine()} would split them.
+ * The charset must be ASCII-compatible (see {@link #isAsciiCompatible(Charset)}).
+ */
+class ByteBufferDiffIterator extends DiffIterator {
+
+    private static final byte[] ASCII_PROBE = new byte[128];
+
+    static {
+        for (int i = 0; i < ASCII_PROBE.length; i++) {
+            ASCII_PROBE[i] = (byte) i;
+        }
+    }
+
+    private static final int CONTENT_ARENA_SIZE = 64 * 1024;
+
+    private static final byte[] DIFF_START = "diff --git".getBytes(StandardCharsets.US_ASCII);
+
+    private ByteBuffer buffer;
+
+    private final Charset charset;
+
+    private final AsciiLineView currentLine = new AsciiLineView();
+
+    private int position;
+
+    /**
+     * The position of the current buffer when it was supplied, and the number of bytes consumed from earlier buffers.
+     */
+    private int bufferStart;
+
+    private long numberOfBytesReadBeforeBuffer = 0;
+
+    private byte[] scratch = new byte[0];
+
+    /**
+     * Whether the content of hunk lines is copied out of the buffer into {@link #contentArena}.
+     */
+    private boolean isCopyingContent = false;
+
+    /**
+     * The heap chunk that copied content is appended to. Chunks are shared by the Hunks whose content they hold, and
+     * are only ever appended to.
+     */
+    @Nullable
+    private ByteBuffer contentArena;
+
+    ByteBufferDiffIterator(
+            @NotNull final ByteBuffer buffer,
+            @NotNull final Charset charset,
+            @Nullable final ParseTracer tracer) {
+
+        super(tracer);
+        this.buffer = buffer;
+        this.charset = charset;
+        this.position = buffer.position();
+        this.bufferStart = position;
+    }
+
+    /**
+     * Makes the content of hunk lines be copied onto the heap, so that the parsed Diffs do not refer to the buffer.
+     * Must be called before the first line is consumed.
+     */
+    final void setCopyingContent(final boolean isCopyingContent) {
+        this.isCopyingContent = isCopyingContent;
+    }
+
+    /**
+     * @return true if every ASCII character is encoded as the identical single byte in the given charset, so that lines
+     *         may be split and classified without decoding them.
+     */
+    static boolean isAsciiCompatible(@NotNull final Charset charset) {
+        return Arrays.equals(ASCII_PROBE, new String(ASCII_PROBE, StandardCharsets.US_ASCII).getBytes(charset));
+    }
+
+    @Override
+    protected boolean slideForward() {
+        while (true) {
+            final int limit = buffer.limit();
+
+            if (position >= limit) {
+                if (refill(position)) {
+                    continue;
+                }
+
+                return false;
+            }
+
+            int lineEnd = position;
+            byte terminator = 0;
+
+            while (lineEnd < limit) {
+                final byte b = buffer.get(lineEnd);
+
+                if (b == '\n' || b == '\r') {
+                    terminator = b;
+                    break;
+                }
+
+                lineEnd++;
+            }
+
+            /*
+             * A line is only known to be complete if its terminator was found, and a trailing '\r' might still be
+             * followed by a '\n' beyond the end of the buffer.
+             */
+            final boolean isLineComplete = lineEnd < limit - 1 || (lineEnd == limit - 1 && terminator == '\n');
+
+            if (!isLineComplete && refill(position)) {
+                continue;
+            }
+
+            currentLine.reset(position, lineEnd);
+
+            position = lineEnd + 1;
+
+            if (terminator == '\r' && position < limit && buffer.get(position) == '\n') {
+                position++;
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Jumps over complete lines in the buffer without classifying them as a whole: each line is only compared against
+     * "diff --git" until the first mismatching byte, and then searched for its terminator. Stops at the first line that
+     * starts a Diff, or at the first line that is not known to be complete yet, which is left to
+     * {@link #slideForward()}.
+     */
+    @Override
+    protected long skipToNextDiffStart() {
+        final int limit = buffer.limit();
+        long numberOfSkippedLines = 0;
+
+        while (position < limit && !startsWithDiffStart(position, limit)) {
+            int lineEnd = position;
+
+            while (lineEnd < limit) {
+                final byte b = buffer.get(lineEnd);
+
+                if (b == '\n' || b == '\r') {
+                    break;
+                }
+
+                lineEnd++;
+            }
+
+            if (lineEnd >= limit - 1 && !(lineEnd == limit - 1 && buffer.get(lineEnd) == '\n')) {
+                break;
+            }
+
+            position = lineEnd + 1;
+
+            if (buffer.get(lineEnd) == '\r' && buffer.get(position) == '\n') {
+                position++;
+            }
+
+            numberOfSkippedLines++;
+        }
+
+        return numberOfSkippedLines;
+    }
+
+    /**
+     * @return true if the bytes at the given index start with "diff --git", or could still turn out to once more input
+     *         is available.
+     */
+    private boolean startsWithDiffStart(final int index, final int limit) {
+        for (int i = 0; i < DIFF_START.length; i++) {
+            if (index + i >= limit) {
+                return true;
+            }
+
+            if (buffer.get(index + i) != DIFF_START[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Called when the buffer ends before the line starting at the given index is known to be complete. Subclasses
+     * that read their input in windows may respond by supplying a new buffer via {@link #setBuffer(ByteBuffer)} whose
+     * position is the start of that line.
+     *
+     * @param lineStart the index of the first byte of the incomplete line in the current buffer.
+     * @return true if a new buffer has been supplied; false if the end of the input has been reached.
+     */
+    protected boolean refill(final int lineStart) {
+        return false;
+    }
+
+    protected final void setBuffer(@NotNull final ByteBuffer buffer) {
+        numberOfBytesReadBeforeBuffer = getNumberOfBytesRead();
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.bufferStart = position;
+    }
+
+    /**
+     * @return the index in the current buffer of the first byte of the current line.
+     */
+    final int getCurrentLineStart() {
+        return currentLine.start;
+    }
+
+    @Override
+    protected long getNumberOfBytesRead() {
+        /*
+         * The position moves one past the limit after a last line without a terminator.
+         */
+        return numberOfBytesReadBeforeBuffer + Math.min(position, buffer.limit()) - bufferStart;
+    }
+
+    @NotNull
+    @Override
+    protected CharSequence getCurrentLine() {
+        return currentLine;
+    }
+
+    @NotNull
+    @Override
+    protected String getCurrentLineContent(final int beginIndex, final int endIndex) {
+        return decode(currentLine.start + beginIndex, currentLine.start + endIndex);
+    }
+
+    @Override
+    protected void addCurrentLineTo(
+            @NotNull final Hunk hunk,
+            @NotNull final Line.LineType lineType,
+            final int beginIndex,
+            final int endIndex) {
+
+        final int start = currentLine.start + beginIndex;
+        final int length = endIndex - beginIndex;
+
+        if (!isCopyingContent) {
+            hunk.addLine(lineType, buffer, start, length, charset);
+            return;
+        }
+
+        if (contentArena == null || contentArena.remaining() < length) {
+            contentArena = ByteBuffer.allocate(Math.max(CONTENT_ARENA_SIZE, length));
+        }
+
+        //noinspection ConstantConditions
+        final int arenaOffset = contentArena.position();
+
+        for (int i = 0; i < length; i++) {
+            contentArena.put(buffer.get(start + i));
+        }
+
+        hunk.addLine(lineType, contentArena, arenaOffset, length, charset);
+    }
+
+    @NotNull
+    private String decode(final int start, final int end) {
+        final int length = end - start;
+
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, charset);
+        }
+
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(start + i);
+        }
+
+        return new String(scratch, 0, length, charset);
+    }
+
+    /**
+     * A reusable view of the current line that exposes each byte as one char. Since the parser only looks for ASCII
+     * patterns and the charset is ASCII-compatible, this is sufficient to classify lines without decoding them.
+     * {@link #toString()} decodes the line properly, for use in error messages and logging.
+     */
+    private final class AsciiLineView implements CharSequence {
+
+        private int start;
+
+        private int end;
+
+        private void reset(final int start, final int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(final int beginIndex, final int endIndex) {
+            final char[] chars = new char[endIndex - beginIndex];
+
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = charAt(beginIndex + i);
+            }
+
+            return new String(chars);
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return decode(start, end);
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Reads lines like {@link java.io.BufferedReader#readLine()} does, but splits them at the byte level and decodes each
+ * line on its own, so that the number of bytes taken up by the lines read so far is known exactly. The charset must
+ * be ASCII-compatible, see {@link ByteBufferDiffIterator#isAsciiCompatible(Charset)}.
+ */
+class ByteLineReader {
+
+    private final InputStream in;
+
+    private final Charset charset;
+
+    private final byte[] bytes = new byte[8192];
+
+    private int bytesPosition = 0;
+
+    private int bytesLimit = 0;
+
+    private byte[] line = new byte[128];
+
+    private int maxLineLength = Integer.MAX_VALUE;
+
+    private int maxLineBytes = Integer.MAX_VALUE;
+
+    private long numberOfBytesRead = 0;
+
+    ByteLineReader(@NotNull final InputStream in, @NotNull final Charset charset) {
+        this.in = in;
+        this.charset = charset;
+    }
+
+    /**
+     * Limits the number of chars kept of each line. Enough bytes are kept to decode that many chars, and the rest of a
+     * longer line is skipped while it is read.
+     */
+    void setMaxLineLength(final int maxLineLength) {
+        final int maxBytesPerChar = (int) Math.ceil(charset.newEncoder().maxBytesPerChar());
+
+        this.maxLineLength = maxLineLength;
+        this.maxLineBytes = (int) Math.min((long) maxLineLength * maxBytesPerChar, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the number of bytes taken up by the lines read so far, including their line terminators.
+     */
+    long getNumberOfBytesRead() {
+        return numberOfBytesRead;
+    }
+
+    /**
+     * @return the next line, without its line terminator, or null at the end of the input.
+     */
+    @Nullable
+    String readLine() throws IOException {
+        int lineLength = 0;
+        boolean isEndOfInput = true;
+
+        while (true) {
+            if (bytesPosition == bytesLimit && !fill()) {
+                return isEndOfInput ? null : decode(lineLength);
+            }
+
+            final byte b = bytes[bytesPosition++];
+            numberOfBytesRead++;
+
+            if (b == '\n') {
+                return decode(lineLength);
+            }
+
+            if (b == '\r') {
+                /*
+                 * A '\n' right after the '\r' belongs to the same line terminator, so count it with this line.
+                 */
+                if ((bytesPosition < bytesLimit || fill()) && bytes[bytesPosition] == '\n') {
+                    bytesPosition++;
+                    numberOfBytesRead++;
+                }
+
+                return decode(lineLength);
+            }
+
+            isEndOfInput = false;
+
+            if (lineLength < maxLineBytes) {
+                if (lineLength == line.length) {
+                    line = Arrays.copyOf(line, (int) Math.min(2L * line.length, Integer.MAX_VALUE - 8));
+                }
+
+                line[lineLength++] = b;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        bytesLimit = Math.max(in.read(bytes, 0, bytes.length), 0);
+        bytesPosition = 0;
+        return bytesLimit > 0;
+    }
+
+    @NotNull
+    private String decode(final int lineLength) {
+        final String result = new String(line, 0, lineLength, charset);
+        return result.length() > maxLineLength ? result.substring(0, maxLineLength) : result;
+    }
+
+}
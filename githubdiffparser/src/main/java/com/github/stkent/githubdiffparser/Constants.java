@@ -20,6 +20,10 @@ import java.util.regex.Pattern;
 
 public class Constants {
 
+    /**
+     * Describes the syntax of hunk header lines. The parser itself recognizes these lines with an equivalent
+     * hand-written scanner that decodes the ranges in the same pass.
+     */
     public static final Pattern HUNK_START_PATTERN = Pattern.compile("^.*-([0-9]+)(?:,([0-9]+))? \\+([0-9]+)(?:,([0-9]+))?.*$");
 
 }
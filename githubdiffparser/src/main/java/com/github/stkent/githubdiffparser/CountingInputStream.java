@@ -0,0 +1,122 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read from the wrapped stream, and optionally ends the stream after a maximum number of bytes.
+ */
+class CountingInputStream extends FilterInputStream {
+
+    private final long maxCount;
+
+    private long count = 0;
+
+    private boolean isCut = false;
+
+    CountingInputStream(@NotNull final InputStream in) {
+        this(in, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxCount the number of bytes after which this stream ends, even if the wrapped stream does not.
+     */
+    CountingInputStream(@NotNull final InputStream in, final long maxCount) {
+        super(in);
+        this.maxCount = maxCount;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * @return true if this stream has ended because the maximum number of bytes was reached, while the wrapped stream
+     *         had more bytes.
+     */
+    boolean isCut() {
+        return isCut;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (count >= maxCount) {
+            return readPastMaximum();
+        }
+
+        final int result = super.read();
+
+        if (result != -1) {
+            count++;
+        }
+
+        return result;
+    }
+
+    @Override
+    public int read(@NotNull final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (count >= maxCount) {
+            return readPastMaximum();
+        }
+
+        final int result = super.read(b, off, (int) Math.min(len, maxCount - count));
+
+        if (result > 0) {
+            count += result;
+        }
+
+        return result;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        final long result = super.skip(Math.min(n, maxCount - count));
+        count += result;
+        return result;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(super.available(), maxCount - count);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Ends this stream once the maximum has been reached, checking whether the wrapped stream had more to offer.
+     */
+    private int readPastMaximum() throws IOException {
+        if (!isCut && super.read() != -1) {
+            isCut = true;
+        }
+
+        return -1;
+    }
+
+}
@@ -0,0 +1,762 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import com.github.stkent.githubdiffparser.models.Line;
+import com.github.stkent.githubdiffparser.models.Range;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Drives the {@link ParserState} machine over a source of lines, one {@link Diff} at a time. Lines are only read when
+ * the next Diff is requested, and only until that Diff is known to be complete (i.e. until the following "diff --git"
+ * line or the end of the input has been reached).
+ * 
+ * Subclasses supply the lines. The state machine only ever inspects a line through {@link #getCurrentLine()}, and line
+ * content that ends up in the parsed model is requested separately through {@link #getCurrentLineContent(int)}, so
+ * subclasses that read raw bytes never need to decode lines that are not kept.
+ * 
+ * Input that arrives asynchronously is parsed by calling {@link #consumeCurrentLine()} for each available line and
+ * {@link #finishInput()} at the end of the input, instead of iterating (see {@link IncrementalDiffParser}).
+ */
+abstract class DiffIterator implements Iterator<Diff> {
+
+    private static final ParseLimits NO_LIMITS = new ParseLimits();
+
+    private static final int DIFF_START_PREFIX_LENGTH = "diff --git ".length();
+
+    private static final String RENAME_TO_PREFIX = "rename to ";
+
+    private static final String COPY_TO_PREFIX = "copy to ";
+
+    /**
+     * Receives the type of each hunk line in place of the Hunk, when only the number of lines of each type is needed.
+     */
+    interface HunkLineCounter {
+
+        void count(@NotNull Hunk hunk, @NotNull Line.LineType lineType);
+
+    }
+
+    @Nullable
+    private final ParseTracer tracer;
+
+    private final HunkHeaderScanner hunkHeader = new HunkHeaderScanner();
+
+    private ParserState state = ParserState.INITIAL;
+
+    private Diff currentDiff = new Diff();
+
+    @Nullable
+    private Diff nextDiff;
+
+    private boolean isEndOfInput = false;
+
+    private long lineNumber = 0;
+
+    private long currentDiffFirstLineNumber = 1;
+
+    /**
+     * Time spent parsing so far, and the part of it spent on the Diff currently being parsed before timing was last
+     * stopped; only tracked if there is a tracer.
+     */
+    private long elapsedNanos = 0;
+
+    private long currentDiffNanos = 0;
+
+    private long timingStartNanos;
+
+    /**
+     * The maxima of {@link #limits}, cached for the checks on every line.
+     */
+    private ParseLimits limits = NO_LIMITS;
+
+    private long maxLineLength = ParseLimits.UNLIMITED;
+
+    private long maxLinesPerHunk = ParseLimits.UNLIMITED;
+
+    private long maxHunksPerDiff = ParseLimits.UNLIMITED;
+
+    private long maxDiffs = ParseLimits.UNLIMITED;
+
+    private long maxBytes = ParseLimits.UNLIMITED;
+
+    private long numberOfDiffs = 0;
+
+    /**
+     * Whether the lines of the Hunk currently being parsed are dropped, because the Hunk exceeds
+     * {@link ParseLimits.Limit#HUNKS_PER_DIFF}.
+     */
+    private boolean isSkippingHunk = false;
+
+    /**
+     * Whether a limit has ended the input early; no further lines are consumed once it has.
+     */
+    private boolean hasReachedLimit = false;
+
+    @Nullable
+    private HunkLineCounter hunkLineCounter;
+
+    /**
+     * Whether hunk lines are added to their Hunks by type only, without content.
+     */
+    private boolean isPositionsOnly = false;
+
+    @Nullable
+    private Predicate<String> pathFilter;
+
+    /**
+     * Whether the path of the current Diff still has to be checked against {@link #pathFilter} once its "+++" line has
+     * been read, because its "diff --git" line did not name it unambiguously.
+     */
+    private boolean isPathFilterPending = false;
+
+    /**
+     * The names on the "diff --git" line of the current Diff, while {@link #isPathFilterPending}.
+     */
+    @Nullable
+    private String pendingDiffStartNames;
+
+    /**
+     * Whether the lines of the current Diff are skipped without being parsed, because its path was filtered out.
+     */
+    private boolean isSkippingDiff = false;
+
+    DiffIterator(@Nullable final ParseTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Moves on to the next line of the input.
+     *
+     * @return true if there is a next line; false if the end of the input has been reached.
+     */
+    protected abstract boolean slideForward();
+
+    /**
+     * @return the line currently being parsed, as seen by the {@link ParserState} machine.
+     */
+    @NotNull
+    protected abstract CharSequence getCurrentLine();
+
+    /**
+     * Decodes the content of the line currently being parsed.
+     *
+     * @param beginIndex the index of the first character to include; only ever skips ASCII line prefixes.
+     * @param endIndex   the index after the last character to include; the length of the line unless it is cut.
+     * @return the content of the current line between beginIndex and endIndex.
+     */
+    @NotNull
+    protected abstract String getCurrentLineContent(int beginIndex, int endIndex);
+
+    /**
+     * Appends the content of the line currently being parsed to the given Hunk. Unlike
+     * {@link #getCurrentLineContent(int, int)}, implementations may defer decoding until the content is read.
+     *
+     * @param hunk       the Hunk to append the line to.
+     * @param lineType   the type of the line.
+     * @param beginIndex the index of the first character to include; only ever skips ASCII line prefixes.
+     * @param endIndex   the index after the last character to include; the length of the line unless it is cut.
+     */
+    protected abstract void addCurrentLineTo(
+            @NotNull Hunk hunk,
+            @NotNull Line.LineType lineType,
+            int beginIndex,
+            int endIndex);
+
+    /**
+     * @return the number of bytes of input consumed so far, or -1 if unknown. Only called if there is a tracer.
+     */
+    protected long getNumberOfBytesRead() {
+        return -1;
+    }
+
+    /**
+     * Sets the limits to enforce. Must be called before the first line is consumed.
+     */
+    void setLimits(@NotNull final ParseLimits limits) {
+        this.limits = limits;
+        this.maxLineLength = limits.getMaximum(ParseLimits.Limit.LINE_LENGTH);
+        this.maxLinesPerHunk = limits.getMaximum(ParseLimits.Limit.LINES_PER_HUNK);
+        this.maxHunksPerDiff = limits.getMaximum(ParseLimits.Limit.HUNKS_PER_DIFF);
+        this.maxDiffs = limits.getMaximum(ParseLimits.Limit.DIFFS);
+        this.maxBytes = limits.getMaximum(ParseLimits.Limit.BYTES);
+    }
+
+    /**
+     * Makes hunk lines be counted by the given counter instead of being added to their Hunks, which then remain empty.
+     * Must be called before the first line is consumed.
+     */
+    void setHunkLineCounter(@Nullable final HunkLineCounter hunkLineCounter) {
+        this.hunkLineCounter = hunkLineCounter;
+    }
+
+    /**
+     * Makes hunk lines be added to their Hunks without content, so that the Hunks only keep the types of their lines.
+     * Must be called before the first line is consumed.
+     */
+    void setPositionsOnly(final boolean isPositionsOnly) {
+        this.isPositionsOnly = isPositionsOnly;
+    }
+
+    /**
+     * Makes Diffs whose path is rejected by the given filter be skipped: their lines are jumped over up to the next
+     * "diff --git" line without being parsed or validated. Must be called before the first line is consumed.
+     *
+     * @param pathFilter accepts the paths of the Diffs to keep, or null to keep all Diffs.
+     */
+    void setPathFilter(@Nullable final Predicate<String> pathFilter) {
+        this.pathFilter = pathFilter;
+    }
+
+    /**
+     * Skips lines up to, but excluding, the next line that starts with "diff --git", or up to the end of the input
+     * available so far. Only called while a filtered-out Diff is skipped. Subclasses that can search their input faster
+     * than line by line override this; by default, no lines are skipped here and each line is checked when consumed.
+     *
+     * @return the number of lines skipped.
+     */
+    protected long skipToNextDiffStart() {
+        return 0;
+    }
+
+    /**
+     * @return true if a limit with policy {@link ParseLimits.Policy#TRUNCATE} has ended the input early, in which case
+     *         no further lines must be consumed before calling {@link #finishInput()}.
+     */
+    boolean hasReachedLimit() {
+        return hasReachedLimit;
+    }
+
+    /**
+     * @return the state the parser was left in by the last line it consumed.
+     */
+    @NotNull
+    ParserState getState() {
+        return state;
+    }
+
+    /**
+     * @return the number of lines consumed or skipped so far.
+     */
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextDiff == null && !isEndOfInput) {
+            nextDiff = readNextDiff();
+        }
+
+        return nextDiff != null;
+    }
+
+    @Override
+    public Diff next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final Diff result = nextDiff;
+        nextDiff = null;
+        return result;
+    }
+
+    /**
+     * Consumes lines until a Diff has been completed.
+     *
+     * @return the completed Diff, or null if the end of the input has been reached without completing another Diff.
+     */
+    @Nullable
+    private Diff readNextDiff() {
+        startTiming();
+
+        while (!hasReachedLimit && slideToNextLine()) {
+            final Diff completedDiff = consumeCurrentLine();
+
+            if (completedDiff != null) {
+                return completedDiff;
+            }
+        }
+
+        return finishInput();
+    }
+
+    /**
+     * Moves on to the next line that needs to be consumed, jumping over the lines of a Diff that is being skipped.
+     *
+     * @return true if there is a next line; false if the end of the input (available so far) has been reached.
+     */
+    final boolean slideToNextLine() {
+        if (isSkippingDiff) {
+            lineNumber += skipToNextDiffStart();
+        }
+
+        return slideForward();
+    }
+
+    /**
+     * Feeds the line that {@link #slideToNextLine()} has just moved to through the state machine.
+     *
+     * @return the Diff completed by this line, or null if the line did not complete a Diff.
+     */
+    @Nullable
+    final Diff consumeCurrentLine() {
+        final CharSequence currentLine = getCurrentLine();
+
+        if (isSkippingDiff) {
+            if (TransitionTable.classify(currentLine) != TransitionTable.DIFF_START_LINE) {
+                lineNumber++;
+                return null;
+            }
+
+            isSkippingDiff = false;
+        }
+
+        final ParserState previousState = state;
+        final ParserState nextState = TransitionTable.nextState(state, currentLine, hunkHeader);
+
+        if (maxBytes != ParseLimits.UNLIMITED && getNumberOfBytesRead() > maxBytes) {
+            onLimitExceeded(ParseLimits.Limit.BYTES, lineNumber + 1);
+            hasReachedLimit = true;
+
+            /*
+             * A "diff --git" line would have completed the current Diff, so only a Diff that continues is cut short.
+             */
+            if (nextState != ParserState.DIFF_START && currentDiff.isNotEmpty()) {
+                markTruncated(currentDiff, currentDiff.getHunks().isEmpty() ? null : currentDiff.getLatestHunk());
+            }
+
+            return null;
+        }
+
+        state = nextState;
+        lineNumber++;
+
+        if (state == null) {
+            throw new IllegalStateException("Parser reached illegal state!");
+        }
+
+        if (tracer != null) {
+            tracer.onTransition(previousState, state, lineNumber, currentLine);
+        }
+
+        switch (state) {
+            case DIFF_START:
+                final boolean isCompletedDiffAccepted = !isPathFilterPending || isPendingPathAccepted();
+                final Diff completedDiff = currentDiff;
+                final long completedDiffFirstLineNumber = currentDiffFirstLineNumber;
+                currentDiff = new Diff();
+                currentDiffFirstLineNumber = lineNumber;
+                isSkippingHunk = false;
+
+                if (pathFilter != null) {
+                    filterDiffStart();
+                }
+
+                if (isCompletedDiffAccepted && completedDiff.isNotEmpty() && isWithinDiffLimit()) {
+                    if (tracer != null) {
+                        traceDiffParsed(completedDiff, completedDiffFirstLineNumber, lineNumber - 1);
+                    }
+
+                    return completedDiff;
+                }
+
+                break;
+            case HEADER:
+                parseHeader(currentDiff);
+
+                if (isPathFilterPending) {
+                    filterHeader();
+                }
+
+                break;
+            case FROM_FILE:
+                parseFromFile(currentDiff);
+                break;
+            case TO_FILE:
+                parseToFile(currentDiff);
+
+                if (isPathFilterPending) {
+                    filterToFile();
+                }
+
+                break;
+            case HUNK_START:
+                parseHunkStart(currentDiff);
+                break;
+            case FROM_LINE:
+                parseFromLine(currentDiff);
+                break;
+            case TO_LINE:
+                parseToLine(currentDiff);
+                break;
+            case NEUTRAL_LINE:
+                parseNeutralLine(currentDiff);
+                break;
+        }
+
+        return null;
+    }
+
+    /**
+     * Completes the Diff currently being parsed, after the last line of the input has been consumed.
+     *
+     * @return the last Diff of the input, or null if it is empty.
+     */
+    @Nullable
+    final Diff finishInput() {
+        isEndOfInput = true;
+
+        Diff lastDiff = currentDiff;
+        currentDiff = null;
+
+        if (isPathFilterPending && !isPendingPathAccepted()) {
+            lastDiff = new Diff();
+        }
+
+        if (lastDiff.isNotEmpty() && !isWithinDiffLimit()) {
+            lastDiff = new Diff();
+        }
+
+        /*
+         * Inputs that are read ahead of the parse can only tell that the byte limit was exceeded at their end.
+         */
+        if (!hasReachedLimit && maxBytes != ParseLimits.UNLIMITED && getNumberOfBytesRead() > maxBytes) {
+            onLimitExceeded(ParseLimits.Limit.BYTES, lineNumber + 1);
+            hasReachedLimit = true;
+
+            if (lastDiff.isNotEmpty()) {
+                markTruncated(lastDiff, lastDiff.getHunks().isEmpty() ? null : lastDiff.getLatestHunk());
+            }
+        }
+
+        if (tracer != null) {
+            if (lastDiff.isNotEmpty()) {
+                traceDiffParsed(lastDiff, currentDiffFirstLineNumber, lineNumber);
+            } else {
+                stopTiming();
+            }
+
+            tracer.onParseFinished(lineNumber, getNumberOfBytesRead(), elapsedNanos);
+        }
+
+        return lastDiff.isNotEmpty() ? lastDiff : null;
+    }
+
+    /**
+     * Starts measuring the time spent parsing; only has an effect if there is a tracer.
+     */
+    final void startTiming() {
+        if (tracer != null) {
+            timingStartNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Stops measuring the time spent parsing, and attributes the time measured since {@link #startTiming()} to the Diff
+     * currently being parsed. Only needs to be called if parsing is suspended before a Diff has been completed.
+     */
+    final void stopTiming() {
+        if (tracer != null) {
+            final long nanos = System.nanoTime() - timingStartNanos;
+            elapsedNanos += nanos;
+            currentDiffNanos += nanos;
+        }
+    }
+
+    private void traceDiffParsed(
+            @NotNull final Diff diff,
+            final long firstLineNumber,
+            final long lastLineNumber) {
+
+        final long nowNanos = System.nanoTime();
+        final long nanos = nowNanos - timingStartNanos;
+        final long diffNanos = currentDiffNanos + nanos;
+        elapsedNanos += nanos;
+        currentDiffNanos = 0;
+        timingStartNanos = nowNanos;
+
+        //noinspection ConstantConditions
+        tracer.onDiffParsed(diff, firstLineNumber, lastLineNumber, diffNanos);
+    }
+
+    /**
+     * Checks the path named by the current "diff --git" line against the path filter, if the line names it
+     * unambiguously, i.e. if it has the form {@code diff --git a/<path> b/<path>}. Otherwise, the path is checked once
+     * a "rename to" or "copy to" header line or the "+++" line has been read, or, failing those, once the Diff is
+     * complete.
+     */
+    private void filterDiffStart() {
+        isPathFilterPending = false;
+        pendingDiffStartNames = null;
+
+        final String names = getCurrentLineContent(DIFF_START_PREFIX_LENGTH, getCurrentLine().length());
+        final int pathLength = (names.length() - 5) / 2;
+
+        final boolean isUnambiguous = pathLength > 0
+                && names.length() == 2 * pathLength + 5
+                && names.startsWith("a/")
+                && names.startsWith(" b/", 2 + pathLength)
+                && names.regionMatches(2, names, 5 + pathLength, pathLength);
+
+        if (isUnambiguous) {
+            //noinspection ConstantConditions
+            skipDiffUnless(pathFilter.test(names.substring(2, 2 + pathLength)));
+        } else {
+            isPathFilterPending = true;
+            pendingDiffStartNames = names;
+        }
+    }
+
+    /**
+     * Checks the new path named by a "rename to" or "copy to" header line against the path filter. Pure renames and
+     * copies have no "+++" line.
+     */
+    private void filterHeader() {
+        final List<String> headerLines = currentDiff.getHeaderLines();
+        final String headerLine = headerLines.get(headerLines.size() - 1);
+        final String path;
+
+        if (headerLine.startsWith(RENAME_TO_PREFIX)) {
+            path = headerLine.substring(RENAME_TO_PREFIX.length());
+        } else if (headerLine.startsWith(COPY_TO_PREFIX)) {
+            path = headerLine.substring(COPY_TO_PREFIX.length());
+        } else {
+            return;
+        }
+
+        isPathFilterPending = false;
+
+        //noinspection ConstantConditions
+        skipDiffUnless(pathFilter.test(GitPaths.unquote(path)));
+    }
+
+    /**
+     * Checks the "to" path of a complete Diff whose path could not be checked while it was parsed, such as a binary
+     * file with a quoted name, against the path filter. The path is taken from the "diff --git" line as well as
+     * possible; Diffs without a recognizable path are kept.
+     */
+    private boolean isPendingPathAccepted() {
+        isPathFilterPending = false;
+
+        //noinspection ConstantConditions
+        final String path = GitPaths.getToPath(pendingDiffStartNames);
+
+        //noinspection ConstantConditions
+        return path == null || pathFilter.test(path);
+    }
+
+    /**
+     * Checks the path of the current Diff against the path filter once its file names are known. Deleted files are
+     * checked by their "from" name.
+     */
+    private void filterToFile() {
+        isPathFilterPending = false;
+
+        final String toFileName = currentDiff.getToFileName();
+        final String path = "/dev/null".equals(toFileName) ? currentDiff.getFromFileName() : toFileName;
+
+        //noinspection ConstantConditions
+        skipDiffUnless(path != null && pathFilter.test(path));
+    }
+
+    private void skipDiffUnless(final boolean isAccepted) {
+        if (isAccepted) {
+            return;
+        }
+
+        /*
+         * Discard the Diff, and leave the state machine in a state from which the next "diff --git" line starts a new
+         * one.
+         */
+        currentDiff = new Diff();
+        state = ParserState.HEADER;
+        isSkippingDiff = true;
+    }
+
+    /**
+     * Counts a completed, non-empty Diff against {@link ParseLimits.Limit#DIFFS}.
+     *
+     * @return true if the Diff is within the limit; false if it must be dropped.
+     */
+    private boolean isWithinDiffLimit() {
+        if (numberOfDiffs >= maxDiffs) {
+            onLimitExceeded(ParseLimits.Limit.DIFFS, lineNumber);
+            hasReachedLimit = true;
+            return false;
+        }
+
+        numberOfDiffs++;
+
+        /*
+         * There is no point in reading any further if every following Diff would be dropped anyway.
+         */
+        if (numberOfDiffs == maxDiffs && limits.getPolicy(ParseLimits.Limit.DIFFS) == ParseLimits.Policy.TRUNCATE) {
+            hasReachedLimit = true;
+        }
+
+        return true;
+    }
+
+    /**
+     * Throws if the given limit has policy {@link ParseLimits.Policy#FAIL}; otherwise the caller drops the excess.
+     */
+    private void onLimitExceeded(@NotNull final ParseLimits.Limit limit, final long lineNumber) {
+        if (limits.getPolicy(limit) == ParseLimits.Policy.FAIL) {
+            throw new ParseLimitExceededException(limit, limits.getMaximum(limit), lineNumber);
+        }
+    }
+
+    private static void markTruncated(@NotNull final Diff diff, @Nullable final Hunk hunk) {
+        diff.setTruncated(true);
+
+        if (hunk != null) {
+            hunk.setTruncated(true);
+        }
+    }
+
+    /**
+     * @return the end of the content of the current line that is kept under {@link ParseLimits.Limit#LINE_LENGTH},
+     *         marking the given Diff and Hunk as truncated if the line is cut.
+     */
+    private int getCurrentLineEnd(final int beginIndex, @NotNull final Diff diff, @Nullable final Hunk hunk) {
+        final int length = getCurrentLine().length();
+
+        if (length <= maxLineLength) {
+            return length;
+        }
+
+        onLimitExceeded(ParseLimits.Limit.LINE_LENGTH, lineNumber);
+        markTruncated(diff, hunk);
+        return Math.max(beginIndex, (int) maxLineLength);
+    }
+
+    @NotNull
+    private String getCurrentLineContent(final int beginIndex, @NotNull final Diff diff) {
+        return getCurrentLineContent(beginIndex, getCurrentLineEnd(beginIndex, diff, null));
+    }
+
+    private void addCurrentLineTo(
+            @NotNull final Diff diff,
+            @NotNull final Line.LineType lineType,
+            final int beginIndex) {
+
+        if (isSkippingHunk) {
+            return;
+        }
+
+        final Hunk hunk = diff.getLatestHunk();
+
+        if (hunkLineCounter != null) {
+            hunkLineCounter.count(hunk, lineType);
+            return;
+        }
+
+        if (hunk.getNumberOfLines() >= maxLinesPerHunk) {
+            onLimitExceeded(ParseLimits.Limit.LINES_PER_HUNK, lineNumber);
+            markTruncated(diff, hunk);
+            return;
+        }
+
+        if (isPositionsOnly) {
+            hunk.addLine(lineType, null);
+            return;
+        }
+
+        addCurrentLineTo(hunk, lineType, beginIndex, getCurrentLineEnd(beginIndex, diff, hunk));
+    }
+
+    private void parseNeutralLine(Diff currentDiff) {
+        addCurrentLineTo(currentDiff, Line.LineType.NEUTRAL, 0);
+    }
+
+    private void parseToLine(Diff currentDiff) {
+        addCurrentLineTo(currentDiff, Line.LineType.TO, 1);
+    }
+
+    private void parseFromLine(Diff currentDiff) {
+        addCurrentLineTo(currentDiff, Line.LineType.FROM, 1);
+    }
+
+    private void parseHunkStart(Diff currentDiff) {
+        isSkippingHunk = currentDiff.getHunks().size() >= maxHunksPerDiff;
+
+        if (isSkippingHunk) {
+            onLimitExceeded(ParseLimits.Limit.HUNKS_PER_DIFF, lineNumber);
+            currentDiff.setTruncated(true);
+            return;
+        }
+
+        /*
+         * The state machine has just decoded the ranges of this line while recognizing it as a hunk header.
+         */
+        Hunk hunk = new Hunk();
+        hunk.setFromFileRange(new Range(hunkHeader.getFromLineStart(), hunkHeader.getFromLineCount()));
+        hunk.setToFileRange(new Range(hunkHeader.getToLineStart(), hunkHeader.getToLineCount()));
+        currentDiff.getHunks().add(hunk);
+    }
+
+    private void parseFromFile(final Diff currentDiff) {
+        String fileName = cutAfterTab(getCurrentLineContent(4, currentDiff)).trim();
+        
+        /* 
+         * GitHub diff "from file" rows include an a/ prefix. We remove this to compute the actual (relative) path to
+         * the file.
+         */
+        if (fileName.startsWith("a/")) {
+            fileName = fileName.substring(2);
+        }
+
+        currentDiff.setFromFileName(fileName);
+    }
+
+    private void parseToFile(final Diff currentDiff) {
+        String fileName = cutAfterTab(getCurrentLineContent(4, currentDiff)).trim();
+        
+        /* 
+         * GitHub diff "to file" rows include a b/ prefix. We remove this to compute the actual (relative) path to the
+         * file.
+         */
+        if (fileName.startsWith("b/")) {
+            fileName = fileName.substring(2);
+        }
+
+        currentDiff.setToFileName(fileName);
+    }
+
+    /**
+     * Cuts the last TAB and all following characters from a String.
+     */
+    private String cutAfterTab(String line) {
+        final int tabIndex = line.lastIndexOf('\t');
+        return tabIndex == -1 ? line : line.substring(0, tabIndex);
+    }
+
+    private void parseHeader(Diff currentDiff) {
+        currentDiff.getHeaderLines().add(getCurrentLineContent(0, currentDiff));
+    }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import com.github.stkent.githubdiffparser.models.DiffStat;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import com.github.stkent.githubdiffparser.models.HunkStat;
+import com.github.stkent.githubdiffparser.models.Line;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summarizes each {@link Diff} read by a {@link DiffIterator} as a {@link DiffStat}. Hunk lines are only classified
+ * and counted, never turned into {@link Line}s or decoded, so the cost per line is close to that of splitting and
+ * classifying it.
+ */
+class DiffStatIterator implements Iterator<DiffStat>, DiffIterator.HunkLineCounter {
+
+    private final DiffIterator diffIterator;
+
+    /**
+     * Counts of added and removed lines of the Hunks of the Diff currently being read. Lines arrive Hunk by Hunk, so
+     * the counts of the latest Hunk are kept at hand.
+     */
+    private final Map<Hunk, int[]> lineCounts = new IdentityHashMap<>();
+
+    @Nullable
+    private Hunk latestHunk;
+
+    @Nullable
+    private int[] latestHunkLineCounts;
+
+    DiffStatIterator(@NotNull final DiffIterator diffIterator) {
+        this.diffIterator = diffIterator;
+        diffIterator.setHunkLineCounter(this);
+    }
+
+    @Override
+    public void count(@NotNull final Hunk hunk, @NotNull final Line.LineType lineType) {
+        if (hunk != latestHunk) {
+            latestHunk = hunk;
+            latestHunkLineCounts = new int[2];
+            lineCounts.put(hunk, latestHunkLineCounts);
+        }
+
+        if (lineType == Line.LineType.TO) {
+            //noinspection ConstantConditions
+            latestHunkLineCounts[0]++;
+        } else if (lineType == Line.LineType.FROM) {
+            //noinspection ConstantConditions
+            latestHunkLineCounts[1]++;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return diffIterator.hasNext();
+    }
+
+    /**
+     * Reads the next Diff. A Diff is only returned once the next one has started, so every line counted up to then
+     * belongs to it.
+     */
+    @Override
+    public DiffStat next() {
+        final Diff diff = diffIterator.next();
+        final List<HunkStat> hunkStats = new ArrayList<>(diff.getHunks().size());
+
+        for (final Hunk hunk : diff.getHunks()) {
+            final int[] counts = lineCounts.get(hunk);
+
+            hunkStats.add(new HunkStat(
+                    hunk.getFromFileRange(),
+                    hunk.getToFileRange(),
+                    counts != null ? counts[0] : 0,
+                    counts != null ? counts[1] : 0));
+        }
+
+        lineCounts.clear();
+        latestHunk = null;
+        latestHunkLineCounts = null;
+
+        return new DiffStat(diff.getFromFileName(), diff.getToFileName(), hunkStats, diff.isTruncated());
+    }
+
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives each {@link Diff} as soon as the parser has finished reading it, i.e. when the next "diff --git" line (or
+ * the end of the input) is reached. The parser keeps no reference to a Diff after handing it over, so memory use is
+ * bounded by the largest single file in the input rather than by the input as a whole.
+ */
+public interface DiffVisitor {
+
+    /**
+     * Called once for each completely parsed, non-empty Diff, in input order.
+     *
+     * @param diff the Diff that was just parsed.
+     */
+    void visit(@NotNull Diff diff);
+
+}
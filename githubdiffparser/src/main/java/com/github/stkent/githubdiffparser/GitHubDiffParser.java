@@ -33,174 +33,539 @@
 package com.github.stkent.githubdiffparser;
 
 import com.github.stkent.githubdiffparser.models.Diff;
-import com.github.stkent.githubdiffparser.models.Hunk;
-import com.github.stkent.githubdiffparser.models.Line;
-import com.github.stkent.githubdiffparser.models.Range;
+import com.github.stkent.githubdiffparser.models.DiffStat;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @SuppressWarnings("WeakerAccess")
 public class GitHubDiffParser {
     
-    private final boolean logToSout;
+    /**
+     * The largest input that can be read into an array to be cached.
+     */
+    private static final int MAX_CACHED_INPUT_LENGTH = Integer.MAX_VALUE - 8;
+
+    @Nullable
+    private ParseTracer tracer;
+
+    @Nullable
+    private DiffCache cache;
+
+    @Nullable
+    private ParseLimits limits;
+
+    @Nullable
+    private Predicate<String> pathFilter;
 
     public GitHubDiffParser() {
         this(false);
     }
 
+    /**
+     * @param logToSout whether to print every state transition to {@link System#out}, as by a
+     *                  {@link PrintStreamParseTracer}.
+     */
     public GitHubDiffParser(final boolean logToSout) {
-        this.logToSout = logToSout;
+        this.tracer = logToSout ? new PrintStreamParseTracer(System.out) : null;
+    }
+
+    /**
+     * Sets the tracer that receives the state transitions, line numbers and timings of every parse. Without a tracer,
+     * no tracing work is done. Should be called before the parser is used.
+     *
+     * @param tracer the tracer to use, or null to disable tracing.
+     */
+    public void setTracer(@Nullable final ParseTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Sets the limits that every parse enforces, to bound the memory a single input can use. Limits that end the input
+     * early ({@link ParseLimits.Limit#DIFFS} and {@link ParseLimits.Limit#BYTES}) make {@code parseParallel} parse
+     * serially. Should be called before the parser is used.
+     *
+     * @param limits the limits to enforce, or null to parse inputs of any size.
+     */
+    public void setLimits(@Nullable final ParseLimits limits) {
+        this.limits = limits;
     }
 
+    /**
+     * Sets the filter that decides which files every parse keeps, e.g. a {@link GlobPathFilter}. Files are filtered by
+     * the path named on their "diff --git" line, or, if that line is ambiguous (e.g. for renames or quoted names), by
+     * their "rename to" or "copy to" path or their "+++" name ("---" name for deleted files), whichever comes first.
+     * The lines of a filtered-out file are skipped up to the next "diff --git" line without being parsed, validated or
+     * traced. Files that have none of these lines are filtered by their quoted "diff --git" names once complete. Should
+     * be called before the parser is used.
+     *
+     * @param pathFilter accepts the paths of the files to keep, or null to keep all files.
+     */
+    public void setPathFilter(@Nullable final Predicate<String> pathFilter) {
+        this.pathFilter = pathFilter;
+    }
+
+    /**
+     * Sets the cache that the list-returning {@code parse} and {@code parseParallel} methods look up their input in
+     * before parsing it, and store their result in afterwards. The visitor, iterator and stream based methods do not
+     * use the cache. Results are only shared between parsers with equal limits and the same path filter instance.
+     * Should be called before the parser is used.
+     *
+     * @param cache the cache to use, or null to parse every input.
+     */
+    public void setCache(@Nullable final DiffCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Parses the given input. If a cache is set, the input is read completely before being parsed, unless it is too
+     * large to be held in an array, in which case it is parsed as it is read without being cached.
+     *
+     * @throws UncheckedIOException if reading the input fails.
+     */
     @NotNull
     public List<Diff> parse(InputStream in) {
-        ResizingParseWindow window = new ResizingParseWindow(in);
-        ParserState state = ParserState.INITIAL;
-        List<Diff> parsedDiffs = new ArrayList<>();
-        Diff currentDiff = new Diff();
-        String currentLine;
-
-        while ((currentLine = window.slideForward()) != null) {
-            state = state.nextState(window, logToSout);
-            
-            if (state == null) {
-                throw new IllegalStateException("Parser reached illegal state!");
-            }
-            
-            switch (state) {
-                case DIFF_START:
-                    if (currentDiff.isNotEmpty()) {
-                        parsedDiffs.add(currentDiff);
-                    }
-                    
-                    currentDiff = new Diff();
-                    break;
-                case HEADER:
-                    parseHeader(currentDiff, currentLine);
-                    break;
-                case FROM_FILE:
-                    parseFromFile(currentDiff, currentLine);
-                    break;
-                case TO_FILE:
-                    parseToFile(currentDiff, currentLine);
-                    break;
-                case HUNK_START:
-                    parseHunkStart(currentDiff, currentLine);
-                    break;
-                case FROM_LINE:
-                    parseFromLine(currentDiff, currentLine);
-                    break;
-                case TO_LINE:
-                    parseToLine(currentDiff, currentLine);
-                    break;
-                case NEUTRAL_LINE:
-                    parseNeutralLine(currentDiff, currentLine);
-                    break;
+        InputStream remainingIn = in;
+
+        if (cache != null) {
+            /*
+             * Any bytes beyond the limit would be ignored, but reading one more tells the parse that the limit was hit.
+             */
+            final long maxBytes = limits != null && limits.isLimited(ParseLimits.Limit.BYTES)
+                    ? limits.getMaximum(ParseLimits.Limit.BYTES) + 1
+                    : Long.MAX_VALUE;
+            final byte[] bytes = readFully(in, Math.min(maxBytes, MAX_CACHED_INPUT_LENGTH));
+
+            if (bytes.length < MAX_CACHED_INPUT_LENGTH || maxBytes <= MAX_CACHED_INPUT_LENGTH) {
+                return parse(bytes);
             }
-        }
 
-        if (currentDiff.isNotEmpty()) {
-            parsedDiffs.add(currentDiff);
+            remainingIn = new SequenceInputStream(new ByteArrayInputStream(bytes), in);
         }
-        
+
+        final List<Diff> parsedDiffs = new ArrayList<>();
+        parse(remainingIn, parsedDiffs::add);
         return parsedDiffs;
     }
 
+    /**
+     * Parses the given bytes, which are assumed to be encoded in the platform's default charset. The content of hunk
+     * lines refers back to the array, so it must not be modified while the parsed {@link Diff}s are in use.
+     *
+     * @see #parse(ByteBuffer)
+     */
     @NotNull
     public List<Diff> parse(byte[] bytes) {
-        return parse(new ByteArrayInputStream(bytes));
+        return parse(ByteBuffer.wrap(bytes));
     }
 
+    /**
+     * Parses the remaining bytes of the given buffer, which are assumed to be encoded in the platform's default
+     * charset. Lines are split and classified directly on the bytes. The content of hunk lines is not copied out of the
+     * buffer but decoded on demand, so the buffer must not be modified while the parsed {@link Diff}s are in use. The
+     * buffer's position is not modified.
+     *
+     * @param buffer the diff to parse.
+     * @return the parsed Diffs, in input order.
+     */
+    @NotNull
+    public List<Diff> parse(ByteBuffer buffer) {
+        if (cache != null) {
+            return cache.get(buffer, limits, pathFilter, this::parseUncached);
+        }
+
+        return parseUncached(buffer);
+    }
+
+    /**
+     * Parses the given file straight from memory-mapped regions of it. Only the content of hunk lines is copied onto
+     * the heap, so the parsed Diffs do not refer to the file once it has been closed. The file is closed before this
+     * method returns. If a cache is set, files of up to 2 GB are mapped and looked up in the cache as a whole.
+     *
+     * @param file the diff to parse.
+     * @return the parsed Diffs, in input order.
+     */
     @NotNull
     public List<Diff> parse(File file) throws IOException {
-        return parse(new FileInputStream(file));
+        if (cache != null) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                if (channel.size() <= Integer.MAX_VALUE) {
+                    return cache.get(
+                            channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                            limits,
+                            pathFilter,
+                            buffer -> collect(iterate(buffer, true)));
+                }
+            }
+        }
+
+        final List<Diff> parsedDiffs = new ArrayList<>();
+        parse(file, parsedDiffs::add);
+        return parsedDiffs;
     }
 
-    private void parseNeutralLine(Diff currentDiff, String currentLine) {
-        Line line = new Line(Line.LineType.NEUTRAL, currentLine);
-        currentDiff.getLatestHunk().getLines().add(line);
+    /**
+     * Parses the given input using all threads of the common {@link ForkJoinPool}.
+     *
+     * @see #parseParallel(ByteBuffer, ForkJoinPool)
+     */
+    @NotNull
+    public List<Diff> parseParallel(byte[] bytes) {
+        return parseParallel(ByteBuffer.wrap(bytes), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses the remaining bytes of the given buffer on the given pool. The input is split into sections at
+     * "diff --git" lines, the sections are parsed concurrently, and the resulting {@link Diff}s are returned in their
+     * original order. The result is identical to that of {@link #parse(ByteBuffer)}.
+     *
+     * @param buffer the diff to parse.
+     * @param pool   the pool to parse sections on.
+     * @return the parsed Diffs, in input order.
+     */
+    @NotNull
+    public List<Diff> parseParallel(ByteBuffer buffer, ForkJoinPool pool) {
+        if (!canParseParallel()) {
+            return parse(buffer);
+        }
+
+        return parseParallel(buffer, pool, false);
     }
 
-    private void parseToLine(Diff currentDiff, String currentLine) {
-        Line toLine = new Line(Line.LineType.TO, currentLine.substring(1));
-        currentDiff.getLatestHunk().getLines().add(toLine);
+    /**
+     * Maps the given file into memory and parses it using all threads of the common {@link ForkJoinPool}. Files that
+     * are too large to be mapped in one go (over 2 GB) are parsed serially, as by {@link #parse(File)}. The file is
+     * closed before this method returns.
+     *
+     * @see #parseParallel(ByteBuffer, ForkJoinPool)
+     */
+    @NotNull
+    public List<Diff> parseParallel(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE || !canParseParallel()) {
+                return parse(file);
+            }
+
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parseParallel(buffer, ForkJoinPool.commonPool(), true);
+        }
     }
 
-    private void parseFromLine(Diff currentDiff, String currentLine) {
-        Line fromLine = new Line(Line.LineType.FROM, currentLine.substring(1));
-        currentDiff.getLatestHunk().getLines().add(fromLine);
+    /**
+     * Parses the given input, handing each {@link Diff} to the supplied visitor as soon as it is complete instead of
+     * collecting all of them into a list.
+     *
+     * @param in      the diff to parse.
+     * @param visitor receives each parsed Diff, in input order.
+     */
+    public void parse(InputStream in, @NotNull final DiffVisitor visitor) {
+        visitAll(iterate(in), visitor);
     }
 
-    private void parseHunkStart(Diff currentDiff, String currentLine) {
-        Matcher matcher = Constants.HUNK_START_PATTERN.matcher(currentLine);
-        
-        if (matcher.matches()) {
-            String range1Start = matcher.group(1);
-            String range1Count = (matcher.group(2) != null) ? matcher.group(2) : "1";
-            Range fromRange = new Range(Integer.valueOf(range1Start), Integer.valueOf(range1Count));
+    public void parse(byte[] bytes, @NotNull final DiffVisitor visitor) {
+        parse(ByteBuffer.wrap(bytes), visitor);
+    }
 
-            String range2Start = matcher.group(3);
-            String range2Count = (matcher.group(4) != null) ? matcher.group(4) : "1";
-            Range toRange = new Range(Integer.valueOf(range2Start), Integer.valueOf(range2Count));
+    public void parse(ByteBuffer buffer, @NotNull final DiffVisitor visitor) {
+        visitAll(iterate(buffer), visitor);
+    }
+
+    public void parse(File file, @NotNull final DiffVisitor visitor) throws IOException {
+        parse(file, MappedFileDiffIterator.DEFAULT_WINDOW_SIZE, visitor);
+    }
+
+    void parse(File file, final int windowSize, @NotNull final DiffVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final Charset charset = Charset.defaultCharset();
+
+            if (ByteBufferDiffIterator.isAsciiCompatible(charset)) {
+                visitAll(configure(new MappedFileDiffIterator(channel, charset, tracer, windowSize)), visitor);
+            } else {
+                parse(Channels.newInputStream(channel), visitor);
+            }
+        }
+    }
+
+    /**
+     * Creates a push-based parser for a single input that arrives in chunks, e.g. from a non-blocking channel. The
+     * returned parser uses this parser's tracer, limits and path filter, but not its cache.
+     *
+     * @return a new parser for input in the default charset, which must be ASCII-compatible.
+     */
+    @NotNull
+    public IncrementalDiffParser newIncrementalParser() {
+        final IncrementalDiffParser incrementalDiffParser = new IncrementalDiffParser(Charset.defaultCharset(), tracer);
+
+        if (limits != null) {
+            incrementalDiffParser.setLimits(limits);
+        }
+
+        incrementalDiffParser.setPathFilter(pathFilter);
+        return incrementalDiffParser;
+    }
+
+    /**
+     * Returns an iterator that parses the given input lazily: each call to {@link Iterator#hasNext()} reads only as
+     * many lines as are needed to complete the next {@link Diff}. The input stream is not closed by the iterator.
+     *
+     * @param in the diff to parse.
+     * @return an iterator over the Diffs in the input, in input order.
+     */
+    @NotNull
+    public Iterator<Diff> iterate(InputStream in) {
+        return newDiffIterator(in);
+    }
 
-            Hunk hunk = new Hunk();
-            hunk.setFromFileRange(fromRange);
-            hunk.setToFileRange(toRange);
-            currentDiff.getHunks().add(hunk);
+    /**
+     * Summarizes each file of the given input by its names and the number of lines added and removed, as shown by
+     * {@code git diff --stat}. Lines are classified exactly as by {@link #parse(InputStream)}, but hunk lines are only
+     * counted. The cache is not used. The input stream is not closed.
+     *
+     * @param in the diff to summarize.
+     * @return a summary of each Diff in the input, in input order.
+     */
+    @NotNull
+    public List<DiffStat> parseDiffStats(InputStream in) {
+        return collect(new DiffStatIterator(newDiffIterator(in)));
+    }
+
+    /**
+     * @see #parseDiffStats(ByteBuffer)
+     */
+    @NotNull
+    public List<DiffStat> parseDiffStats(byte[] bytes) {
+        return parseDiffStats(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Summarizes each file of the remaining bytes of the given buffer, as by {@link #parseDiffStats(InputStream)}.
+     * Hunk lines are counted straight from the bytes without being decoded. The buffer's position is not modified.
+     *
+     * @param buffer the diff to summarize.
+     * @return a summary of each Diff in the input, in input order.
+     */
+    @NotNull
+    public List<DiffStat> parseDiffStats(ByteBuffer buffer) {
+        return collect(new DiffStatIterator(iterate(buffer)));
+    }
+
+    /**
+     * Parses the given input for position lookups only, such as {@link Diff#getDiffLineNumberForToFileLocation(String,
+     * int)}. Diffs keep their file names, header lines and Hunk ranges, but hunk lines are stored as their types only,
+     * packed into two bits per line, and have null content. Lookups work straight on the packed types. The cache is not
+     * used. The input stream is not closed.
+     *
+     * @param in the diff to parse.
+     * @return the parsed Diffs, in input order.
+     */
+    @NotNull
+    public List<Diff> parsePositions(InputStream in) {
+        return collect(positionsOnly(newDiffIterator(in)));
+    }
+
+    /**
+     * @see #parsePositions(ByteBuffer)
+     */
+    @NotNull
+    public List<Diff> parsePositions(byte[] bytes) {
+        return parsePositions(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Parses the remaining bytes of the given buffer for position lookups only, as by
+     * {@link #parsePositions(InputStream)}. Hunk lines are classified straight from the bytes, and the returned Diffs
+     * do not refer to the buffer. The buffer's position is not modified.
+     *
+     * @param buffer the diff to parse.
+     * @return the parsed Diffs, in input order.
+     */
+    @NotNull
+    public List<Diff> parsePositions(ByteBuffer buffer) {
+        return collect(positionsOnly(iterate(buffer)));
+    }
+
+    @NotNull
+    private DiffIterator newDiffIterator(InputStream in) {
+        final long maxBytes = limits != null ? limits.getMaximum(ParseLimits.Limit.BYTES) : ParseLimits.UNLIMITED;
+        final Charset charset = Charset.defaultCharset();
+        final CountingInputStream countingIn;
+        final RingBufferParseWindow window;
+
+        if ((maxBytes != ParseLimits.UNLIMITED || tracer != null) && ByteBufferDiffIterator.isAsciiCompatible(charset)) {
+            /*
+             * The window counts the bytes of each line it hands out, so the parse stops reading right after the line
+             * that crosses the limit, and sees that line in full just like a parse of the same bytes does.
+             */
+            countingIn = null;
+            window = new RingBufferParseWindow(in, charset);
         } else {
-            throw new IllegalStateException(String.format("No line ranges found in the following hunk start line: '%s'. Expected something " +
-                    "like '-1,5 +3,5'.", currentLine));
+            if (maxBytes != ParseLimits.UNLIMITED) {
+                countingIn = new CountingInputStream(in, maxBytes);
+            } else if (tracer != null) {
+                countingIn = new CountingInputStream(in);
+            } else {
+                countingIn = null;
+            }
+
+            window = new RingBufferParseWindow(countingIn != null ? countingIn : in);
+        }
+
+        if (limits != null && limits.isLimited(ParseLimits.Limit.LINE_LENGTH)) {
+            /*
+             * Keeping one char more than allowed lets the parser tell which lines were cut.
+             */
+            final long maxLineLength = limits.getMaximum(ParseLimits.Limit.LINE_LENGTH);
+            window.setMaxLineLength((int) Math.min(maxLineLength + 1, Integer.MAX_VALUE));
         }
+
+        return configure(new ParseWindowDiffIterator(window, tracer, countingIn));
     }
 
-    private void parseFromFile(final Diff currentDiff, final String currentLine) {
-        String fileName = cutAfterTab(currentLine.substring(4)).trim();
-        
-        /* 
-         * GitHub diff "from file" rows include an a/ prefix. We remove this to compute the actual (relative) path to
-         * the file.
-         */
-        if (fileName.startsWith("a/")) {
-            fileName = fileName.substring(2);
+    /**
+     * @param isCopyingContent whether to copy the content of hunk lines onto the heap, e.g. out of a mapped file.
+     */
+    @NotNull
+    private List<Diff> parseParallel(ByteBuffer buffer, ForkJoinPool pool, final boolean isCopyingContent) {
+        final ParallelDiffParser parallelDiffParser = new ParallelDiffParser(
+                Charset.defaultCharset(), tracer, limits, pathFilter, ParallelDiffParser.DEFAULT_MIN_SECTION_SIZE);
+        parallelDiffParser.setCopyingContent(isCopyingContent);
+
+        if (cache != null) {
+            return cache.get(buffer, limits, pathFilter, input -> parallelDiffParser.parse(input, pool));
         }
 
-        currentDiff.setFromFileName(fileName);
+        return parallelDiffParser.parse(buffer, pool);
     }
 
-    private void parseToFile(final Diff currentDiff, final String currentLine) {
-        String fileName = cutAfterTab(currentLine.substring(4)).trim();
-        
-        /* 
-         * GitHub diff "to file" rows include a b/ prefix. We remove this to compute the actual (relative) path to the
-         * file.
+    @NotNull
+    private DiffIterator iterate(ByteBuffer buffer) {
+        return iterate(buffer, false);
+    }
+
+    /**
+     * @param isCopyingContent whether to copy the content of hunk lines onto the heap, e.g. out of a mapped file.
+     */
+    @NotNull
+    private DiffIterator iterate(ByteBuffer buffer, final boolean isCopyingContent) {
+        final Charset charset = Charset.defaultCharset();
+
+        if (ByteBufferDiffIterator.isAsciiCompatible(charset)) {
+            final ByteBufferDiffIterator diffIterator = new ByteBufferDiffIterator(buffer, charset, tracer);
+            diffIterator.setCopyingContent(isCopyingContent);
+            return configure(diffIterator);
+        }
+
+        /*
+         * Lines cannot be classified byte-by-byte in charsets such as UTF-16, so fall back to decoding the whole input.
          */
-        if (fileName.startsWith("b/")) {
-            fileName = fileName.substring(2);
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return newDiffIterator(new ByteArrayInputStream(bytes));
+    }
+
+    @NotNull
+    private List<Diff> parseUncached(ByteBuffer buffer) {
+        final List<Diff> parsedDiffs = new ArrayList<>();
+        parse(buffer, parsedDiffs::add);
+        return parsedDiffs;
+    }
+
+    @NotNull
+    private <T extends DiffIterator> T configure(@NotNull final T diffIterator) {
+        if (limits != null) {
+            diffIterator.setLimits(limits);
         }
 
-        currentDiff.setToFileName(fileName);
+        diffIterator.setPathFilter(pathFilter);
+        return diffIterator;
+    }
+
+    @NotNull
+    private static DiffIterator positionsOnly(@NotNull final DiffIterator diffIterator) {
+        diffIterator.setPositionsOnly(true);
+        return diffIterator;
     }
 
     /**
-     * Cuts a TAB and all following characters from a String.
+     * @return true if the input can be split into sections that are parsed independently.
      */
-    private String cutAfterTab(String line) {
-        Pattern p = Pattern.compile("^(.*)\\t.*$");
-        Matcher matcher = p.matcher(line);
-        if (matcher.matches()) {
-            return matcher.group(1);
-        } else {
-            return line;
+    private boolean canParseParallel() {
+        return ByteBufferDiffIterator.isAsciiCompatible(Charset.defaultCharset()) && !hasInputLimit();
+    }
+
+    /**
+     * @return true if a limit may end the input early, so that the input cannot be split into independent sections.
+     */
+    private boolean hasInputLimit() {
+        return limits != null
+                && (limits.isLimited(ParseLimits.Limit.DIFFS) || limits.isLimited(ParseLimits.Limit.BYTES));
+    }
+
+    @NotNull
+    private static byte[] readFully(InputStream in, final long maxBytes) {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] chunk = new byte[8192];
+            long remaining = maxBytes;
+            int count;
+
+            while (remaining > 0 && (count = in.read(chunk, 0, (int) Math.min(chunk.length, remaining))) != -1) {
+                out.write(chunk, 0, count);
+                remaining -= count;
+            }
+
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    private void parseHeader(Diff currentDiff, String currentLine) {
-        currentDiff.getHeaderLines().add(currentLine);
+    @NotNull
+    private static <T> List<T> collect(@NotNull final Iterator<T> iterator) {
+        final List<T> result = new ArrayList<>();
+
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+
+        return result;
+    }
+
+    private static void visitAll(@NotNull final Iterator<Diff> diffIterator, @NotNull final DiffVisitor visitor) {
+        while (diffIterator.hasNext()) {
+            visitor.visit(diffIterator.next());
+        }
+    }
+
+    /**
+     * Returns a sequential, ordered stream that parses the given input lazily. Short-circuiting operations such as
+     * {@link Stream#findFirst()} or {@link Stream#limit(long)} stop reading the input once they are satisfied. The
+     * input stream is not closed by the returned stream.
+     *
+     * @param in the diff to parse.
+     * @return a stream of the Diffs in the input, in input order.
+     */
+    @NotNull
+    public Stream<Diff> stream(InputStream in) {
+        final Spliterator<Diff> spliterator = Spliterators.spliteratorUnknownSize(
+                iterate(in), Spliterator.ORDERED | Spliterator.NONNULL);
+
+        return StreamSupport.stream(spliterator, false);
     }
 
 }
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads paths as git writes them into the headers of a diff. Paths that contain special characters are written in
+ * double quotes, with C-style escapes and non-ASCII bytes as octal escapes.
+ */
+final class GitPaths {
+
+    private GitPaths() {
+    }
+
+    /**
+     * @return the given path with its quotes removed and its escapes decoded as UTF-8, or the path itself if it is not
+     *         quoted.
+     */
+    @NotNull
+    static String unquote(@NotNull final String path) {
+        if (path.length() < 2 || path.charAt(0) != '"' || path.charAt(path.length() - 1) != '"') {
+            return path;
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(path.length());
+        int index = 1;
+
+        while (index < path.length() - 1) {
+            final char c = path.charAt(index++);
+
+            if (c != '\\' || index == path.length() - 1) {
+                final byte[] encoded = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+                bytes.write(encoded, 0, encoded.length);
+                continue;
+            }
+
+            final char escaped = path.charAt(index++);
+
+            if (escaped >= '0' && escaped <= '7') {
+                int value = escaped - '0';
+
+                for (int i = 0; i < 2 && index < path.length() - 1; i++) {
+                    final char digit = path.charAt(index);
+
+                    if (digit < '0' || digit > '7') {
+                        break;
+                    }
+
+                    value = value * 8 + digit - '0';
+                    index++;
+                }
+
+                bytes.write(value);
+            } else {
+                bytes.write(unescape(escaped));
+            }
+        }
+
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Finds the "to" path on a "diff --git" line whose names are not simply {@code a/<path> b/<path>}, e.g. because
+     * they are quoted.
+     *
+     * @param names the part of the line after "diff --git ".
+     * @return the "to" path without its "b/" prefix, or null if it cannot be told apart from the "from" path.
+     */
+    @Nullable
+    static String getToPath(@NotNull final String names) {
+        final int toPathStart;
+
+        if (names.startsWith("\"")) {
+            final int fromPathEnd = getQuotedEnd(names);
+
+            if (fromPathEnd < 0 || fromPathEnd + 1 >= names.length() || names.charAt(fromPathEnd + 1) != ' ') {
+                return null;
+            }
+
+            toPathStart = fromPathEnd + 2;
+        } else {
+            final int separator = Math.max(names.lastIndexOf(" b/"), names.lastIndexOf(" \"b/"));
+
+            if (separator < 0) {
+                return null;
+            }
+
+            toPathStart = separator + 1;
+        }
+
+        final String toPath = unquote(names.substring(toPathStart));
+        return toPath.startsWith("b/") ? toPath.substring(2) : null;
+    }
+
+    /**
+     * @return the index of the closing quote of the quoted path at the start of the given string, or -1 if it has none.
+     */
+    private static int getQuotedEnd(@NotNull final String string) {
+        for (int index = 1; index < string.length(); index++) {
+            final char c = string.charAt(index);
+
+            if (c == '\\') {
+                index++;
+            } else if (c == '"') {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int unescape(final char escaped) {
+        switch (escaped) {
+            case 'a':
+                return 7;
+            case 'b':
+                return '\b';
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'v':
+                return 11;
+            case 'f':
+                return '\f';
+            case 'r':
+                return '\r';
+            default:
+                return escaped;
+        }
+    }
+
+}
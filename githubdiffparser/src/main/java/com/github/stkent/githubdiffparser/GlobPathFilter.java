@@ -0,0 +1,128 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A path filter for {@link GitHubDiffParser#setPathFilter(Predicate)} that rejects every path matched by one of a set
+ * of globs, in the style of a .gitignore file:
+ * 
+ * <ul>
+ *     <li>{@code *} matches any number of chars within a path segment, and {@code ?} matches a single one;</li>
+ *     <li>{@code **} matches any number of chars across path segments, so {@code docs/**} matches
+ *     {@code docs/a/b.md};</li>
+ *     <li>a glob that contains no '/' other than a trailing one matches at any depth, so {@code *.lock} matches
+ *     {@code app/yarn.lock}; a leading '/' anchors a glob at the root;</li>
+ *     <li>a glob also matches everything below the directories it matches, and a trailing '/' makes it match only
+ *     directories.</li>
+ * </ul>
+ * 
+ * All globs are compiled into a single pattern, so each path is matched once no matter how many globs there are. To
+ * keep only the matched paths instead, use {@link #negate()}.
+ */
+public class GlobPathFilter implements Predicate<String> {
+
+    @NotNull
+    private final Pattern pattern;
+
+    /**
+     * @param excludedGlobs the globs matching the paths to reject.
+     */
+    public GlobPathFilter(@NotNull final String... excludedGlobs) {
+        this(Arrays.asList(excludedGlobs));
+    }
+
+    /**
+     * @param excludedGlobs the globs matching the paths to reject.
+     */
+    public GlobPathFilter(@NotNull final Collection<String> excludedGlobs) {
+        final StringBuilder regex = new StringBuilder();
+
+        for (final String glob : excludedGlobs) {
+            if (glob.isEmpty() || glob.equals("/")) {
+                throw new IllegalArgumentException("glob must not be empty: " + glob);
+            }
+
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+
+            appendRegex(glob, regex);
+        }
+
+        /*
+         * An empty alternation would match the empty path only, so without globs, match nothing at all.
+         */
+        this.pattern = Pattern.compile(regex.length() > 0 ? regex.toString() : "(?!)");
+    }
+
+    /**
+     * @return true if the given path is not matched by any of the globs.
+     */
+    @Override
+    public boolean test(@NotNull final String path) {
+        return !pattern.matcher(path).matches();
+    }
+
+    private static void appendRegex(@NotNull final String glob, @NotNull final StringBuilder regex) {
+        final boolean isDirectoryOnly = glob.endsWith("/");
+        final String trimmedGlob = isDirectoryOnly ? glob.substring(0, glob.length() - 1) : glob;
+        int index = 0;
+
+        regex.append("(?:");
+
+        if (trimmedGlob.startsWith("/")) {
+            index = 1;
+        } else if (trimmedGlob.indexOf('/') < 0) {
+            regex.append("(?:.*/)?");
+        }
+
+        while (index < trimmedGlob.length()) {
+            final char c = trimmedGlob.charAt(index);
+
+            if (c == '*' && trimmedGlob.startsWith("**/", index)) {
+                regex.append("(?:.*/)?");
+                index += 3;
+            } else if (c == '*' && trimmedGlob.startsWith("**", index)) {
+                regex.append(".*");
+                index += 2;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+                index++;
+            } else if (c == '?') {
+                regex.append("[^/]");
+                index++;
+            } else {
+                if (!Character.isLetterOrDigit(c)) {
+                    regex.append('\\');
+                }
+
+                regex.append(c);
+                index++;
+            }
+        }
+
+        regex.append(isDirectoryOnly ? "/.*)" : "(?:/.*)?)");
+    }
+
+}
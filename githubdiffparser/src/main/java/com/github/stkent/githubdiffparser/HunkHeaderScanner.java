@@ -0,0 +1,170 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Recognizes and decodes hunk header lines such as {@code @@ -1,5 +2,6 @@ optional section heading} in a single pass
+ * without allocating.
+ * 
+ * The accepted syntax is the same as that of {@link Constants#HUNK_START_PATTERN}: the ranges are taken from the last
+ * '-' in the line that is followed by {@code a[,b] +c[,d]}; anything may precede or follow them, and omitted counts
+ * default to 1. Candidate ranges are tried from right to left, and each attempt only looks at the digits following
+ * its '-', so the running time is linear in the length of the line. Ranges whose numbers do not fit into an int are
+ * not recognized.
+ * 
+ * Instances are mutable and hold the ranges decoded by the most recent successful call to {@link #scan(CharSequence)};
+ * they are not thread-safe.
+ */
+class HunkHeaderScanner {
+
+    private int fromLineStart;
+
+    private int fromLineCount;
+
+    private int toLineStart;
+
+    private int toLineCount;
+
+    /**
+     * Position within the line being scanned; only valid during a call to {@link #scan(CharSequence)}.
+     */
+    private int index;
+
+    /**
+     * Checks whether the given line is a hunk header and, if so, decodes its ranges.
+     *
+     * @param line the line to check.
+     * @return true if the line is a hunk header, in which case its ranges are available from this scanner until the
+     *         next successful scan.
+     */
+    boolean scan(@NotNull final CharSequence line) {
+        for (int dashIndex = line.length() - 1; dashIndex >= 0; dashIndex--) {
+            if (line.charAt(dashIndex) == '-' && scanRanges(line, dashIndex + 1)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    int getFromLineStart() {
+        return fromLineStart;
+    }
+
+    int getFromLineCount() {
+        return fromLineCount;
+    }
+
+    int getToLineStart() {
+        return toLineStart;
+    }
+
+    int getToLineCount() {
+        return toLineCount;
+    }
+
+    /**
+     * Attempts to decode {@code a[,b] +c[,d]} starting at the given index.
+     */
+    private boolean scanRanges(@NotNull final CharSequence line, final int start) {
+        index = start;
+
+        final long fromStart = scanNumber(line);
+        if (fromStart < 0) {
+            return false;
+        }
+
+        long fromCount = 1;
+        if (isAt(line, ',') && isDigitAt(line, index + 1)) {
+            index++;
+            fromCount = scanNumber(line);
+        }
+
+        if (!isAt(line, ' ') || !isAt(line, index + 1, '+')) {
+            return false;
+        }
+
+        index += 2;
+
+        final long toStart = scanNumber(line);
+        if (toStart < 0) {
+            return false;
+        }
+
+        long toCount = 1;
+        if (isAt(line, ',') && isDigitAt(line, index + 1)) {
+            index++;
+            toCount = scanNumber(line);
+        }
+
+        if (fromCount < 0 || toCount < 0) {
+            return false;
+        }
+
+        fromLineStart = (int) fromStart;
+        fromLineCount = (int) fromCount;
+        toLineStart = (int) toStart;
+        toLineCount = (int) toCount;
+        return true;
+    }
+
+    /**
+     * Consumes a maximal run of digits.
+     *
+     * @return the decoded number, or -1 if there is no digit at the current index or the number does not fit into an
+     *         int.
+     */
+    private long scanNumber(@NotNull final CharSequence line) {
+        if (!isDigitAt(line, index)) {
+            return -1;
+        }
+
+        long value = 0;
+        boolean overflow = false;
+
+        while (isDigitAt(line, index)) {
+            if (!overflow) {
+                value = value * 10 + (line.charAt(index) - '0');
+                overflow = value > Integer.MAX_VALUE;
+            }
+
+            index++;
+        }
+
+        return overflow ? -1 : value;
+    }
+
+    private boolean isAt(@NotNull final CharSequence line, final char c) {
+        return isAt(line, index, c);
+    }
+
+    private static boolean isAt(@NotNull final CharSequence line, final int index, final char c) {
+        return index < line.length() && line.charAt(index) == c;
+    }
+
+    private static boolean isDigitAt(@NotNull final CharSequence line, final int index) {
+        if (index >= line.length()) {
+            return false;
+        }
+
+        final char c = line.charAt(index);
+        return c >= '0' && c <= '9';
+    }
+
+}
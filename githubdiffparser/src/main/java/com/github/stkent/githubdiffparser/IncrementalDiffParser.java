@@ -0,0 +1,309 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A push-based parser for input that arrives in chunks, e.g. from a non-blocking channel. Chunks may be split at any
+ * byte; a partial line at the end of a chunk is held back until the chunk that completes it is fed. Each call returns
+ * the Diffs completed so far and never blocks, so the parser can run on an event loop thread.
+ * 
+ * The bytes of each chunk are copied, so the caller may reuse its buffer as soon as {@link #feed(ByteBuffer)} returns.
+ * Like {@link GitHubDiffParser#parse(byte[])}, hunk lines are not decoded until they are read; they refer to the copied
+ * bytes.
+ * 
+ * Under a {@link ParseLimits.Limit#LINE_LENGTH} limit, a partial line is held back only up to one byte past the limit,
+ * so that a single huge line cannot exhaust memory however long it takes to complete. The limit's policy is applied
+ * once the line is parsed. As with streams, a hunk header that is split across chunks is then only recognized if its
+ * ranges lie within the limit.
+ * 
+ * Instances are not thread-safe and parse a single input. If a call throws, the input is malformed and the parser must
+ * not be used any further.
+ */
+public class IncrementalDiffParser {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final ChunkDiffIterator diffIterator;
+
+    /**
+     * The start of a line that has not been terminated yet.
+     */
+    private byte[] pendingBytes = new byte[0];
+
+    private int numberOfPendingBytes = 0;
+
+    /**
+     * The length of the partial line held back, including any bytes dropped under {@link ParseLimits.Limit#LINE_LENGTH}.
+     */
+    private long pendingLineLength = 0;
+
+    /**
+     * The number of pending bytes dropped under {@link ParseLimits.Limit#LINE_LENGTH}; they still count towards
+     * {@link ParseLimits.Limit#BYTES} once their line is parsed.
+     */
+    private long numberOfDroppedPendingBytes = 0;
+
+    private long maxLineLength = ParseLimits.UNLIMITED;
+
+    private boolean isFinished = false;
+
+    /**
+     * Whether the end of the input has been parsed, either in {@link #finish()} or because a limit ended it early.
+     */
+    private boolean isEndOfInputParsed = false;
+
+    /**
+     * @param charset the charset of the input, which must encode ASCII characters as single identical bytes (e.g.
+     *                UTF-8 or ISO-8859-1).
+     */
+    public IncrementalDiffParser(@NotNull final Charset charset) {
+        this(charset, null);
+    }
+
+    /**
+     * @param charset the charset of the input, which must encode ASCII characters as single identical bytes (e.g.
+     *                UTF-8 or ISO-8859-1).
+     * @param tracer  the tracer to report transitions and timings to, or null.
+     */
+    public IncrementalDiffParser(@NotNull final Charset charset, @Nullable final ParseTracer tracer) {
+        if (!ByteBufferDiffIterator.isAsciiCompatible(charset)) {
+            throw new IllegalArgumentException("Charset " + charset + " is not ASCII-compatible.");
+        }
+
+        this.diffIterator = new ChunkDiffIterator(charset, tracer);
+    }
+
+    /**
+     * Sets the limits to enforce. Once a limit on the input as a whole ({@link ParseLimits.Limit#DIFFS} or
+     * {@link ParseLimits.Limit#BYTES}) has been reached with policy {@link ParseLimits.Policy#TRUNCATE}, further
+     * chunks are ignored. Must be called before the first chunk is fed.
+     *
+     * @param limits the limits to enforce.
+     */
+    public void setLimits(@NotNull final ParseLimits limits) {
+        diffIterator.setLimits(limits);
+        maxLineLength = limits.getMaximum(ParseLimits.Limit.LINE_LENGTH);
+    }
+
+    /**
+     * Sets the filter that decides which files to keep, as by {@link GitHubDiffParser#setPathFilter(Predicate)}. Must
+     * be called before the first chunk is fed.
+     *
+     * @param pathFilter accepts the paths of the files to keep, or null to keep all files.
+     */
+    public void setPathFilter(@Nullable final Predicate<String> pathFilter) {
+        diffIterator.setPathFilter(pathFilter);
+    }
+
+    /**
+     * Parses the next chunk of the input. All remaining bytes of the chunk are consumed.
+     *
+     * @param chunk the next bytes of the input.
+     * @return the Diffs completed by this chunk, in input order; usually empty unless the chunk contains a
+     *         "diff --git" line.
+     */
+    @NotNull
+    public List<Diff> feed(@NotNull final ByteBuffer chunk) {
+        checkNotFinished();
+
+        if (isEndOfInputParsed) {
+            chunk.position(chunk.limit());
+            return Collections.emptyList();
+        }
+
+        final int start = chunk.position();
+        final int end = chunk.limit();
+        final int completeLinesEnd = findCompleteLinesEnd(chunk, start, end);
+
+        if (completeLinesEnd == -1) {
+            appendPending(chunk, start, end);
+            chunk.position(end);
+            return Collections.emptyList();
+        }
+
+        final byte[] lines = new byte[numberOfPendingBytes + completeLinesEnd - start];
+        System.arraycopy(pendingBytes, 0, lines, 0, numberOfPendingBytes);
+        chunk.get(lines, numberOfPendingBytes, completeLinesEnd - start);
+        final long numberOfDroppedBytes = numberOfDroppedPendingBytes;
+        clearPending();
+
+        appendPending(chunk, completeLinesEnd, end);
+        chunk.position(end);
+
+        return parse(ByteBuffer.wrap(lines), numberOfDroppedBytes, false);
+    }
+
+    /**
+     * Signals the end of the input. Any pending partial line is parsed as the last line.
+     *
+     * @return the Diffs completed by the end of the input, i.e. the last Diff, if any.
+     */
+    @NotNull
+    public List<Diff> finish() {
+        checkNotFinished();
+        isFinished = true;
+
+        if (isEndOfInputParsed) {
+            return Collections.emptyList();
+        }
+
+        final ByteBuffer lastLine = ByteBuffer.wrap(pendingBytes, 0, numberOfPendingBytes).slice();
+        final long numberOfDroppedBytes = numberOfDroppedPendingBytes;
+        pendingBytes = new byte[0];
+        clearPending();
+
+        return parse(lastLine, numberOfDroppedBytes, true);
+    }
+
+    /**
+     * @return the number of bytes that have been fed, but not parsed yet because their line is incomplete.
+     */
+    public int getNumberOfPendingBytes() {
+        return numberOfPendingBytes;
+    }
+
+    /**
+     * @param numberOfDroppedBytes the number of bytes dropped from the lines under
+     *                             {@link ParseLimits.Limit#LINE_LENGTH}.
+     */
+    @NotNull
+    private List<Diff> parse(
+            @NotNull final ByteBuffer lines,
+            final long numberOfDroppedBytes,
+            final boolean isEndOfInput) {
+
+        final List<Diff> result = new ArrayList<>();
+
+        diffIterator.startTiming();
+        diffIterator.supply(lines, numberOfDroppedBytes);
+
+        while (!diffIterator.hasReachedLimit() && diffIterator.slideToNextLine()) {
+            final Diff completedDiff = diffIterator.consumeCurrentLine();
+
+            if (completedDiff != null) {
+                result.add(completedDiff);
+            }
+        }
+
+        if (isEndOfInput || diffIterator.hasReachedLimit()) {
+            isEndOfInputParsed = true;
+            pendingBytes = new byte[0];
+            clearPending();
+
+            final Diff lastDiff = diffIterator.finishInput();
+
+            if (lastDiff != null) {
+                result.add(lastDiff);
+            }
+        } else {
+            diffIterator.stopTiming();
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the end of the last line of the chunk whose terminator is known. A trailing '\r' does not count, since the
+     * next chunk may start with the '\n' that completes it.
+     *
+     * @return the index after the last known terminator, or -1 if there is none.
+     */
+    private static int findCompleteLinesEnd(@NotNull final ByteBuffer chunk, final int start, final int end) {
+        for (int i = end - 1; i >= start; i--) {
+            final byte b = chunk.get(i);
+
+            if (b == '\n' || (b == '\r' && i < end - 1)) {
+                return i + 1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Holds back the given bytes, which contain no line terminators other than '\r's. Bytes of a line beyond one past
+     * {@link ParseLimits.Limit#LINE_LENGTH} are dropped, so that the parser still sees the line exceed the limit.
+     */
+    private void appendPending(@NotNull final ByteBuffer chunk, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            final byte b = chunk.get(i);
+
+            if (b == '\r') {
+                pendingLineLength = 0;
+            } else if (pendingLineLength++ > maxLineLength) {
+                numberOfDroppedPendingBytes++;
+                continue;
+            }
+
+            if (numberOfPendingBytes == pendingBytes.length) {
+                pendingBytes = Arrays.copyOf(pendingBytes, Math.max(end - i, pendingBytes.length * 2));
+            }
+
+            pendingBytes[numberOfPendingBytes++] = b;
+        }
+    }
+
+    private void clearPending() {
+        numberOfPendingBytes = 0;
+        pendingLineLength = 0;
+        numberOfDroppedPendingBytes = 0;
+    }
+
+    private void checkNotFinished() {
+        if (isFinished) {
+            throw new IllegalStateException("The end of the input has already been reached.");
+        }
+    }
+
+    /**
+     * Parses the buffers it is supplied with one after the other. Each buffer holds complete lines only, except for the
+     * last one, so lines never need to be carried over between buffers.
+     */
+    private static final class ChunkDiffIterator extends ByteBufferDiffIterator {
+
+        private ChunkDiffIterator(@NotNull final Charset charset, @Nullable final ParseTracer tracer) {
+            super(EMPTY, charset, tracer);
+        }
+
+        private long numberOfDroppedBytes = 0;
+
+        private void supply(@NotNull final ByteBuffer lines, final long numberOfDroppedBytes) {
+            // Bytes dropped from earlier buffers are included in the count that setBuffer carries over.
+            setBuffer(lines);
+            this.numberOfDroppedBytes = numberOfDroppedBytes;
+        }
+
+        @Override
+        protected long getNumberOfBytesRead() {
+            return super.getNumberOfBytesRead() + numberOfDroppedBytes;
+        }
+
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * A {@link ByteBufferDiffIterator} that parses a file straight from memory-mapped regions of a {@link FileChannel}.
+ * Files that are larger than the window size (in particular files larger than 2 GB, which cannot be mapped in one go)
+ * are mapped one window at a time; each new window starts at the first line that did not fit into the previous one.
+ * 
+ * The content of hunk lines is copied onto the heap, so that the parsed Diffs remain valid after the channel has been
+ * closed, keep no mapping (and, on Windows, no lock on the file) alive, and cannot fault if the file is truncated
+ * later. The channel is not closed by this iterator.
+ */
+class MappedFileDiffIterator extends ByteBufferDiffIterator {
+
+    static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private final FileChannel channel;
+
+    private final long fileSize;
+
+    private final int windowSize;
+
+    private long windowStart = 0;
+
+    private int windowLength;
+
+    MappedFileDiffIterator(
+            @NotNull final FileChannel channel,
+            @NotNull final Charset charset,
+            @Nullable final ParseTracer tracer,
+            final int windowSize) throws IOException {
+
+        super(map(channel, 0, (int) Math.min(channel.size(), windowSize)), charset, tracer);
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        this.windowLength = (int) Math.min(fileSize, windowSize);
+        setCopyingContent(true);
+    }
+
+    @Override
+    protected boolean refill(final int lineStart) {
+        final long newWindowStart = windowStart + lineStart;
+        final long remaining = fileSize - newWindowStart;
+
+        if (windowStart + windowLength >= fileSize) {
+            return false;
+        }
+
+        /*
+         * If not even a single line fits into the current window, keep doubling the window size until it does.
+         */
+        long newWindowLength = lineStart == 0 ? Math.max((long) windowLength * 2, windowSize) : windowSize;
+        newWindowLength = Math.min(newWindowLength, Math.min(remaining, Integer.MAX_VALUE));
+
+        if (lineStart == 0 && newWindowLength <= windowLength) {
+            throw new IllegalStateException(
+                    String.format("Line starting at byte %d is too long to be mapped into memory.", newWindowStart));
+        }
+
+        try {
+            setBuffer(map(channel, newWindowStart, (int) newWindowLength));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        windowStart = newWindowStart;
+        windowLength = (int) newWindowLength;
+        return true;
+    }
+
+    @NotNull
+    private static MappedByteBuffer map(
+            @NotNull final FileChannel channel,
+            final long start,
+            final int length) throws IOException {
+
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    }
+
+}
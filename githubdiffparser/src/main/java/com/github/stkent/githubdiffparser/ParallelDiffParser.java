@@ -0,0 +1,550 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Parses a byte buffer on a {@link ForkJoinPool}. The input is recursively split in two at the "diff --git" line
+ * closest after its midpoint, and each section is parsed independently by a {@link ByteBufferDiffIterator}. Results
+ * are concatenated in input order.
+ * 
+ * A "diff --git" line starts a new Diff from every state that a finished file section can leave the parser in, so the
+ * sections can be parsed in isolation. The only exceptions are malformed inputs in which a section ends right after a
+ * "diff --git", "---", "+++" or "@@" line; if any section does, the whole input is parsed again serially so that the
+ * result (or error) is always identical to that of {@link GitHubDiffParser#parse(ByteBuffer)}.
+ * 
+ * A tracer receives the same events as from a serial parse. The transitions and Diffs of each section are recorded
+ * while it is parsed, and only handed to the tracer in input order once the sections have been merged, with line
+ * numbers counted from the start of the input. {@link ParseTracer#onParseFinished} is called once for the whole
+ * input, with the numbers of lines, bytes and nanoseconds of all sections added up.
+ */
+class ParallelDiffParser {
+
+    static final int DEFAULT_MIN_SECTION_SIZE = 1 << 20;
+
+    private static final byte[] DIFF_START = "diff --git".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * States after which the next "diff --git" line is guaranteed to start a new Diff.
+     */
+    private static final Set<ParserState> SAFE_SECTION_END_STATES = EnumSet.of(
+            ParserState.HEADER,
+            ParserState.FROM_LINE,
+            ParserState.TO_LINE,
+            ParserState.NEUTRAL_LINE);
+
+    private final Charset charset;
+
+    @Nullable
+    private final ParseTracer tracer;
+
+    /**
+     * Limits that apply per Diff; limits on the input as a whole cannot be enforced on independent sections.
+     */
+    @Nullable
+    private final ParseLimits limits;
+
+    @Nullable
+    private final Predicate<String> pathFilter;
+
+    private final int minSectionSize;
+
+    private boolean isCopyingContent = false;
+
+    ParallelDiffParser(
+            @NotNull final Charset charset,
+            @Nullable final ParseTracer tracer,
+            @Nullable final ParseLimits limits,
+            @Nullable final Predicate<String> pathFilter,
+            final int minSectionSize) {
+
+        this.charset = charset;
+        this.tracer = tracer;
+        this.limits = limits;
+        this.pathFilter = pathFilter;
+        this.minSectionSize = minSectionSize;
+    }
+
+    /**
+     * Sets whether the content of hunk lines is copied onto the heap instead of referring to the input buffer, see
+     * {@link ByteBufferDiffIterator#setCopyingContent(boolean)}.
+     */
+    void setCopyingContent(final boolean isCopyingContent) {
+        this.isCopyingContent = isCopyingContent;
+    }
+
+    @NotNull
+    List<Diff> parse(@NotNull final ByteBuffer buffer, @NotNull final ForkJoinPool pool) {
+        final SectionResult result = pool.invoke(new ParseSectionTask(buffer, buffer.position(), buffer.limit()));
+
+        if (result.needsSerialParse) {
+            return parseSerially(buffer);
+        }
+
+        if (tracer != null) {
+            long lineOffset = 0;
+            SectionTrace previousTrace = null;
+
+            for (SectionTrace trace : result.traces) {
+                trace.replay(tracer, lineOffset, previousTrace);
+                lineOffset += trace.numberOfLines;
+                previousTrace = trace;
+            }
+
+            if (previousTrace != null && result.failure == null) {
+                previousTrace.replayTrailingEvents(tracer);
+            }
+        }
+
+        if (result.failure != null) {
+            throw result.failure;
+        }
+
+        if (tracer != null) {
+            tracer.onParseFinished(result.numberOfLines, result.numberOfBytes, result.elapsedNanos);
+        }
+
+        return result.diffs;
+    }
+
+    /**
+     * Parses the whole input in one go, tracing it directly.
+     */
+    @NotNull
+    private List<Diff> parseSerially(@NotNull final ByteBuffer buffer) {
+        final ByteBufferDiffIterator diffIterator = newDiffIterator(buffer.duplicate(), tracer);
+        final List<Diff> diffs = new ArrayList<>();
+
+        while (diffIterator.hasNext()) {
+            diffs.add(diffIterator.next());
+        }
+
+        return diffs;
+    }
+
+    @NotNull
+    private SectionResult parseSection(@NotNull final ByteBuffer buffer, final int start, final int end) {
+        final ByteBuffer section = buffer.duplicate();
+        section.limit(end);
+        section.position(start);
+
+        final SectionTrace trace = tracer != null ? new SectionTrace(section, charset) : null;
+        final ByteBufferDiffIterator diffIterator = newDiffIterator(section, trace);
+        final List<SectionTrace> traces = trace != null ? Collections.singletonList(trace) : Collections.emptyList();
+        final List<Diff> diffs = new ArrayList<>();
+
+        if (trace != null) {
+            trace.diffIterator = diffIterator;
+        }
+
+        try {
+            while (diffIterator.hasNext()) {
+                diffs.add(diffIterator.next());
+            }
+        } catch (RuntimeException e) {
+            return new SectionResult(e, traces);
+        }
+
+        if (trace != null) {
+            trace.finalState = diffIterator.getState();
+        }
+
+        return trace != null
+                ? new SectionResult(diffs, diffIterator.getState(), traces, diffIterator.getLineNumber(),
+                        trace.numberOfBytes, trace.elapsedNanos)
+                : new SectionResult(diffs, diffIterator.getState(), traces, diffIterator.getLineNumber(), 0, 0);
+    }
+
+    @NotNull
+    private ByteBufferDiffIterator newDiffIterator(
+            @NotNull final ByteBuffer buffer,
+            @Nullable final ParseTracer tracer) {
+
+        final ByteBufferDiffIterator diffIterator = new ByteBufferDiffIterator(buffer, charset, tracer);
+        diffIterator.setCopyingContent(isCopyingContent);
+
+        if (limits != null) {
+            diffIterator.setLimits(limits);
+        }
+
+        diffIterator.setPathFilter(pathFilter);
+        return diffIterator;
+    }
+
+    /**
+     * @return the index of the first "diff --git" line that starts in [from, end), or -1 if there is none.
+     */
+    private static int findDiffStart(@NotNull final ByteBuffer buffer, final int from, final int end) {
+        final int lastStart = end - DIFF_START.length;
+
+        for (int i = Math.max(from, 1); i <= lastStart; i++) {
+            final byte previous = buffer.get(i - 1);
+
+            if ((previous == '\n' || previous == '\r') && startsWithDiffStart(buffer, i)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean startsWithDiffStart(@NotNull final ByteBuffer buffer, final int index) {
+        for (int i = 0; i < DIFF_START.length; i++) {
+            if (buffer.get(index + i) != DIFF_START[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private final class ParseSectionTask extends RecursiveTask<SectionResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buffer;
+
+        private final int start;
+
+        private final int end;
+
+        private ParseSectionTask(@NotNull final ByteBuffer buffer, final int start, final int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected SectionResult compute() {
+            final int splitIndex = end - start > minSectionSize
+                    ? findDiffStart(buffer, start + (end - start) / 2, end)
+                    : -1;
+
+            if (splitIndex == -1) {
+                return parseSection(buffer, start, end);
+            }
+
+            final ParseSectionTask right = new ParseSectionTask(buffer, splitIndex, end);
+            right.fork();
+            final SectionResult leftResult = new ParseSectionTask(buffer, start, splitIndex).compute();
+            final SectionResult rightResult = right.join();
+            return leftResult.append(rightResult);
+        }
+
+    }
+
+    /**
+     * Records the transitions and Diffs of one section, so that they can be handed to the parser's tracer once the
+     * section's result has been accepted. Lines are recorded by their position in the section, and only decoded when
+     * they are replayed.
+     *
+     * A section is parsed from the initial state, and completes its last Diff at its end rather than at the following
+     * "diff --git" line. When replayed after an earlier section, the first transition therefore starts from the state
+     * that section ended in, and the earlier section's trailing Diff follows that transition, as in a serial parse.
+     */
+    private static final class SectionTrace implements ParseTracer {
+
+        /**
+         * Marks an event in {@link #events} as a parsed Diff rather than a transition.
+         */
+        private static final int DIFF_PARSED = -1;
+
+        private static final ParserState[] STATES = ParserState.values();
+
+        private final ByteBuffer section;
+
+        private final Charset charset;
+
+        @Nullable
+        private ByteBufferDiffIterator diffIterator;
+
+        @Nullable
+        private ParserState finalState;
+
+        /**
+         * Four ints per transition: its states, line number, line start and line length. Two ints per parsed Diff:
+         * {@link #DIFF_PARSED} and the index of the Diff's entry in the lists below.
+         */
+        private int[] events = new int[256];
+
+        private int eventsSize = 0;
+
+        /**
+         * The index of the first event after the last transition.
+         */
+        private int trailingEventsStart = 0;
+
+        private final List<Diff> diffs = new ArrayList<>();
+
+        private final List<long[]> diffLineNumbersAndNanos = new ArrayList<>();
+
+        private long numberOfLines;
+
+        private long numberOfBytes;
+
+        private long elapsedNanos;
+
+        /**
+         * The number of lines of input before this section, once it is being replayed.
+         */
+        private long lineOffset;
+
+        private SectionTrace(@NotNull final ByteBuffer section, @NotNull final Charset charset) {
+            this.section = section;
+            this.charset = charset;
+        }
+
+        @Override
+        public void onTransition(
+                @NotNull final ParserState fromState,
+                @NotNull final ParserState toState,
+                final long lineNumber,
+                @NotNull final CharSequence line) {
+
+            ensureCapacity(4);
+            events[eventsSize++] = fromState.ordinal() | toState.ordinal() << 8;
+            events[eventsSize++] = (int) lineNumber;
+            //noinspection ConstantConditions
+            events[eventsSize++] = diffIterator.getCurrentLineStart();
+            events[eventsSize++] = line.length();
+            trailingEventsStart = eventsSize;
+        }
+
+        @Override
+        public void onDiffParsed(
+                @NotNull final Diff diff,
+                final long firstLineNumber,
+                final long lastLineNumber,
+                final long elapsedNanos) {
+
+            ensureCapacity(2);
+            events[eventsSize++] = DIFF_PARSED;
+            events[eventsSize++] = diffs.size();
+            diffs.add(diff);
+            diffLineNumbersAndNanos.add(new long[] { firstLineNumber, lastLineNumber, elapsedNanos });
+        }
+
+        @Override
+        public void onParseFinished(final long numberOfLines, final long numberOfBytes, final long elapsedNanos) {
+            this.numberOfLines = numberOfLines;
+            this.numberOfBytes = numberOfBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Hands the recorded events up to the last transition to the given tracer.
+         *
+         * @param lineOffset    the number of lines of input before this section.
+         * @param previousTrace the trace of the section before this one, whose trailing events are still to be
+         *                      replayed, or null for the first section.
+         */
+        private void replay(
+                @NotNull final ParseTracer tracer,
+                final long lineOffset,
+                @Nullable final SectionTrace previousTrace) {
+
+            this.lineOffset = lineOffset;
+            int i = 0;
+
+            if (previousTrace != null && i < trailingEventsStart) {
+                //noinspection ConstantConditions
+                i = replayEvent(tracer, i, previousTrace.finalState);
+                previousTrace.replayTrailingEvents(tracer);
+            }
+
+            while (i < trailingEventsStart) {
+                i = replayEvent(tracer, i, null);
+            }
+        }
+
+        /**
+         * Hands the events after the last transition, i.e. the Diff completed at the end of the section, to the given
+         * tracer.
+         */
+        private void replayTrailingEvents(@NotNull final ParseTracer tracer) {
+            int i = trailingEventsStart;
+
+            while (i < eventsSize) {
+                i = replayEvent(tracer, i, null);
+            }
+        }
+
+        /**
+         * @param fromState the state to report the transition from instead of the recorded one, or null.
+         * @return the index of the next event.
+         */
+        private int replayEvent(@NotNull final ParseTracer tracer, final int i, @Nullable final ParserState fromState) {
+            if (events[i] == DIFF_PARSED) {
+                final long[] lineNumbersAndNanos = diffLineNumbersAndNanos.get(events[i + 1]);
+                tracer.onDiffParsed(
+                        diffs.get(events[i + 1]),
+                        lineNumbersAndNanos[0] + lineOffset,
+                        lineNumbersAndNanos[1] + lineOffset,
+                        lineNumbersAndNanos[2]);
+                return i + 2;
+            }
+
+            final ByteBuffer line = section.duplicate();
+            line.limit(events[i + 2] + events[i + 3]);
+            line.position(events[i + 2]);
+            tracer.onTransition(
+                    fromState != null ? fromState : STATES[events[i] & 0xFF],
+                    STATES[events[i] >>> 8],
+                    events[i + 1] + lineOffset,
+                    charset.decode(line));
+            return i + 4;
+        }
+
+        private void ensureCapacity(final int numberOfValues) {
+            if (eventsSize + numberOfValues > events.length) {
+                events = Arrays.copyOf(events, events.length * 2);
+            }
+        }
+
+    }
+
+    private static final class SectionResult {
+
+        private final List<Diff> diffs;
+
+        @Nullable
+        private final ParserState finalState;
+
+        @Nullable
+        private final RuntimeException failure;
+
+        private final boolean needsSerialParse;
+
+        /**
+         * The traces of all sections, in input order; only recorded if there is a tracer.
+         */
+        private final List<SectionTrace> traces;
+
+        private final long numberOfLines;
+
+        /**
+         * The totals reported to {@link SectionTrace#onParseFinished}; only tracked if there is a tracer.
+         */
+        private final long numberOfBytes;
+
+        private final long elapsedNanos;
+
+        private SectionResult(
+                @NotNull final List<Diff> diffs,
+                @NotNull final ParserState finalState,
+                @NotNull final List<SectionTrace> traces,
+                final long numberOfLines,
+                final long numberOfBytes,
+                final long elapsedNanos) {
+
+            this(diffs, finalState, null, false, traces, numberOfLines, numberOfBytes, elapsedNanos);
+        }
+
+        private SectionResult(@NotNull final RuntimeException failure, @NotNull final List<SectionTrace> traces) {
+            this(new ArrayList<>(), null, failure, false, traces, 0, 0, 0);
+        }
+
+        private SectionResult(
+                @NotNull final List<Diff> diffs,
+                @Nullable final ParserState finalState,
+                @Nullable final RuntimeException failure,
+                final boolean needsSerialParse,
+                @NotNull final List<SectionTrace> traces,
+                final long numberOfLines,
+                final long numberOfBytes,
+                final long elapsedNanos) {
+
+            this.diffs = diffs;
+            this.finalState = finalState;
+            this.failure = failure;
+            this.needsSerialParse = needsSerialParse;
+            this.traces = traces;
+            this.numberOfLines = numberOfLines;
+            this.numberOfBytes = numberOfBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Combines the results of two adjacent sections. An error in this section is reported as-is, since a serial
+         * parse would have hit it first; the following section's result is only trusted if this section ended in a
+         * state from which the following "diff --git" line would have started a new Diff.
+         */
+        @NotNull
+        private SectionResult append(@NotNull final SectionResult next) {
+            if (needsSerialParse || failure != null) {
+                return this;
+            }
+
+            if (!SAFE_SECTION_END_STATES.contains(finalState)) {
+                return new SectionResult(diffs, null, null, true, Collections.emptyList(), 0, 0, 0);
+            }
+
+            if (next.needsSerialParse) {
+                return next;
+            }
+
+            final List<SectionTrace> allTraces = new ArrayList<>(traces);
+            allTraces.addAll(next.traces);
+
+            if (next.failure != null) {
+                return new SectionResult(offsetLineNumber(next.failure, numberOfLines), allTraces);
+            }
+
+            diffs.addAll(next.diffs);
+            return new SectionResult(
+                    diffs,
+                    next.finalState,
+                    allTraces,
+                    numberOfLines + next.numberOfLines,
+                    numberOfBytes + next.numberOfBytes,
+                    elapsedNanos + next.elapsedNanos);
+        }
+
+        /**
+         * @return the given failure, with its line number counted from a section that starts the given number of
+         *         lines earlier.
+         */
+        @NotNull
+        private static RuntimeException offsetLineNumber(@NotNull final RuntimeException failure, final long offset) {
+            if (!(failure instanceof ParseLimitExceededException)) {
+                return failure;
+            }
+
+            final ParseLimitExceededException limitFailure = (ParseLimitExceededException) failure;
+            return new ParseLimitExceededException(
+                    limitFailure.getLimit(), limitFailure.getMaximum(), limitFailure.getLineNumber() + offset);
+        }
+
+    }
+
+}
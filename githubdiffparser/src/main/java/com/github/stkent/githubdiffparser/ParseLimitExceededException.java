@@ -0,0 +1,57 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thrown when the input exceeds a {@link ParseLimits} limit whose policy is {@link ParseLimits.Policy#FAIL}.
+ */
+public class ParseLimitExceededException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ParseLimits.Limit limit;
+
+    private final long maximum;
+
+    private final long lineNumber;
+
+    public ParseLimitExceededException(@NotNull final ParseLimits.Limit limit, final long maximum, final long lineNumber) {
+        super(String.format("Limit %s of %d exceeded at line %d.", limit, maximum, lineNumber));
+        this.limit = limit;
+        this.maximum = maximum;
+        this.lineNumber = lineNumber;
+    }
+
+    @NotNull
+    public ParseLimits.Limit getLimit() {
+        return limit;
+    }
+
+    public long getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * @return the number of the line at which the limit was exceeded, starting at 1.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+}
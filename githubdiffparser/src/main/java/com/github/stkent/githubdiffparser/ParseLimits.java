@@ -0,0 +1,152 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Caps on the size of the input and of the parsed model, so that a single pathological diff (a huge generated file, or
+ * one enormous line) cannot exhaust the memory of the parsing JVM. Every {@link Limit} is unlimited by default.
+ * 
+ * When a limit is exceeded, its {@link Policy} decides whether parsing fails with a {@link ParseLimitExceededException}
+ * or drops the excess content and carries on. Dropped content is flagged through {@link
+ * com.github.stkent.githubdiffparser.models.Diff#isTruncated()} and {@link
+ * com.github.stkent.githubdiffparser.models.Hunk#isTruncated()}, except for Diffs dropped entirely by {@link
+ * Limit#DIFFS}, which simply do not appear in the result.
+ * 
+ * Instances are mutable and should be fully configured before being passed to
+ * {@link GitHubDiffParser#setLimits(ParseLimits)}.
+ */
+public class ParseLimits {
+
+    public enum Limit {
+
+        /**
+         * The length of a single line in bytes, or in chars when parsing from an {@link java.io.InputStream} (which
+         * is decoded first). Longer header lines, file names and hunk lines are cut to this length; cuts may split a
+         * multi-byte character. Streams are cut while they are read, so there a hunk header whose ranges lie beyond
+         * the limit is not recognized as such.
+         */
+        LINE_LENGTH,
+
+        /**
+         * The number of lines of a single Hunk. Further lines are dropped.
+         */
+        LINES_PER_HUNK,
+
+        /**
+         * The number of Hunks of a single Diff. Further Hunks are dropped with their lines.
+         */
+        HUNKS_PER_DIFF,
+
+        /**
+         * The number of Diffs (files) in the input. Parsing stops after the last allowed Diff.
+         */
+        DIFFS,
+
+        /**
+         * The number of bytes of input. Parsing stops at the line that crosses the limit, and the Diff in progress is
+         * kept as truncated. Streams are read line by line up to the end of that line, counting the bytes of each line
+         * exactly. In a default charset that is not ASCII-compatible, streams are cut at the limit instead, and
+         * the last line of the cut input is dropped as the one crossing the limit.
+         */
+        BYTES
+
+    }
+
+    public enum Policy {
+
+        /**
+         * Drop the excess content, mark what is affected as truncated, and continue.
+         */
+        TRUNCATE,
+
+        /**
+         * Throw a {@link ParseLimitExceededException}.
+         */
+        FAIL
+
+    }
+
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private static final Limit[] LIMITS = Limit.values();
+
+    private final long[] maxima = new long[LIMITS.length];
+
+    private final Policy[] policies = new Policy[LIMITS.length];
+
+    public ParseLimits() {
+        Arrays.fill(maxima, UNLIMITED);
+        Arrays.fill(policies, Policy.TRUNCATE);
+    }
+
+    /**
+     * Creates a copy of the given limits, which is not affected by later changes to them.
+     */
+    ParseLimits(@NotNull final ParseLimits limits) {
+        System.arraycopy(limits.maxima, 0, maxima, 0, maxima.length);
+        System.arraycopy(limits.policies, 0, policies, 0, policies.length);
+    }
+
+    /**
+     * @param limit   the limit to set.
+     * @param maximum the largest allowed value, or {@link #UNLIMITED}.
+     * @param policy  what to do when the input exceeds the maximum.
+     */
+    public void setLimit(@NotNull final Limit limit, final long maximum, @NotNull final Policy policy) {
+        if (maximum < 0) {
+            throw new IllegalArgumentException("maximum must not be negative: " + maximum);
+        }
+
+        maxima[limit.ordinal()] = maximum;
+        policies[limit.ordinal()] = policy;
+    }
+
+    public long getMaximum(@NotNull final Limit limit) {
+        return maxima[limit.ordinal()];
+    }
+
+    @NotNull
+    public Policy getPolicy(@NotNull final Limit limit) {
+        return policies[limit.ordinal()];
+    }
+
+    public boolean isLimited(@NotNull final Limit limit) {
+        return maxima[limit.ordinal()] != UNLIMITED;
+    }
+
+    // Generated equals and hashCode
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        final ParseLimits that = (ParseLimits) o;
+
+        return Arrays.equals(maxima, that.maxima) && Arrays.equals(policies, that.policies);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(maxima) + Arrays.hashCode(policies);
+    }
+
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates metrics over all parses it is attached to as a {@link ParseTracer}: lines and bytes consumed, lines per
+ * {@link ParserState}, Diffs (files) and Hunks parsed, the largest Hunk, and the time spent per Diff and overall.
+ * 
+ * Counters are {@link LongAdder}s, so a single instance may be shared by parsers on many threads, and recording a line
+ * costs one uncontended increment. The byte count only includes parses whose input size is known, which is the case
+ * for every input type of {@link GitHubDiffParser}. Use {@link #toMap()} to export a snapshot to a metrics system.
+ */
+public class ParseStats implements ParseTracer {
+
+    private static final ParserState[] STATES = ParserState.values();
+
+    private final LongAdder[] numbersOfLinesPerState = new LongAdder[STATES.length];
+
+    private final LongAdder numberOfParses = new LongAdder();
+
+    private final LongAdder numberOfBytes = new LongAdder();
+
+    private final LongAdder numberOfDiffs = new LongAdder();
+
+    private final LongAdder numberOfHunks = new LongAdder();
+
+    private final LongAccumulator largestHunkSize = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder parseNanos = new LongAdder();
+
+    private final LongAdder diffNanos = new LongAdder();
+
+    private final LongAccumulator slowestDiffNanos = new LongAccumulator(Math::max, 0);
+
+    public ParseStats() {
+        for (int i = 0; i < numbersOfLinesPerState.length; i++) {
+            numbersOfLinesPerState[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void onTransition(
+            @NotNull final ParserState fromState,
+            @NotNull final ParserState toState,
+            final long lineNumber,
+            @NotNull final CharSequence line) {
+
+        numbersOfLinesPerState[toState.ordinal()].increment();
+    }
+
+    @Override
+    public void onDiffParsed(
+            @NotNull final Diff diff,
+            final long firstLineNumber,
+            final long lastLineNumber,
+            final long elapsedNanos) {
+
+        numberOfDiffs.increment();
+        diffNanos.add(elapsedNanos);
+        slowestDiffNanos.accumulate(elapsedNanos);
+
+        int largestHunkSizeInDiff = 0;
+
+        for (final Hunk hunk : diff.getHunks()) {
+            largestHunkSizeInDiff = Math.max(largestHunkSizeInDiff, hunk.getNumberOfLines());
+        }
+
+        numberOfHunks.add(diff.getHunks().size());
+        largestHunkSize.accumulate(largestHunkSizeInDiff);
+    }
+
+    @Override
+    public void onParseFinished(final long numberOfLines, final long numberOfBytes, final long elapsedNanos) {
+        numberOfParses.increment();
+        parseNanos.add(elapsedNanos);
+
+        if (numberOfBytes > 0) {
+            this.numberOfBytes.add(numberOfBytes);
+        }
+    }
+
+    /**
+     * @return the number of parses that have reached the end of their input.
+     */
+    public long getNumberOfParses() {
+        return numberOfParses.sum();
+    }
+
+    public long getNumberOfLines() {
+        long result = 0;
+
+        for (final LongAdder numberOfLines : numbersOfLinesPerState) {
+            result += numberOfLines.sum();
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the number of lines that moved the parser to the given state.
+     */
+    public long getNumberOfLines(@NotNull final ParserState state) {
+        return numbersOfLinesPerState[state.ordinal()].sum();
+    }
+
+    /**
+     * @return the number of bytes of all finished parses.
+     */
+    public long getNumberOfBytes() {
+        return numberOfBytes.sum();
+    }
+
+    public long getNumberOfDiffs() {
+        return numberOfDiffs.sum();
+    }
+
+    public long getNumberOfHunks() {
+        return numberOfHunks.sum();
+    }
+
+    /**
+     * @return the number of lines of the largest Hunk parsed, excluding its header.
+     */
+    public long getLargestHunkSize() {
+        return largestHunkSize.get();
+    }
+
+    /**
+     * @return the time spent in finished parses, excluding time spent by callers between Diffs.
+     */
+    public long getParseTime(@NotNull final TimeUnit unit) {
+        return unit.convert(parseNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the time spent parsing all Diffs.
+     */
+    public long getDiffTime(@NotNull final TimeUnit unit) {
+        return unit.convert(diffNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the longest time spent parsing a single Diff.
+     */
+    public long getSlowestDiffTime(@NotNull final TimeUnit unit) {
+        return unit.convert(slowestDiffNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return lines per second of parse time, or 0 if no parse has finished.
+     */
+    public double getLinesPerSecond() {
+        return perSecondOfParseTime(getNumberOfLines());
+    }
+
+    /**
+     * @return bytes per second of parse time, or 0 if no parse has finished.
+     */
+    public double getBytesPerSecond() {
+        return perSecondOfParseTime(getNumberOfBytes());
+    }
+
+    /**
+     * Takes a snapshot of all metrics, keyed by stable names such as {@code "lines"} or {@code "lines.HUNK_START"}.
+     * Times are in nanoseconds. The snapshot is not atomic if parses are running concurrently.
+     *
+     * @return the metrics, in a fixed order.
+     */
+    @NotNull
+    public Map<String, Number> toMap() {
+        final Map<String, Number> result = new LinkedHashMap<>();
+        result.put("parses", getNumberOfParses());
+        result.put("lines", getNumberOfLines());
+
+        for (final ParserState state : STATES) {
+            result.put("lines." + state, getNumberOfLines(state));
+        }
+
+        result.put("bytes", getNumberOfBytes());
+        result.put("diffs", getNumberOfDiffs());
+        result.put("hunks", getNumberOfHunks());
+        result.put("largestHunkSize", getLargestHunkSize());
+        result.put("parseNanos", parseNanos.sum());
+        result.put("diffNanos", diffNanos.sum());
+        result.put("slowestDiffNanos", slowestDiffNanos.get());
+        result.put("linesPerSecond", getLinesPerSecond());
+        result.put("bytesPerSecond", getBytesPerSecond());
+        return result;
+    }
+
+    private double perSecondOfParseTime(final long count) {
+        final long nanos = parseNanos.sum();
+        return nanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+}
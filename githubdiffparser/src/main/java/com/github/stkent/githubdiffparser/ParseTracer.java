@@ -0,0 +1,74 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives events from a parser as it works through its input. Set one with
+ * {@link GitHubDiffParser#setTracer(ParseTracer)}; without a tracer, the parser does no tracing work at all.
+ * 
+ * Methods are called on the parsing thread, between lines, so they should return quickly; see
+ * {@link RingBufferParseTracer} for a tracer that defers all work. A tracer set on a parser that is used from several
+ * threads receives events from all of them concurrently. When parsing in parallel, the events of each section are
+ * held back until all sections have been parsed, and are then delivered in input order on the calling thread, just as
+ * a serial parse would have delivered them.
+ */
+public interface ParseTracer {
+
+    /**
+     * Called for every line of the input, after the line has been classified.
+     *
+     * @param fromState  the state before the line.
+     * @param toState    the state the line moved the parser to.
+     * @param lineNumber the number of the line within the input, starting at 1.
+     * @param line       the line; only valid during this call, as it may be a view of a buffer that is reused.
+     */
+    default void onTransition(
+            @NotNull final ParserState fromState,
+            @NotNull final ParserState toState,
+            final long lineNumber,
+            @NotNull final CharSequence line) {
+    }
+
+    /**
+     * Called whenever a Diff has been completed, before it is handed to the caller.
+     *
+     * @param diff            the completed Diff; must not be modified.
+     * @param firstLineNumber the number of the first line of the Diff.
+     * @param lastLineNumber  the number of the last line of the Diff.
+     * @param elapsedNanos    the time spent parsing the Diff, excluding time spent by the caller between Diffs.
+     */
+    default void onDiffParsed(
+            @NotNull final Diff diff,
+            final long firstLineNumber,
+            final long lastLineNumber,
+            final long elapsedNanos) {
+    }
+
+    /**
+     * Called once the end of the input has been reached.
+     *
+     * @param numberOfLines the number of lines in the input.
+     * @param numberOfBytes the number of bytes in the input, or -1 if unknown.
+     * @param elapsedNanos  the time spent parsing the input, excluding time spent by the caller between Diffs.
+     */
+    default void onParseFinished(final long numberOfLines, final long numberOfBytes, final long elapsedNanos) {
+    }
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Hunk;
+import com.github.stkent.githubdiffparser.models.Line;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link DiffIterator} that reads decoded lines from a {@link ParseWindow}.
+ */
+class ParseWindowDiffIterator extends DiffIterator {
+
+    private final ParseWindow window;
+
+    @Nullable
+    private final CountingInputStream countingInput;
+
+    @Nullable
+    private final RingBufferParseWindow byteCountingWindow;
+
+    private String currentLine;
+
+    private boolean isEndOfWindow = false;
+
+    ParseWindowDiffIterator(@NotNull final ParseWindow window, @Nullable final ParseTracer tracer) {
+        this(window, tracer, null);
+    }
+
+    /**
+     * If the window is a {@link RingBufferParseWindow} that counts bytes, the number of bytes taken up by the lines
+     * parsed so far is reported exactly.
+     *
+     * @param countingInput the stream the window reads from, if the number of bytes read should be reported. If the
+     *                      stream has been cut at a maximum, its last line, which may have been cut short, is dropped,
+     *                      and one more byte than it delivered is reported once the window has been read to its end,
+     *                      so that a byte limit is detected there.
+     */
+    ParseWindowDiffIterator(
+            @NotNull final ParseWindow window,
+            @Nullable final ParseTracer tracer,
+            @Nullable final CountingInputStream countingInput) {
+
+        super(tracer);
+        this.window = window;
+        this.countingInput = countingInput;
+        this.byteCountingWindow = window instanceof RingBufferParseWindow
+                && ((RingBufferParseWindow) window).isCountingBytes() ? (RingBufferParseWindow) window : null;
+    }
+
+    @Override
+    protected boolean slideForward() {
+        currentLine = window.slideForward();
+
+        if (currentLine != null && countingInput != null && window.getFutureLine(1) == null && countingInput.isCut()) {
+            currentLine = null;
+        }
+
+        isEndOfWindow = currentLine == null;
+        return !isEndOfWindow;
+    }
+
+    @Override
+    protected long getNumberOfBytesRead() {
+        if (byteCountingWindow != null) {
+            return byteCountingWindow.getNumberOfBytesThroughFocusLine();
+        }
+
+        if (countingInput == null) {
+            return -1;
+        }
+
+        /*
+         * The window reads ahead, so bytes read so far may not have been parsed yet.
+         */
+        return countingInput.getCount() + (isEndOfWindow && countingInput.isCut() ? 1 : 0);
+    }
+
+    @NotNull
+    @Override
+    protected CharSequence getCurrentLine() {
+        return currentLine;
+    }
+
+    @NotNull
+    @Override
+    protected String getCurrentLineContent(final int beginIndex, final int endIndex) {
+        return currentLine.substring(beginIndex, endIndex);
+    }
+
+    @Override
+    protected void addCurrentLineTo(
+            @NotNull final Hunk hunk,
+            @NotNull final Line.LineType lineType,
+            final int beginIndex,
+            final int endIndex) {
+
+        hunk.addLine(lineType, currentLine.substring(beginIndex, endIndex));
+    }
+
+}
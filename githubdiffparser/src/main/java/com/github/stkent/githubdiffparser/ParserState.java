@@ -35,15 +35,20 @@ package com.github.stkent.githubdiffparser;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import static com.github.stkent.githubdiffparser.Constants.HUNK_START_PATTERN;
-
 /**
  * State machine for a parser parsing a unified diff.
+ * 
+ * Each line is classified with a fixed number of prefix checks, at most one substring search for a constant needle and
+ * at most one {@link HunkHeaderScanner#scan(CharSequence)}, so classification is linear in the length of the line. No
+ * regular expressions are involved. The parser itself looks most transitions up in a {@link TransitionTable} and only
+ * calls {@link #nextState(CharSequence, HunkHeaderScanner)} for lines whose prefix does not determine the next state.
+ * 
+ * The states are public so that a {@link ParseTracer} can observe the transitions between them.
  *
  * @author Tom Hombergs [tom.hombergs@gmail.com]
  */
 @SuppressWarnings("Duplicates")
-enum ParserState {
+public enum ParserState {
 
     /**
      * The parser is in this state initially.
@@ -51,11 +56,10 @@ enum ParserState {
     INITIAL {
         @Nullable
         @Override
-        public ParserState nextState(@NotNull final ParseWindow window, final boolean logToSout) {
-            String line = window.getFocusLine();
+        ParserState nextState(@NotNull final CharSequence line, @NotNull final HunkHeaderScanner hunkHeader) {
 
             if (matchesDiffStartPattern(line)) {
-                return transition(line, DIFF_START, logToSout);
+                return DIFF_START;
             } else {
                 return null;
             }
@@ -68,13 +72,12 @@ enum ParserState {
     DIFF_START {
         @Nullable
         @Override
-        public ParserState nextState(@NotNull final ParseWindow window, final boolean logToSout) {
-            String line = window.getFocusLine();
-            
+        ParserState nextState(@NotNull final CharSequence line, @NotNull final HunkHeaderScanner hunkHeader) {
+
             if (matchesFromFilePattern(line)) {
-                return transition(line, FROM_FILE, logToSout);
+                return FROM_FILE;
             } else {
-                return transition(line, HEADER, logToSout);
+                return HEADER;
             }
         }
     },
@@ -85,15 +88,14 @@ enum ParserState {
     HEADER {
         @Nullable
         @Override
-        public ParserState nextState(@NotNull final ParseWindow window, final boolean logToSout) {
-            String line = window.getFocusLine();
-            
+        ParserState nextState(@NotNull final CharSequence line, @NotNull final HunkHeaderScanner hunkHeader) {
+
             if (matchesDiffStartPattern(line)) {
-                return transition(line, DIFF_START, logToSout);
+                return DIFF_START;
             } else if (matchesFromFilePattern(line)) {
-                return transition(line, FROM_FILE, logToSout);
+                return FROM_FILE;
             } else {
-                return transition(line, HEADER, logToSout);
+                return HEADER;
             }
         }
     },
@@ -108,11 +110,10 @@ enum ParserState {
     FROM_FILE {
         @Nullable
         @Override
-        public ParserState nextState(@NotNull final ParseWindow window, final boolean logToSout) {
-            String line = window.getFocusLine();
-            
+        ParserState nextState(@NotNull final CharSequence line, @NotNull final HunkHeaderScanner hunkHeader) {
+
             if (matchesToFilePattern(line)) {
-                return transition(line, TO_FILE, logToSout);
+                return TO_FILE;
             } else {
                 throw new IllegalStateException("A FROM_FILE line ('---') must be directly followed by a TO_FILE line ('+++')!");
             }
@@ -129,11 +130,10 @@ enum ParserState {
     TO_FILE {
         @Nullable
         @Override
-        public ParserState nextState(@NotNull final ParseWindow window, final boolean logToSout) {
-            String line = window.getFocusLine();
-            
-            if (matchesHunkStartPattern(line)) {
-                return transition(line, HUNK_START, logToSout);
+        ParserState nextState(@NotNull final CharSequence line, @NotNull final HunkHeaderScanner hunkHeader) {
+
+            if (matchesHunkStartPattern(line, hunkHeader)) {
+                return HUNK_START;
             } else {
                 throw new IllegalStateException("A TO_FILE line ('+++') must be directly followed by a HUNK_START line ('@@')!");
             }
@@ -150,15 +150,14 @@ enum ParserState {
     HUNK_START {
         @Nullable
         @Override
-        public ParserState nextState(@NotNull final ParseWindow window, final boolean logToSout) {
-            String line = window.getFocusLine();
-            
+        ParserState nextState(@NotNull final CharSequence line, @NotNull final HunkHeaderScanner hunkHeader) {
+
             if (matchesFromLinePattern(line)) {
-                return transition(line, FROM_LINE, logToSout);
+                return FROM_LINE;
             } else if (matchesToLinePattern(line)) {
-                return transition(line, TO_LINE, logToSout);
+                return TO_LINE;
             } else {
-                return transition(line, NEUTRAL_LINE, logToSout);
+                return NEUTRAL_LINE;
             }
         }
     },
@@ -174,21 +173,20 @@ enum ParserState {
     FROM_LINE {
         @Nullable
         @Override
-        public ParserState nextState(@NotNull final ParseWindow window, final boolean logToSout) {
-            String line = window.getFocusLine();
+        ParserState nextState(@NotNull final CharSequence line, @NotNull final HunkHeaderScanner hunkHeader) {
 
             if (matchesDiffStartPattern(line)) {
-                return transition(line, DIFF_START, logToSout);
+                return DIFF_START;
             } else if (matchesFromLinePattern(line)) {
-                return transition(line, FROM_LINE, logToSout);
+                return FROM_LINE;
             } else if (matchesToLinePattern(line)) {
-                return transition(line, TO_LINE, logToSout);
+                return TO_LINE;
             } else if (matchesNeutralLinePattern(line) || matchesNoNewlineAtEndOfFileLinePattern(line)) {
-                return transition(line, NEUTRAL_LINE, logToSout);
-            } else if (matchesHunkStartPattern(line)) {
-                return transition(line, HUNK_START, logToSout);
+                return NEUTRAL_LINE;
+            } else if (matchesHunkStartPattern(line, hunkHeader)) {
+                return HUNK_START;
             } else {
-                return transition(line, HEADER, logToSout);
+                return HEADER;
             }
         }
     },
@@ -204,21 +202,20 @@ enum ParserState {
     TO_LINE {
         @Nullable
         @Override
-        public ParserState nextState(@NotNull final ParseWindow window, final boolean logToSout) {
-            String line = window.getFocusLine();
+        ParserState nextState(@NotNull final CharSequence line, @NotNull final HunkHeaderScanner hunkHeader) {
 
             if (matchesDiffStartPattern(line)) {
-                return transition(line, DIFF_START, logToSout);
+                return DIFF_START;
             } else if (matchesFromLinePattern(line)) {
-                return transition(line, FROM_LINE, logToSout);
+                return FROM_LINE;
             } else if (matchesToLinePattern(line)) {
-                return transition(line, TO_LINE, logToSout);
+                return TO_LINE;
             } else if (matchesNeutralLinePattern(line) || matchesNoNewlineAtEndOfFileLinePattern(line)) {
-                return transition(line, NEUTRAL_LINE, logToSout);
-            } else if (matchesHunkStartPattern(line)) {
-                return transition(line, HUNK_START, logToSout);
+                return NEUTRAL_LINE;
+            } else if (matchesHunkStartPattern(line, hunkHeader)) {
+                return HUNK_START;
             } else {
-                return transition(line, HEADER, logToSout);
+                return HEADER;
             }
         }
     },
@@ -230,73 +227,113 @@ enum ParserState {
     NEUTRAL_LINE {
         @Nullable
         @Override
-        public ParserState nextState(@NotNull final ParseWindow window, final boolean logToSout) {
-            String line = window.getFocusLine();
+        ParserState nextState(@NotNull final CharSequence line, @NotNull final HunkHeaderScanner hunkHeader) {
 
             if (matchesDiffStartPattern(line)) {
-                return transition(line, DIFF_START, logToSout);
+                return DIFF_START;
             } else if (matchesFromLinePattern(line)) {
-                return transition(line, FROM_LINE, logToSout);
+                return FROM_LINE;
             } else if (matchesToLinePattern(line)) {
-                return transition(line, TO_LINE, logToSout);
+                return TO_LINE;
             } else if (matchesNeutralLinePattern(line) || matchesNoNewlineAtEndOfFileLinePattern(line)) {
-                return transition(line, NEUTRAL_LINE, logToSout);
-            } else if (matchesHunkStartPattern(line)) {
-                return transition(line, HUNK_START, logToSout);
+                return NEUTRAL_LINE;
+            } else if (matchesHunkStartPattern(line, hunkHeader)) {
+                return HUNK_START;
             } else {
-                return transition(line, HEADER, logToSout);
+                return HEADER;
             }
         }
     };
 
     /**
-     * Returns the next state of the state machine depending on the current state and the content of a window of lines around the line
-     * that is currently being parsed.
+     * Returns the next state of the state machine depending on the current state and the content of the line that is
+     * currently being parsed. All patterns the state machine looks for are ASCII, so the line may also be a view that
+     * exposes each byte of an ASCII-compatible encoding as one char.
      *
-     * @param window the window around the line currently being parsed.
+     * @param line       the line currently being parsed.
+     * @param hunkHeader holds the decoded ranges of the line if the returned state is {@link #HUNK_START}.
      * @return the next valid state of the state machine; null if no valid state can be deduced.
      */
     @Nullable
-    public abstract ParserState nextState(@NotNull final ParseWindow window, final boolean logToSout);
+    abstract ParserState nextState(@NotNull final CharSequence line, @NotNull final HunkHeaderScanner hunkHeader);
 
-    protected ParserState transition(final String currentLine, final ParserState toState, final boolean logToSout) {
-        if (logToSout) {
-            System.out.println(String.format("%12s -> %12s: %s", this, toState, currentLine));
-        }
-        
-        return toState;
+    protected boolean matchesDiffStartPattern(@NotNull final CharSequence line) {
+        return startsWith(line, "diff --git");
     }
 
-    protected boolean matchesDiffStartPattern(@NotNull final String line) {
-        return line.startsWith("diff --git");
+    protected boolean matchesFromFilePattern(@NotNull final CharSequence line) {
+        return startsWith(line, "---");
     }
 
-    protected boolean matchesFromFilePattern(@NotNull final String line) {
-        return line.startsWith("---");
+    protected boolean matchesToFilePattern(@NotNull final CharSequence line) {
+        return startsWith(line, "+++");
     }
 
-    protected boolean matchesToFilePattern(@NotNull final String line) {
-        return line.startsWith("+++");
+    protected boolean matchesFromLinePattern(@NotNull final CharSequence line) {
+        return startsWith(line, "-");
     }
 
-    protected boolean matchesFromLinePattern(@NotNull final String line) {
-        return line.startsWith("-");
+    protected boolean matchesToLinePattern(@NotNull final CharSequence line) {
+        return startsWith(line, "+");
+    }
+    
+    protected boolean matchesNeutralLinePattern(@NotNull final CharSequence line) {
+        return startsWith(line, " ");
     }
 
-    protected boolean matchesToLinePattern(@NotNull final String line) {
-        return line.startsWith("+");
+    protected boolean matchesNoNewlineAtEndOfFileLinePattern(@NotNull final CharSequence line) {
+        return contains(line, "\\ No newline at end of file");
     }
-    
-    protected boolean matchesNeutralLinePattern(@NotNull final String line) {
-        return line.startsWith(" ");
+
+    protected boolean matchesHunkStartPattern(
+            @NotNull final CharSequence line,
+            @NotNull final HunkHeaderScanner hunkHeader) {
+
+        return hunkHeader.scan(line);
     }
 
-    protected boolean matchesNoNewlineAtEndOfFileLinePattern(@NotNull final String line) {
-        return line.contains("\\ No newline at end of file");
+    private static boolean startsWith(@NotNull final CharSequence line, @NotNull final String prefix) {
+        if (line.length() < prefix.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean contains(@NotNull final CharSequence line, @NotNull final String target) {
+        if (line instanceof String) {
+            return ((String) line).contains(target);
+        }
+
+        final int lastStart = line.length() - target.length();
+
+        for (int start = 0; start <= lastStart; start++) {
+            if (line.charAt(start) == target.charAt(0) && regionMatches(line, start, target)) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
-    protected boolean matchesHunkStartPattern(@NotNull final String line) {
-        return HUNK_START_PATTERN.matcher(line).matches();
+    private static boolean regionMatches(
+            @NotNull final CharSequence line,
+            final int start,
+            @NotNull final String target) {
+
+        for (int i = 1; i < target.length(); i++) {
+            if (line.charAt(start + i) != target.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
 }
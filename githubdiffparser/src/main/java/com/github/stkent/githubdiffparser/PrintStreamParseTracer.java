@@ -0,0 +1,47 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintStream;
+
+/**
+ * Prints every state transition, in the format used by {@link GitHubDiffParser#GitHubDiffParser(boolean)}. Meant for
+ * debugging: formatting and printing every line slows parsing down considerably, and parsers on different threads
+ * contend for the stream.
+ */
+public class PrintStreamParseTracer implements ParseTracer {
+
+    @NotNull
+    private final PrintStream out;
+
+    public PrintStreamParseTracer(@NotNull final PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void onTransition(
+            @NotNull final ParserState fromState,
+            @NotNull final ParserState toState,
+            final long lineNumber,
+            @NotNull final CharSequence line) {
+
+        out.println(String.format("%12s -> %12s: %s", fromState, toState, line));
+    }
+
+}
@@ -0,0 +1,326 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import com.github.stkent.githubdiffparser.models.Line;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A tracer that records events into a fixed-size ring buffer and hands them to another tracer (the sink) on a
+ * background thread, so that parsing threads never block, format or perform I/O. Memory use is bounded by the capacity
+ * of the ring: if the sink falls behind by more than the capacity, the oldest undelivered events are dropped and
+ * counted instead.
+ * 
+ * The slots of the ring are allocated up front and overwritten in place, so recording a transition allocates nothing.
+ * Line contents are not recorded, so the sink receives an empty line with every transition. Completed Diffs are not
+ * shared with the sink, since the caller may still modify them: the sink receives a snapshot taken on the parsing
+ * thread, which holds the Diff's file names, header lines and truncated flags, and the ranges and line types (but no
+ * line content) of its Hunks. Events from different parsing threads are delivered in the order they were recorded.
+ * Close the tracer to stop the background thread after delivering all remaining events.
+ */
+public class RingBufferParseTracer implements ParseTracer, Closeable {
+
+    private static final long DEFAULT_DRAIN_INTERVAL_MILLIS = 100;
+
+    private static final ParserState[] STATES = ParserState.values();
+
+    private static final int TRANSITION = 0;
+
+    private static final int DIFF_PARSED = 1;
+
+    private static final int PARSE_FINISHED = 2;
+
+    /**
+     * The sequence of a slot while a writer or the reader is accessing its fields.
+     */
+    private static final long BUSY = -1;
+
+    /**
+     * The sequence of a slot that has never been written.
+     */
+    private static final long EMPTY = -2;
+
+    @NotNull
+    private final ParseTracer sink;
+
+    private final int capacity;
+
+    /**
+     * The sequence of the event held by each slot, or {@link #BUSY} or {@link #EMPTY}. A slot's other fields may only
+     * be accessed by whoever has swapped its sequence for {@link #BUSY}, which publishes them when it stores a sequence
+     * again.
+     */
+    private final AtomicLongArray sequences;
+
+    private final int[] kindsAndStates;
+
+    private final Diff[] diffs;
+
+    private final long[] firsts;
+
+    private final long[] seconds;
+
+    private final long[] elapsedNanos;
+
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    private final AtomicLong droppedEventCount = new AtomicLong();
+
+    private final long drainIntervalNanos;
+
+    @NotNull
+    private final Thread drainer;
+
+    private volatile boolean isClosed = false;
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private long readSequence = 0;
+
+    public RingBufferParseTracer(final int capacity, @NotNull final ParseTracer sink) {
+        this(capacity, sink, DEFAULT_DRAIN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param capacity      the number of events the ring holds; rounded up to a power of two.
+     * @param sink          the tracer that events are delivered to, on the background thread.
+     * @param drainInterval how long the background thread waits between deliveries.
+     * @param unit          the unit of drainInterval.
+     */
+    public RingBufferParseTracer(
+            final int capacity,
+            @NotNull final ParseTracer sink,
+            final long drainInterval,
+            @NotNull final TimeUnit unit) {
+
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+
+        this.sink = sink;
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.sequences = new AtomicLongArray(this.capacity);
+        this.kindsAndStates = new int[this.capacity];
+        this.diffs = new Diff[this.capacity];
+        this.firsts = new long[this.capacity];
+        this.seconds = new long[this.capacity];
+        this.elapsedNanos = new long[this.capacity];
+
+        for (int slot = 0; slot < this.capacity; slot++) {
+            sequences.set(slot, EMPTY);
+        }
+
+        this.drainIntervalNanos = unit.toNanos(drainInterval);
+        this.drainer = new Thread(this::drainUntilClosed, "githubdiffparser-trace-drainer");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    @Override
+    public void onTransition(
+            @NotNull final ParserState fromState,
+            @NotNull final ParserState toState,
+            final long lineNumber,
+            @NotNull final CharSequence line) {
+
+        record(TRANSITION | fromState.ordinal() << 8 | toState.ordinal() << 16, null, lineNumber, 0, 0);
+    }
+
+    @Override
+    public void onDiffParsed(
+            @NotNull final Diff diff,
+            final long firstLineNumber,
+            final long lastLineNumber,
+            final long elapsedNanos) {
+
+        record(DIFF_PARSED, snapshot(diff), firstLineNumber, lastLineNumber, elapsedNanos);
+    }
+
+    @Override
+    public void onParseFinished(final long numberOfLines, final long numberOfBytes, final long elapsedNanos) {
+        record(PARSE_FINISHED, null, numberOfLines, numberOfBytes, elapsedNanos);
+    }
+
+    /**
+     * @return the number of events that were overwritten before they could be delivered.
+     */
+    public long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    /**
+     * Delivers all events recorded so far to the sink on the calling thread.
+     */
+    public synchronized void flush() {
+        while (true) {
+            final long oldestRetainedSequence = nextSequence.get() - capacity;
+
+            if (readSequence < oldestRetainedSequence) {
+                droppedEventCount.addAndGet(oldestRetainedSequence - readSequence);
+                readSequence = oldestRetainedSequence;
+            }
+
+            final int slot = (int) readSequence & (capacity - 1);
+            final long sequence = sequences.get(slot);
+
+            if (sequence == BUSY || sequence < readSequence) {
+                // Not published yet.
+                return;
+            }
+
+            if (sequence > readSequence || !sequences.compareAndSet(slot, sequence, BUSY)) {
+                // Overwritten between reading the next sequence and reading the slot; skip ahead.
+                continue;
+            }
+
+            final int kindAndStates = kindsAndStates[slot];
+            final Diff diff = diffs[slot];
+            final long first = firsts[slot];
+            final long second = seconds[slot];
+            final long nanos = elapsedNanos[slot];
+
+            // Release the Diff.
+            diffs[slot] = null;
+            sequences.set(slot, sequence);
+
+            readSequence++;
+            deliver(kindAndStates, diff, first, second, nanos);
+        }
+    }
+
+    /**
+     * Stops the background thread after delivering all events recorded so far. Events recorded afterwards are never
+     * delivered.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        LockSupport.unpark(drainer);
+
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+    }
+
+    private void record(
+            final int kindAndStates,
+            @Nullable final Diff diff,
+            final long first,
+            final long second,
+            final long elapsedNanos) {
+
+        final long sequence = nextSequence.getAndIncrement();
+        final int slot = (int) sequence & (capacity - 1);
+
+        /*
+         * The slot is only busy for the few stores of another access, unless a writer that is a full lap behind has
+         * not finished with it yet. A writer that has itself fallen a full lap behind must not overwrite the newer
+         * event, or the slot's sequence would move backwards; its event is dropped instead, and counted as such by
+         * the reader once it skips past it.
+         */
+        long previousSequence;
+
+        do {
+            previousSequence = sequences.get(slot);
+
+            if (previousSequence > sequence) {
+                return;
+            }
+        } while (previousSequence == BUSY || !sequences.compareAndSet(slot, previousSequence, BUSY));
+
+        kindsAndStates[slot] = kindAndStates;
+        diffs[slot] = diff;
+        firsts[slot] = first;
+        seconds[slot] = second;
+        this.elapsedNanos[slot] = elapsedNanos;
+        sequences.set(slot, sequence);
+    }
+
+    private void deliver(
+            final int kindAndStates,
+            @Nullable final Diff diff,
+            final long first,
+            final long second,
+            final long elapsedNanos) {
+
+        switch (kindAndStates & 0xFF) {
+            case TRANSITION:
+                sink.onTransition(
+                        STATES[(kindAndStates >>> 8) & 0xFF],
+                        STATES[(kindAndStates >>> 16) & 0xFF],
+                        first,
+                        "");
+                break;
+            case DIFF_PARSED:
+                //noinspection ConstantConditions
+                sink.onDiffParsed(diff, first, second, elapsedNanos);
+                break;
+            case PARSE_FINISHED:
+                sink.onParseFinished(first, second, elapsedNanos);
+                break;
+        }
+    }
+
+    /**
+     * @return a copy of the given Diff without line content, which the caller cannot modify while it is delivered.
+     */
+    @NotNull
+    private static Diff snapshot(@NotNull final Diff diff) {
+        final Diff snapshot = new Diff();
+        snapshot.setFromFileName(diff.getFromFileName());
+        snapshot.setToFileName(diff.getToFileName());
+        snapshot.getHeaderLines().addAll(diff.getHeaderLines());
+        snapshot.setTruncated(diff.isTruncated());
+
+        for (final Hunk hunk : diff.getHunks()) {
+            final Hunk hunkSnapshot = new Hunk();
+            hunkSnapshot.setFromFileRange(hunk.getFromFileRange());
+            hunkSnapshot.setToFileRange(hunk.getToFileRange());
+            hunkSnapshot.setTruncated(hunk.isTruncated());
+
+            for (final Line line : hunk.getLines()) {
+                hunkSnapshot.addLine(line.getLineType(), null);
+            }
+
+            snapshot.getHunks().add(hunkSnapshot);
+        }
+
+        return snapshot;
+    }
+
+    private void drainUntilClosed() {
+        while (!isClosed) {
+            LockSupport.parkNanos(this, drainIntervalNanos);
+            flush();
+        }
+    }
+
+}
@@ -0,0 +1,346 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link RingBufferParseWindow} slides through the lines of a input stream and
+ * offers methods to get the currently focused line as well as upcoming lines.
+ * It behaves exactly like a {@link ResizingParseWindow}, but keeps its lines in
+ * a growable circular array, so sliding forward and looking ahead are O(1) and
+ * do not allocate.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class RingBufferParseWindow implements ParseWindow {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private BufferedReader reader;
+
+    /**
+     * Reads the lines instead of {@link #reader} if this window counts the bytes of the lines it holds, in which case
+     * {@link #lineEnds} holds the number of bytes read up to the end of each line.
+     */
+    private ByteLineReader byteLineReader;
+
+    private long[] lineEnds;
+
+    private long numberOfBytesThroughFocusLine = 0;
+
+    /**
+     * The lines currently held by this window. The focus line is stored at
+     * index {@link #head}, and the array length is always a power of two.
+     */
+    private String[] lines = new String[INITIAL_CAPACITY];
+
+    private int head = 0;
+
+    private int size = 0;
+
+    private int lineNumber = 0;
+
+    private List<Pattern> ignorePatterns = new ArrayList<>();
+
+    private int maxLineLength = Integer.MAX_VALUE;
+
+    /**
+     * Chars read ahead by {@link #readBoundedLine()}, and whether a '\n' that
+     * directly follows the '\r' ending the previous line is still to be skipped.
+     */
+    private final char[] chars = new char[8192];
+
+    private int charsPosition = 0;
+
+    private int charsLimit = 0;
+
+    private boolean isSkippingLineFeed = false;
+
+    public RingBufferParseWindow(InputStream in) {
+        Reader unbufferedReader = new InputStreamReader(in);
+        this.reader = new BufferedReader(unbufferedReader);
+    }
+
+    /**
+     * Creates a window that counts the bytes taken up by its lines, see {@link #getNumberOfBytesThroughFocusLine()}.
+     *
+     * @param charset the charset of the input, which must be ASCII-compatible.
+     */
+    RingBufferParseWindow(@NotNull InputStream in, @NotNull Charset charset) {
+        this.byteLineReader = new ByteLineReader(in, charset);
+        this.lineEnds = new long[INITIAL_CAPACITY];
+    }
+
+    public void addIgnorePattern(String ignorePattern) {
+        this.ignorePatterns.add(Pattern.compile(ignorePattern));
+    }
+
+    /**
+     * Limits the number of chars kept of each line. The rest of a longer line
+     * is skipped while it is read, so that a single huge line cannot exhaust
+     * memory. Must be called before the first line is read.
+     */
+    public void setMaxLineLength(int maxLineLength) {
+        if (maxLineLength < 0) {
+            throw new IllegalArgumentException("maxLineLength must not be negative: " + maxLineLength);
+        }
+
+        this.maxLineLength = maxLineLength;
+
+        if (byteLineReader != null) {
+            byteLineReader.setMaxLineLength(maxLineLength);
+        }
+    }
+
+    boolean isCountingBytes() {
+        return byteLineReader != null;
+    }
+
+    /**
+     * @return the number of bytes of input up to and including the focus line and its line terminator, or all bytes of
+     *         input once this window has slid past its last line. Lines read ahead are not counted, while ignored
+     *         lines are counted with the line that follows them. Only available if this window counts bytes.
+     */
+    long getNumberOfBytesThroughFocusLine() {
+        return numberOfBytesThroughFocusLine;
+    }
+
+    @Override
+    public String getFutureLine(int distance) {
+        if (distance < 0) {
+            return null;
+        }
+
+        try {
+            while (size <= distance) {
+                String nextLine = getNextLine();
+                if (nextLine == null) {
+                    return null;
+                }
+                addLast(nextLine);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return get(distance);
+    }
+
+    @Override
+    public void addLine(int pos, String line) {
+        if (pos < 0 || pos > size) {
+            throw new IndexOutOfBoundsException("Index: " + pos + ", Size: " + size);
+        }
+
+        ensureCapacity(size + 1);
+
+        for (int i = size; i > pos; i--) {
+            lines[index(i)] = lines[index(i - 1)];
+        }
+
+        lines[index(pos)] = line;
+
+        if (lineEnds != null) {
+            for (int i = size; i > pos; i--) {
+                lineEnds[index(i)] = lineEnds[index(i - 1)];
+            }
+
+            /*
+             * An added line takes up no bytes of input.
+             */
+            lineEnds[index(pos)] = pos > 0 ? lineEnds[index(pos - 1)] : numberOfBytesThroughFocusLine;
+        }
+
+        size++;
+    }
+
+    @Override
+    public String slideForward() {
+        try {
+            pollFirst();
+            lineNumber++;
+            if (size == 0) {
+                String nextLine = getNextLine();
+                if (nextLine != null) {
+                    addLast(nextLine);
+                }
+            }
+
+            if (lineEnds != null) {
+                numberOfBytesThroughFocusLine = size > 0 ? lineEnds[head] : byteLineReader.getNumberOfBytesRead();
+            }
+
+            return size > 0 ? lines[head] : null;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String getNextLine() throws IOException {
+        String nextLine = readLine();
+        while (matchesIgnorePattern(nextLine)) {
+            nextLine = readLine();
+        }
+
+        return nextLine;
+    }
+
+    private String readLine() throws IOException {
+        if (byteLineReader != null) {
+            return byteLineReader.readLine();
+        }
+
+        return maxLineLength == Integer.MAX_VALUE ? reader.readLine() : readBoundedLine();
+    }
+
+    /**
+     * Reads a line like {@link BufferedReader#readLine()} does, but keeps at
+     * most {@link #maxLineLength} of its chars.
+     */
+    private String readBoundedLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        boolean isEndOfInput = true;
+
+        while (true) {
+            if (charsPosition == charsLimit) {
+                charsLimit = Math.max(reader.read(chars, 0, chars.length), 0);
+                charsPosition = 0;
+
+                if (charsLimit == 0) {
+                    return isEndOfInput ? null : line.toString();
+                }
+            }
+
+            char c = chars[charsPosition++];
+
+            if (isSkippingLineFeed) {
+                isSkippingLineFeed = false;
+
+                if (c == '\n') {
+                    continue;
+                }
+            }
+
+            if (c == '\n' || c == '\r') {
+                isSkippingLineFeed = c == '\r';
+                return line.toString();
+            }
+
+            isEndOfInput = false;
+
+            if (line.length() < maxLineLength) {
+                line.append(c);
+            }
+        }
+    }
+
+    private boolean matchesIgnorePattern(String line) {
+        if (line == null) {
+            return false;
+        } else {
+            for (Pattern pattern : ignorePatterns) {
+                Matcher matcher = pattern.matcher(line);
+                if (matcher.matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public String getFocusLine() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return lines[head];
+    }
+
+    @Override
+    public int getFocusLineNumber() {
+        return lineNumber;
+    }
+
+    private String get(int distance) {
+        return lines[index(distance)];
+    }
+
+    private int index(int distance) {
+        return (head + distance) & (lines.length - 1);
+    }
+
+    private void addLast(String line) {
+        ensureCapacity(size + 1);
+        lines[index(size)] = line;
+
+        if (lineEnds != null) {
+            lineEnds[index(size)] = byteLineReader.getNumberOfBytesRead();
+        }
+
+        size++;
+    }
+
+    private void pollFirst() {
+        if (size > 0) {
+            lines[head] = null;
+            head = index(1);
+            size--;
+        }
+    }
+
+    /**
+     * Doubles the capacity of the ring until it can hold the given number of
+     * lines, unrolling its content to start at index 0.
+     */
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= lines.length) {
+            return;
+        }
+
+        int newCapacity = lines.length;
+        while (newCapacity < minCapacity) {
+            newCapacity <<= 1;
+        }
+
+        String[] newLines = new String[newCapacity];
+        for (int i = 0; i < size; i++) {
+            newLines[i] = get(i);
+        }
+
+        if (lineEnds != null) {
+            long[] newLineEnds = new long[newCapacity];
+            for (int i = 0; i < size; i++) {
+                newLineEnds[i] = lineEnds[index(i)];
+            }
+
+            lineEnds = newLineEnds;
+        }
+
+        lines = newLines;
+        head = 0;
+    }
+
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A table-driven implementation of the {@link ParserState} machine. Each line is classified once, by its first byte
+ * and, for the few bytes that start a multi-character prefix, a short comparison; the next state is then looked up by
+ * current state and line class.
+ * 
+ * Hunk content lines start with '-', '+' or ' ', so in the states that occur most often they resolve with a single
+ * array lookup. Only the (state, class) pairs whose outcome depends on more than the line prefix (a possible hunk
+ * header or "\ No newline at end of file" marker, or an error) have no entry; those lines fall back to
+ * {@link ParserState#nextState(CharSequence, HunkHeaderScanner)}, which remains the reference definition of the
+ * machine. The table never changes the outcome of a transition, only the cost of computing it.
+ */
+final class TransitionTable {
+
+    /**
+     * A line that does not start with any of the prefixes below.
+     */
+    static final int OTHER = 0;
+
+    /**
+     * A line starting with "diff --git".
+     */
+    static final int DIFF_START_LINE = 1;
+
+    /**
+     * A line starting with "---".
+     */
+    static final int FROM_FILE_LINE = 2;
+
+    /**
+     * A line starting with "+++".
+     */
+    static final int TO_FILE_LINE = 3;
+
+    /**
+     * A line starting with '-', but not "---".
+     */
+    static final int FROM_LINE = 4;
+
+    /**
+     * A line starting with '+', but not "+++".
+     */
+    static final int TO_LINE = 5;
+
+    /**
+     * A line starting with ' '.
+     */
+    static final int NEUTRAL_LINE = 6;
+
+    private static final int NUMBER_OF_LINE_CLASSES = 7;
+
+    private static final String DIFF_START_PREFIX = "diff --git";
+
+    /**
+     * Line class by first character, for characters below 256. 'd' maps to {@link #DIFF_START_LINE}, '-' and '+' to
+     * {@link #FROM_LINE} and {@link #TO_LINE}; those are refined by {@link #classify(CharSequence)}.
+     */
+    private static final byte[] FIRST_CHAR_CLASSES = new byte[256];
+
+    /**
+     * Next state by ordinal of the current state and line class; null where the fallback must decide.
+     */
+    private static final ParserState[][] NEXT_STATES = new ParserState[ParserState.values().length][];
+
+    static {
+        FIRST_CHAR_CLASSES['d'] = DIFF_START_LINE;
+        FIRST_CHAR_CLASSES['-'] = FROM_LINE;
+        FIRST_CHAR_CLASSES['+'] = TO_LINE;
+        FIRST_CHAR_CLASSES[' '] = NEUTRAL_LINE;
+
+        final ParserState[] contentLine = row(null, ParserState.DIFF_START, ParserState.FROM_LINE,
+                ParserState.TO_LINE, ParserState.FROM_LINE, ParserState.TO_LINE, ParserState.NEUTRAL_LINE);
+
+        put(ParserState.INITIAL, row(null, ParserState.DIFF_START, null, null, null, null, null));
+        put(ParserState.DIFF_START, row(ParserState.HEADER, ParserState.HEADER, ParserState.FROM_FILE,
+                ParserState.HEADER, ParserState.HEADER, ParserState.HEADER, ParserState.HEADER));
+        put(ParserState.HEADER, row(ParserState.HEADER, ParserState.DIFF_START, ParserState.FROM_FILE,
+                ParserState.HEADER, ParserState.HEADER, ParserState.HEADER, ParserState.HEADER));
+        put(ParserState.FROM_FILE, row(null, null, null, ParserState.TO_FILE, null, null, null));
+        put(ParserState.TO_FILE, row(null, null, null, null, null, null, null));
+        put(ParserState.HUNK_START, row(ParserState.NEUTRAL_LINE, ParserState.NEUTRAL_LINE, ParserState.FROM_LINE,
+                ParserState.TO_LINE, ParserState.FROM_LINE, ParserState.TO_LINE, ParserState.NEUTRAL_LINE));
+        put(ParserState.FROM_LINE, contentLine);
+        put(ParserState.TO_LINE, contentLine);
+        put(ParserState.NEUTRAL_LINE, contentLine);
+    }
+
+    private TransitionTable() {
+    }
+
+    /**
+     * Equivalent to {@code state.nextState(line, hunkHeader)}.
+     *
+     * @param state      the current state.
+     * @param line       the line currently being parsed.
+     * @param hunkHeader holds the decoded ranges of the line if the returned state is {@link ParserState#HUNK_START}.
+     * @return the next valid state of the state machine; null if no valid state can be deduced.
+     */
+    @Nullable
+    static ParserState nextState(
+            @NotNull final ParserState state,
+            @NotNull final CharSequence line,
+            @NotNull final HunkHeaderScanner hunkHeader) {
+
+        final ParserState result = NEXT_STATES[state.ordinal()][classify(line)];
+        return result != null ? result : state.nextState(line, hunkHeader);
+    }
+
+    /**
+     * @return the class of the given line, one of the constants of this class.
+     */
+    static int classify(@NotNull final CharSequence line) {
+        if (line.length() == 0) {
+            return OTHER;
+        }
+
+        final char first = line.charAt(0);
+
+        if (first >= FIRST_CHAR_CLASSES.length) {
+            return OTHER;
+        }
+
+        final int firstCharClass = FIRST_CHAR_CLASSES[first];
+
+        switch (firstCharClass) {
+            case DIFF_START_LINE:
+                return startsWith(line, DIFF_START_PREFIX) ? DIFF_START_LINE : OTHER;
+            case FROM_LINE:
+                return startsWithTriple(line, '-') ? FROM_FILE_LINE : FROM_LINE;
+            case TO_LINE:
+                return startsWithTriple(line, '+') ? TO_FILE_LINE : TO_LINE;
+            default:
+                return firstCharClass;
+        }
+    }
+
+    private static boolean startsWith(@NotNull final CharSequence line, @NotNull final String prefix) {
+        if (line.length() < prefix.length()) {
+            return false;
+        }
+
+        for (int i = 1; i < prefix.length(); i++) {
+            if (line.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean startsWithTriple(@NotNull final CharSequence line, final char c) {
+        return line.length() >= 3 && line.charAt(1) == c && line.charAt(2) == c;
+    }
+
+    @NotNull
+    private static ParserState[] row(@Nullable final ParserState... nextStates) {
+        if (nextStates.length != NUMBER_OF_LINE_CLASSES) {
+            throw new IllegalStateException("Expected a next state for each line class.");
+        }
+
+        return nextStates;
+    }
+
+    private static void put(@NotNull final ParserState state, @NotNull final ParserState[] nextStates) {
+        NEXT_STATES[state.ordinal()] = nextStates;
+    }
+
+}
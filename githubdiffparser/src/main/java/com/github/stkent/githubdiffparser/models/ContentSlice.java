@@ -0,0 +1,179 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser.models;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * The content of a {@link Line} as a range of encoded bytes inside a shared buffer, usually the buffer the diff was
+ * parsed from. Nothing is decoded until the content is actually read: {@link #toString()} decodes the bytes into a
+ * new String on every call, so that content which is only read once is never retained twice.
+ * 
+ * The {@link CharSequence} methods read pure ASCII content straight from the buffer. Any other content is decoded once
+ * on first access and the result is kept, since char indices cannot be mapped onto encoded bytes otherwise.
+ * 
+ * The charset must encode ASCII characters as the identical single bytes (as UTF-8 and the ISO-8859 family do), and the
+ * backing buffer must not be modified while slices of it are in use.
+ */
+public final class ContentSlice implements CharSequence {
+
+    private static final byte UNKNOWN = 0;
+
+    private static final byte ASCII = 1;
+
+    private static final byte NON_ASCII = 2;
+
+    private final ByteBuffer buffer;
+
+    private final int offset;
+
+    private final int length;
+
+    private final Charset charset;
+
+    private byte encoding = UNKNOWN;
+
+    @Nullable
+    private String decodedContent;
+
+    /**
+     * @param buffer  the buffer holding the encoded content. Only absolute get methods are used, so its position and
+     *                limit are irrelevant.
+     * @param offset  the index of the first byte of the content within the buffer.
+     * @param length  the number of bytes of the content.
+     * @param charset the charset in which the content is encoded.
+     */
+    public ContentSlice(
+            @NotNull final ByteBuffer buffer,
+            final int offset,
+            final int length,
+            @NotNull final Charset charset) {
+
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.charset = charset;
+    }
+
+    /**
+     * @return the buffer holding the encoded content.
+     */
+    @NotNull
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the index of the first byte of the content within the buffer.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of bytes of the content (not the number of chars; see {@link #length()}).
+     */
+    public int getByteLength() {
+        return length;
+    }
+
+    @NotNull
+    public Charset getCharset() {
+        return charset;
+    }
+
+    @Override
+    public int length() {
+        return isAscii() ? length : getDecodedContent().length();
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (isAscii()) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length);
+            }
+
+            return (char) buffer.get(offset + index);
+        }
+
+        return getDecodedContent().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        if (isAscii()) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end + ", Length: " + length);
+            }
+
+            return new ContentSlice(buffer, offset + start, end - start, charset);
+        }
+
+        return getDecodedContent().subSequence(start, end);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return decodedContent != null ? decodedContent : decode();
+    }
+
+    private boolean isAscii() {
+        if (encoding == UNKNOWN) {
+            encoding = ASCII;
+
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer.get(i) < 0) {
+                    encoding = NON_ASCII;
+                    break;
+                }
+            }
+        }
+
+        return encoding == ASCII;
+    }
+
+    @NotNull
+    private String getDecodedContent() {
+        if (decodedContent == null) {
+            decodedContent = decode();
+        }
+
+        return decodedContent;
+    }
+
+    @NotNull
+    private String decode() {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, charset);
+        }
+
+        final byte[] bytes = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+
+        return new String(bytes, charset);
+    }
+
+}
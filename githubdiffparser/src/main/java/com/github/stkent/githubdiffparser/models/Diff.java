@@ -35,8 +35,10 @@ package com.github.stkent.githubdiffparser.models;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Represents a Diff between two files.
@@ -53,7 +55,15 @@ public class Diff {
 
     private List<String> headerLines = new ArrayList<>();
 
-    private List<Hunk> hunks = new ArrayList<>();
+    private List<Hunk> hunks = new HunkList();
+
+    private boolean truncated;
+
+    /**
+     * Built on first lookup and discarded whenever the Hunks change.
+     */
+    @Nullable
+    private volatile DiffLineIndex lineIndex;
     
     /**
      * The header lines of the diff. These lines are purely informational and are not parsed.
@@ -115,7 +125,27 @@ public class Diff {
     }
 
     /**
+     * @return true if content of this Diff (header lines, Hunks or lines of its Hunks) was dropped or cut short because
+     *         the input exceeded a parse limit. Truncated Hunks are marked as well.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(final boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    /**
+     * Finds the position of a line of the "to" file within this Diff, as used by GitHub to anchor review comments.
+     * Lookups take O(log n) time in the number of Hunks and O(1) time within the Hunk, using indexes that are built on
+     * first use and rebuilt after the Hunks or their lines change. Within Hunks whose lines have no content (see
+     * {@code GitHubDiffParser.parsePositions}), lines are counted straight from their packed types instead, 32 at a
+     * time.
+     *
      * NOTE: result is based on the first line being labelled line number 1, not line number 0!
+     *
+     * @return the position of the line, or null if this Diff does not contain it.
      */
     @Nullable
     public Integer getDiffLineNumberForToFileLocation(
@@ -126,25 +156,125 @@ public class Diff {
             return null;
         }
 
-        int diffLineNumber = headerLines.size() + NUMBER_OF_LINES_PER_DELIMITER;
-        
-        int currentHunkIndex = 0;
-        while (currentHunkIndex < hunks.size()) {
-            diffLineNumber = diffLineNumber + Hunk.NUMBER_OF_LINES_PER_DELIMITER;
-            
-            final Hunk currentHunk = hunks.get(currentHunkIndex);
-            
-            if (currentHunk.containsToFileLineNumber(toFileLineNumber)) {
-                //noinspection ConstantConditions
-                return diffLineNumber + currentHunk.getHunkLineNumberForToFileLineNumber(toFileLineNumber);
-            } else {
-                diffLineNumber += currentHunk.getNumberOfLines();
-            }
-            
-            currentHunkIndex++;
+        final DiffLineIndex index = getLineIndex();
+        final int hunkIndex = index.findHunkIndexForToFileLineNumber(hunks, toFileLineNumber);
+
+        if (hunkIndex >= 0) {
+            final int diffLineNumber = headerLines.size()
+                    + NUMBER_OF_LINES_PER_DELIMITER
+                    + index.getNumberOfLinesBeforeHunk(hunkIndex)
+                    + Hunk.NUMBER_OF_LINES_PER_DELIMITER;
+
+            final Integer hunkLineNumber = hunks.get(hunkIndex).getHunkLineNumberForToFileLineNumber(toFileLineNumber);
+
+            // Lines dropped from a truncated Hunk have no position.
+            return hunkLineNumber != null ? diffLineNumber + hunkLineNumber : null;
         }
-        
+
         return null;
     }
-    
+
+    /**
+     * Finds the type and the "from" and "to" file line numbers of the line at a position within this Diff, i.e. the
+     * inverse of {@link #getDiffLineNumberForToFileLocation(String, int)}. Lookups take O(log n) time, using indexes
+     * that are built on first use and rebuilt after the Hunks or their lines change.
+     *
+     * NOTE: diff line numbers are based on the first line being labelled line number 1, not line number 0!
+     *
+     * @return the location of the line, or null if the position is a header line, a hunk header or outside of this
+     *         Diff.
+     */
+    @Nullable
+    public LineLocation getLineLocationForDiffLineNumber(final int diffLineNumber) {
+        final DiffLineIndex index = getLineIndex();
+        final int lineOffset = diffLineNumber
+                - headerLines.size()
+                - NUMBER_OF_LINES_PER_DELIMITER
+                - Hunk.NUMBER_OF_LINES_PER_DELIMITER;
+        final int hunkIndex = index.findHunkIndexForLineOffset(lineOffset);
+
+        if (hunkIndex < 0) {
+            return null;
+        }
+
+        // A hunk line number of 0 denotes the Hunk's header.
+        final int hunkLineNumber = lineOffset - index.getNumberOfLinesBeforeHunk(hunkIndex);
+
+        return hunks.get(hunkIndex).getLineLocationForHunkLineNumber(hunkLineNumber);
+    }
+
+    void onHunksModified() {
+        if (lineIndex != null) {
+            lineIndex = null;
+        }
+    }
+
+    @NotNull
+    private DiffLineIndex getLineIndex() {
+        DiffLineIndex result = lineIndex;
+
+        if (result == null) {
+            result = DiffLineIndex.build(hunks);
+            lineIndex = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Keeps the line index in step with structural changes to the list of Hunks.
+     */
+    private final class HunkList extends AbstractList<Hunk> implements RandomAccess {
+
+        private final List<Hunk> hunks = new ArrayList<>();
+
+        @Override
+        public Hunk get(final int index) {
+            return hunks.get(index);
+        }
+
+        @Override
+        public int size() {
+            return hunks.size();
+        }
+
+        @Override
+        public Hunk set(final int index, final Hunk hunk) {
+            final Hunk previousHunk = hunks.set(index, hunk);
+            attach(hunk);
+            return previousHunk;
+        }
+
+        @Override
+        public void add(final int index, final Hunk hunk) {
+            hunks.add(index, hunk);
+            modCount++;
+            attach(hunk);
+        }
+
+        @Override
+        public Hunk remove(final int index) {
+            final Hunk removedHunk = hunks.remove(index);
+            modCount++;
+            onHunksModified();
+            return removedHunk;
+        }
+
+        @Override
+        public void clear() {
+            hunks.clear();
+            modCount++;
+            onHunksModified();
+        }
+
+        private void attach(@Nullable final Hunk hunk) {
+            if (hunk != null) {
+                hunk.attachTo(Diff.this);
+            }
+
+            onHunksModified();
+        }
+
+    }
+
 }
@@ -0,0 +1,190 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser.models;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Locates the {@link Hunk} of a {@link Diff} that contains a given "to" file line number or a given diff line number in
+ * O(log n), and the position of each Hunk within the Diff in O(1).
+ * 
+ * The index is a snapshot of the Hunks' "to" ranges and line counts, and must be rebuilt whenever either changes. If
+ * the non-empty "to" ranges are not sorted and disjoint, which is never the case for diffs produced by git, lookups
+ * fall back to visiting the Hunks in order so that the first containing Hunk still wins.
+ */
+final class DiffLineIndex {
+
+    /**
+     * Number of lines preceding each Hunk's header, counted from the first Hunk's header.
+     */
+    private final int[] numbersOfLinesBeforeHunks;
+
+    /**
+     * Number of lines of all Hunks, including their headers.
+     */
+    private final int numberOfLines;
+
+    /*
+     * Start, inclusive end and Hunk index of every non-empty "to" range, in order of start. Only used if searchable.
+     */
+    private final int[] toLineStarts;
+
+    private final int[] toLineEnds;
+
+    private final int[] hunkIndices;
+
+    private final boolean isSearchable;
+
+    private DiffLineIndex(
+            @NotNull final int[] numbersOfLinesBeforeHunks,
+            final int numberOfLines,
+            @NotNull final int[] toLineStarts,
+            @NotNull final int[] toLineEnds,
+            @NotNull final int[] hunkIndices,
+            final boolean isSearchable) {
+
+        this.numbersOfLinesBeforeHunks = numbersOfLinesBeforeHunks;
+        this.numberOfLines = numberOfLines;
+        this.toLineStarts = toLineStarts;
+        this.toLineEnds = toLineEnds;
+        this.hunkIndices = hunkIndices;
+        this.isSearchable = isSearchable;
+    }
+
+    @NotNull
+    static DiffLineIndex build(@NotNull final List<Hunk> hunks) {
+        final int numberOfHunks = hunks.size();
+        final int[] numbersOfLinesBeforeHunks = new int[numberOfHunks];
+        final int[] toLineStarts = new int[numberOfHunks];
+        final int[] toLineEnds = new int[numberOfHunks];
+        final int[] hunkIndices = new int[numberOfHunks];
+
+        int numberOfRanges = 0;
+        int numberOfLinesBeforeHunk = 0;
+        boolean isSearchable = true;
+
+        for (int hunkIndex = 0; hunkIndex < numberOfHunks; hunkIndex++) {
+            final Hunk hunk = hunks.get(hunkIndex);
+            numbersOfLinesBeforeHunks[hunkIndex] = numberOfLinesBeforeHunk;
+            numberOfLinesBeforeHunk += Hunk.NUMBER_OF_LINES_PER_DELIMITER + hunk.getNumberOfLines();
+
+            final Range toFileRange = hunk.getToFileRange();
+
+            if (toFileRange == null) {
+                isSearchable = false;
+                continue;
+            }
+
+            if (toFileRange.getLineCount() <= 0) {
+                // An empty range contains no line numbers, so it can never be the result of a lookup.
+                continue;
+            }
+
+            final int toLineStart = toFileRange.getLineStart();
+            final int toLineEnd = toLineStart + toFileRange.getLineCount() - 1;
+
+            if (toLineEnd < toLineStart || (numberOfRanges > 0 && toLineStart <= toLineEnds[numberOfRanges - 1])) {
+                isSearchable = false;
+            }
+
+            toLineStarts[numberOfRanges] = toLineStart;
+            toLineEnds[numberOfRanges] = toLineEnd;
+            hunkIndices[numberOfRanges] = hunkIndex;
+            numberOfRanges++;
+        }
+
+        return new DiffLineIndex(
+                numbersOfLinesBeforeHunks,
+                numberOfLinesBeforeHunk,
+                Arrays.copyOf(toLineStarts, numberOfRanges),
+                Arrays.copyOf(toLineEnds, numberOfRanges),
+                Arrays.copyOf(hunkIndices, numberOfRanges),
+                isSearchable);
+    }
+
+    /**
+     * @return the index of the first Hunk whose "to" range contains the supplied line number, or -1 if there is none.
+     */
+    int findHunkIndexForToFileLineNumber(@NotNull final List<Hunk> hunks, final int toFileLineNumber) {
+        if (!isSearchable) {
+            for (int hunkIndex = 0; hunkIndex < hunks.size(); hunkIndex++) {
+                if (hunks.get(hunkIndex).containsToFileLineNumber(toFileLineNumber)) {
+                    return hunkIndex;
+                }
+            }
+
+            return -1;
+        }
+
+        // Find the last range starting at or before the line number; only that range can contain it.
+        int low = 0;
+        int high = toLineStarts.length - 1;
+
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+
+            if (toLineStarts[middle] <= toFileLineNumber) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        if (high < 0 || toFileLineNumber > toLineEnds[high]) {
+            return -1;
+        }
+
+        return hunkIndices[high];
+    }
+
+    /**
+     * @param lineOffset the number of lines between the first Hunk's header (inclusive) and the line (exclusive).
+     * @return the index of the Hunk containing the line, or -1 if the line is not part of any Hunk.
+     */
+    int findHunkIndexForLineOffset(final int lineOffset) {
+        if (lineOffset < 0 || lineOffset >= numberOfLines) {
+            return -1;
+        }
+
+        // Every Hunk spans at least its header line, so the offsets are strictly increasing.
+        int low = 0;
+        int high = numbersOfLinesBeforeHunks.length - 1;
+
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+
+            if (numbersOfLinesBeforeHunks[middle] <= lineOffset) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return high;
+    }
+
+    /**
+     * @return the number of lines between the first Hunk's header (inclusive) and the given Hunk's header (exclusive).
+     */
+    int getNumberOfLinesBeforeHunk(final int hunkIndex) {
+        return numbersOfLinesBeforeHunks[hunkIndex];
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser.models;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents all Diffs parsed from one input, e.g. the diff of a whole pull request, indexed by file name.
+ * 
+ * Both the "from" and the "to" file name of every Diff are indexed, so finding the Diff of a file takes O(1) time
+ * instead of a scan over all Diffs. If several Diffs share a file name, the first of them is returned. The index is
+ * built when the DiffSet is created; file names changed afterwards are not reflected.
+ */
+public class DiffSet {
+
+    @NotNull
+    private final List<Diff> diffs;
+
+    @NotNull
+    private final Map<String, Diff> diffsByFromFileName;
+
+    @NotNull
+    private final Map<String, Diff> diffsByToFileName;
+
+    public DiffSet(@NotNull final List<Diff> diffs) {
+        this.diffs = Collections.unmodifiableList(new ArrayList<>(diffs));
+        this.diffsByFromFileName = new HashMap<>(capacityFor(diffs.size()));
+        this.diffsByToFileName = new HashMap<>(capacityFor(diffs.size()));
+
+        for (final Diff diff : diffs) {
+            if (diff.getFromFileName() != null) {
+                diffsByFromFileName.putIfAbsent(diff.getFromFileName(), diff);
+            }
+
+            if (diff.getToFileName() != null) {
+                diffsByToFileName.putIfAbsent(diff.getToFileName(), diff);
+            }
+        }
+    }
+
+    /**
+     * @return all Diffs of this set, in input order.
+     */
+    @NotNull
+    public List<Diff> getDiffs() {
+        return diffs;
+    }
+
+    /**
+     * @return the Diff whose "from" file has the given name, or null if there is none.
+     */
+    @Nullable
+    public Diff getDiffForFromFileName(@NotNull final String fromFileName) {
+        return diffsByFromFileName.get(fromFileName);
+    }
+
+    /**
+     * @return the Diff whose "to" file has the given name, or null if there is none.
+     */
+    @Nullable
+    public Diff getDiffForToFileName(@NotNull final String toFileName) {
+        return diffsByToFileName.get(toFileName);
+    }
+
+    /**
+     * Finds the Diff of a file by either of its names, preferring a match on the "to" file name. This also finds the
+     * Diffs of deleted files and the old names of renamed files.
+     *
+     * @return the matching Diff, or null if there is none.
+     */
+    @Nullable
+    public Diff getDiffForFileName(@NotNull final String fileName) {
+        final Diff diff = diffsByToFileName.get(fileName);
+        return diff != null ? diff : diffsByFromFileName.get(fileName);
+    }
+
+    /**
+     * Finds the position of a line of a "to" file within the Diff of that file.
+     *
+     * NOTE: result is based on the first line being labelled line number 1, not line number 0!
+     *
+     * @return the position, or null if no Diff has the given "to" file name or the line is not part of its Diff.
+     * @see Diff#getDiffLineNumberForToFileLocation(String, int)
+     */
+    @Nullable
+    public Integer getDiffLineNumberForToFileLocation(@NotNull final String toFileName, final int toFileLineNumber) {
+        final Diff diff = diffsByToFileName.get(toFileName);
+        return diff != null ? diff.getDiffLineNumberForToFileLocation(toFileName, toFileLineNumber) : null;
+    }
+
+    /**
+     * Finds the positions of many lines of "to" files at once. Each lookup takes O(1) time to find the Diff and
+     * O(log n) time within it, so resolving k locations takes O(k log n) time overall.
+     *
+     * @param toFileLocations the locations to resolve.
+     * @return the position of each location within its Diff, in the same order as the locations; an entry is null if
+     *         its location is not part of any Diff.
+     */
+    @NotNull
+    public List<Integer> getDiffLineNumbersForToFileLocations(@NotNull final List<FileLocation> toFileLocations) {
+        final List<Integer> result = new ArrayList<>(toFileLocations.size());
+
+        for (final FileLocation toFileLocation : toFileLocations) {
+            result.add(getDiffLineNumberForToFileLocation(
+                    toFileLocation.getFileName(), toFileLocation.getLineNumber()));
+        }
+
+        return result;
+    }
+
+    private static int capacityFor(final int numberOfEntries) {
+        return Math.max(16, (int) (numberOfEntries / 0.75f) + 1);
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser.models;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summarizes a {@link Diff} by its file names and the number of lines it adds and removes, per {@link Hunk} and in
+ * total, as shown by {@code git diff --stat}. Header lines and the content of hunk lines are not kept.
+ */
+public final class DiffStat {
+
+    @Nullable
+    private final String fromFileName;
+
+    @Nullable
+    private final String toFileName;
+
+    private final List<HunkStat> hunkStats;
+
+    private final boolean truncated;
+
+    private final int numberOfAddedLines;
+
+    private final int numberOfRemovedLines;
+
+    public DiffStat(
+            @Nullable final String fromFileName,
+            @Nullable final String toFileName,
+            @NotNull final List<HunkStat> hunkStats,
+            final boolean truncated) {
+
+        this.fromFileName = fromFileName;
+        this.toFileName = toFileName;
+        this.hunkStats = Collections.unmodifiableList(hunkStats);
+        this.truncated = truncated;
+
+        int numberOfAddedLines = 0;
+        int numberOfRemovedLines = 0;
+
+        for (final HunkStat hunkStat : hunkStats) {
+            numberOfAddedLines += hunkStat.getNumberOfAddedLines();
+            numberOfRemovedLines += hunkStat.getNumberOfRemovedLines();
+        }
+
+        this.numberOfAddedLines = numberOfAddedLines;
+        this.numberOfRemovedLines = numberOfRemovedLines;
+    }
+
+    /**
+     * @see Diff#getFromFileName()
+     */
+    @Nullable
+    public String getFromFileName() {
+        return fromFileName;
+    }
+
+    /**
+     * @see Diff#getToFileName()
+     */
+    @Nullable
+    public String getToFileName() {
+        return toFileName;
+    }
+
+    /**
+     * @return the summaries of the Hunks of the Diff, in input order.
+     */
+    @NotNull
+    public List<HunkStat> getHunkStats() {
+        return hunkStats;
+    }
+
+    /**
+     * @see Diff#isTruncated()
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public int getNumberOfAddedLines() {
+        return numberOfAddedLines;
+    }
+
+    public int getNumberOfRemovedLines() {
+        return numberOfRemovedLines;
+    }
+
+    @Override
+    public String toString() {
+        return toFileName + " +" + numberOfAddedLines + " -" + numberOfRemovedLines;
+    }
+
+}
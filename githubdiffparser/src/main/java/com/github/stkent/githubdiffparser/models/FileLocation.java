@@ -0,0 +1,65 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser.models;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Identifies a line of a file by the file's name and the line's number (starting at 1).
+ */
+public final class FileLocation {
+
+    @NotNull
+    private final String fileName;
+
+    private final int lineNumber;
+
+    public FileLocation(@NotNull final String fileName, final int lineNumber) {
+        this.fileName = fileName;
+        this.lineNumber = lineNumber;
+    }
+
+    @NotNull
+    public String getFileName() {
+        return fileName;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        final FileLocation that = (FileLocation) o;
+
+        return lineNumber == that.lineNumber && fileName.equals(that.fileName);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * fileName.hashCode() + lineNumber;
+    }
+
+    @Override
+    public String toString() {
+        return fileName + ":" + lineNumber;
+    }
+
+}
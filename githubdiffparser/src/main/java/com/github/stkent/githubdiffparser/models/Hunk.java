@@ -32,9 +32,11 @@
  */
 package com.github.stkent.githubdiffparser.models;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.List;
 
 /**
@@ -54,7 +56,30 @@ public class Hunk {
 
     private Range toFileRange;
 
-    private List<Line> lines = new ArrayList<>();
+    private HunkLines lines = new HunkLines(this);
+
+    private boolean truncated;
+
+    /**
+     * The Diff this Hunk was most recently added to, which is notified whenever this Hunk changes.
+     */
+    @Nullable
+    private Diff diff;
+
+    /**
+     * The hunk line number of each line that is present in the "to" file, in order. Built on first use and discarded
+     * whenever the lines change. Hunks whose lines have no content are looked up in their packed line types instead,
+     * so that their lookups do not allocate four bytes per line.
+     */
+    @Nullable
+    private volatile int[] toFileLineIndex;
+
+    /**
+     * The hunk line number of each line that is present in the "from" file, in order. Built on first use and
+     * discarded whenever the lines change.
+     */
+    @Nullable
+    private volatile int[] fromFileLineIndex;
 
     /**
      * The range of line numbers that this Hunk spans in the first file of the Diff.
@@ -75,7 +100,8 @@ public class Hunk {
     }
 
     /**
-     * The lines that are part of this Hunk.
+     * The lines that are part of this Hunk. Lines are stored column-wise, so the returned list creates a {@link Line}
+     * each time an element is read. The list may be modified.
      *
      * @return lines of this Hunk.
      */
@@ -84,7 +110,39 @@ public class Hunk {
     }
 
     protected void setLines(final List<Line> lines) {
-        this.lines = lines;
+        this.lines = new HunkLines(this);
+        this.lines.addAll(lines);
+        onLinesModified();
+    }
+
+    /**
+     * Appends a line to this Hunk without creating a {@link Line} for it.
+     *
+     * @param lineType the type of the line.
+     * @param content  the content of the line. A {@link ContentSlice} is stored without copying its bytes.
+     */
+    public void addLine(@NotNull final Line.LineType lineType, @Nullable final CharSequence content) {
+        lines.add(lineType, content);
+    }
+
+    /**
+     * Appends a line whose content is a range of encoded bytes to this Hunk, without creating a {@link Line} for it.
+     * The buffer is retained and must not be modified while this Hunk is in use.
+     *
+     * @param lineType the type of the line.
+     * @param buffer   the buffer holding the encoded content.
+     * @param offset   the index of the first byte of the content within the buffer.
+     * @param length   the number of bytes of the content.
+     * @param charset  the charset in which the content is encoded; must be ASCII-compatible.
+     */
+    public void addLine(
+            @NotNull final Line.LineType lineType,
+            @NotNull final ByteBuffer buffer,
+            final int offset,
+            final int length,
+            @NotNull final Charset charset) {
+
+        lines.add(lineType, buffer, offset, length, charset);
     }
 
     public void setFromFileRange(Range fromFileRange) {
@@ -93,6 +151,19 @@ public class Hunk {
 
     public void setToFileRange(Range toFileRange) {
         this.toFileRange = toFileRange;
+        notifyDiff();
+    }
+
+    /**
+     * @return true if lines of this Hunk were dropped or cut short because the input exceeded a parse limit, so that
+     *         its lines do not cover its ranges.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(final boolean truncated) {
+        this.truncated = truncated;
     }
 
     /**
@@ -108,6 +179,9 @@ public class Hunk {
 
     /**
      * NOTE: result is based on the first line being labelled line number 1, not line number 0!
+     *
+     * @return the hunk line number, or null if the line is outside of the "to" range, or has been dropped from a
+     *         {@link #isTruncated() truncated} Hunk.
      */
     @Nullable
     public Integer getHunkLineNumberForToFileLineNumber(final int toFileLineNumber) {
@@ -115,26 +189,165 @@ public class Hunk {
             return null;
         }
         
-        int currentLineNumber = 1;
-        int currentToLineNumber = toFileRange.getLineStart();
-        
-        while (currentLineNumber <= lines.size()) {
+        final int toFileLineOffset = toFileLineNumber - toFileRange.getLineStart();
+
+        if (lines.isWithoutContent()) {
+            final int lineIndex = lines.findLineIndex(toFileLineOffset, Line.LineType.FROM);
+
+            if (lineIndex >= 0) {
+                return lineIndex + 1;
+            }
+        } else {
+            final int[] hunkLineNumbers = getToFileLineIndex();
+
+            if (toFileLineOffset < hunkLineNumbers.length) {
+                return hunkLineNumbers[toFileLineOffset];
+            }
+        }
+
+        if (truncated) {
+            return null;
+        }
+
+        throw new IllegalStateException("This code path should never be exercised.");
+    }
+
+    /**
+     * Finds the type and the "from" and "to" file line numbers of a line of this Hunk in O(log n) time, using indexes
+     * that are built on first use. If the lines of this Hunk have no content, they are counted in their packed types
+     * instead.
+     *
+     * NOTE: hunk line numbers are based on the first line being labelled line number 1, not line number 0!
+     *
+     * @return the location of the line, or null if this Hunk has no line with the given number.
+     */
+    @Nullable
+    public LineLocation getLineLocationForHunkLineNumber(final int hunkLineNumber) {
+        if (hunkLineNumber < 1 || hunkLineNumber > lines.size()) {
+            return null;
+        }
+
+        final Line.LineType lineType = lines.getLineType(hunkLineNumber - 1);
+        Integer fromFileLineNumber = null;
+        Integer toFileLineNumber = null;
+
+        if (lineType != Line.LineType.TO && fromFileRange != null) {
+            fromFileLineNumber = fromFileRange.getLineStart() + countLinesBefore(hunkLineNumber, Line.LineType.TO);
+        }
+
+        if (lineType != Line.LineType.FROM && toFileRange != null) {
+            toFileLineNumber = toFileRange.getLineStart() + countLinesBefore(hunkLineNumber, Line.LineType.FROM);
+        }
+
+        return new LineLocation(lineType, fromFileLineNumber, toFileLineNumber);
+    }
+
+    void attachTo(@NotNull final Diff diff) {
+        this.diff = diff;
+    }
+
+    void onLinesModified() {
+        if (toFileLineIndex != null) {
+            toFileLineIndex = null;
+        }
+
+        if (fromFileLineIndex != null) {
+            fromFileLineIndex = null;
+        }
+
+        notifyDiff();
+    }
+
+    private void notifyDiff() {
+        if (diff != null) {
+            diff.onHunksModified();
+        }
+    }
+
+    @NotNull
+    private int[] getToFileLineIndex() {
+        int[] result = toFileLineIndex;
+
+        if (result == null) {
             /*
              * Lines of types "TO" and "NEUTRAL" are both present in the second file.
              * Only lines of type "FROM" are not present in the second file.
              */
-            if (lines.get(currentLineNumber - 1).getLineType() != Line.LineType.FROM) {
-                if (currentToLineNumber == toFileLineNumber) {
-                    return currentLineNumber;
-                }
-                
-                currentToLineNumber += 1;
+            result = buildLineIndex(Line.LineType.FROM);
+            toFileLineIndex = result;
+        }
+
+        return result;
+    }
+
+    @NotNull
+    private int[] getFromFileLineIndex() {
+        int[] result = fromFileLineIndex;
+
+        if (result == null) {
+            result = buildLineIndex(Line.LineType.TO);
+            fromFileLineIndex = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the hunk line numbers of all lines not of the given type, in order.
+     */
+    @NotNull
+    private int[] buildLineIndex(@NotNull final Line.LineType excludedLineType) {
+        final int numberOfLines = lines.size();
+        int numberOfIncludedLines = 0;
+
+        for (int lineIndex = 0; lineIndex < numberOfLines; lineIndex++) {
+            if (lines.getLineType(lineIndex) != excludedLineType) {
+                numberOfIncludedLines++;
             }
-            
-            currentLineNumber++;
         }
 
-        throw new IllegalStateException("This code path should never be exercised.");
+        final int[] result = new int[numberOfIncludedLines];
+        int includedLineIndex = 0;
+
+        for (int lineIndex = 0; lineIndex < numberOfLines; lineIndex++) {
+            if (lines.getLineType(lineIndex) != excludedLineType) {
+                result[includedLineIndex++] = lineIndex + 1;
+            }
+        }
+
+        return result;
     }
-    
+
+    /**
+     * @return the number of lines before the given hunk line number that are not of the given type.
+     */
+    private int countLinesBefore(final int hunkLineNumber, @NotNull final Line.LineType excludedLineType) {
+        if (lines.isWithoutContent()) {
+            return lines.countLinesBefore(hunkLineNumber - 1, excludedLineType);
+        }
+
+        final int[] lineIndex = excludedLineType == Line.LineType.FROM ? getToFileLineIndex() : getFromFileLineIndex();
+        return countLinesBefore(lineIndex, hunkLineNumber);
+    }
+
+    /**
+     * @return the number of entries of the given line index that are smaller than the given hunk line number.
+     */
+    private static int countLinesBefore(@NotNull final int[] lineIndex, final int hunkLineNumber) {
+        int low = 0;
+        int high = lineIndex.length;
+
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+
+            if (lineIndex[middle] < hunkLineNumber) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
 }
@@ -0,0 +1,502 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser.models;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * Column-oriented storage for the lines of a {@link Hunk}: two bits per line type, packed into longs, an offset and a
+ * length per line, and a single content buffer shared by all lines. {@link Line} objects are only created when an
+ * element of this list is read. Offsets and lengths are only allocated once a line with content is stored, so a Hunk
+ * whose lines have no content (as parsed by {@code GitHubDiffParser.parsePositions}) costs two bits per line.
+ * 
+ * The content buffer is either a byte buffer or a char buffer:
+ * <ul>
+ *     <li>Lines whose content is a {@link ContentSlice} of the same buffer (as produced by the byte-level parsers) are
+ *     stored as offsets into that buffer, without copying.</li>
+ *     <li>Lines with byte content from several buffers are copied into a byte array owned by this list.</li>
+ *     <li>Lines with any other content are stored in a char buffer owned by this list; if byte content has been stored
+ *     before, it is decoded into the char buffer once.</li>
+ * </ul>
+ * 
+ * All {@link java.util.List} operations are supported. Removing or replacing lines leaves their old content in the
+ * buffer until the Hunk is discarded.
+ */
+class HunkLines extends AbstractList<Line> {
+
+    private static final Line.LineType[] LINE_TYPES = Line.LineType.values();
+
+    private static final int LINE_TYPE_BITS = 2;
+
+    private static final int LINE_TYPES_PER_WORD = Long.SIZE / LINE_TYPE_BITS;
+
+    private static final long LINE_TYPE_MASK = (1L << LINE_TYPE_BITS) - 1;
+
+    private static final int NO_LINE_TYPE = (int) LINE_TYPE_MASK;
+
+    /**
+     * The low bit of every line type in a word.
+     */
+    private static final long LOW_BITS = 0x5555555555555555L;
+
+    private static final int NO_CONTENT = -1;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    @NotNull
+    private final Hunk hunk;
+
+    /**
+     * The type of line i is stored in bits {@code 2 * (i % 32)} and {@code 2 * (i % 32) + 1} of word {@code i / 32}, as
+     * the ordinal of the type or {@link #NO_LINE_TYPE}.
+     */
+    private long[] lineTypes = new long[1];
+
+    /**
+     * Null until the first line with content is stored.
+     */
+    @Nullable
+    private int[] contentOffsets;
+
+    /**
+     * Lengths in bytes or chars, depending on the content buffer in use; {@link #NO_CONTENT} for null content. Null
+     * until the first line with content is stored.
+     */
+    @Nullable
+    private int[] contentLengths;
+
+    private int size = 0;
+
+    /**
+     * Holds byte content, if any. Either a buffer shared with the parser input or a wrapper of {@link #ownedBytes}.
+     */
+    @Nullable
+    private ByteBuffer byteContent;
+
+    @Nullable
+    private Charset charset;
+
+    /**
+     * Non-null once byte content from more than one buffer has been stored.
+     */
+    @Nullable
+    private byte[] ownedBytes;
+
+    private int ownedBytesLength;
+
+    /**
+     * Non-null once content other than byte content in a single charset has been stored; {@link #byteContent} is null
+     * from then on.
+     */
+    @Nullable
+    private StringBuilder charContent;
+
+    /*
+     * Offset and length of the content stored by the most recent call to storeContent.
+     */
+    private int storedOffset;
+
+    private int storedLength;
+
+    HunkLines(@NotNull final Hunk hunk) {
+        this.hunk = hunk;
+    }
+
+    @Override
+    public Line get(final int index) {
+        checkIndex(index, size);
+        return new Line(getLineType(index), getContent(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Line set(final int index, final Line line) {
+        checkIndex(index, size);
+        final Line previousLine = get(index);
+        storeContent(line.getContentSequence());
+        setLineTypeCode(index, encode(line.getLineType()));
+        setStoredContent(index);
+        hunk.onLinesModified();
+        return previousLine;
+    }
+
+    @Override
+    public void add(final int index, final Line line) {
+        checkIndex(index, size + 1);
+        storeContent(line.getContentSequence());
+        insert(index, encode(line.getLineType()));
+    }
+
+    @Override
+    public Line remove(final int index) {
+        checkIndex(index, size);
+        final Line removedLine = get(index);
+        for (int i = index; i < size - 1; i++) {
+            setLineTypeCode(i, getLineTypeCode(i + 1));
+        }
+
+        if (contentLengths != null) {
+            final int numberOfLinesToMove = size - index - 1;
+            //noinspection ConstantConditions
+            System.arraycopy(contentOffsets, index + 1, contentOffsets, index, numberOfLinesToMove);
+            System.arraycopy(contentLengths, index + 1, contentLengths, index, numberOfLinesToMove);
+        }
+
+        size--;
+        modCount++;
+        hunk.onLinesModified();
+        return removedLine;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        contentOffsets = null;
+        contentLengths = null;
+        byteContent = null;
+        charset = null;
+        ownedBytes = null;
+        ownedBytesLength = 0;
+        charContent = null;
+        modCount++;
+        hunk.onLinesModified();
+    }
+
+    /**
+     * Appends a line without creating a {@link Line} for it.
+     */
+    void add(@Nullable final Line.LineType lineType, @Nullable final CharSequence content) {
+        storeContent(content);
+        insert(size, encode(lineType));
+    }
+
+    /**
+     * Appends a line whose content is the given range of encoded bytes, without creating a {@link Line} or
+     * {@link ContentSlice} for it. The buffer is retained and must not be modified afterwards.
+     */
+    void add(
+            @Nullable final Line.LineType lineType,
+            @NotNull final ByteBuffer buffer,
+            final int offset,
+            final int length,
+            @NotNull final Charset charset) {
+
+        storeBytes(buffer, offset, length, charset);
+        insert(size, encode(lineType));
+    }
+
+    @Nullable
+    Line.LineType getLineType(final int index) {
+        final int lineTypeCode = getLineTypeCode(index);
+        return lineTypeCode == NO_LINE_TYPE ? null : LINE_TYPES[lineTypeCode];
+    }
+
+    /**
+     * @return true if no line with content has been stored since this list was created or cleared.
+     */
+    boolean isWithoutContent() {
+        return contentLengths == null;
+    }
+
+    /**
+     * Counts the lines before the given index that are not of the given type, straight from the packed line types: 32
+     * lines are counted at a time.
+     */
+    int countLinesBefore(final int index, @NotNull final Line.LineType excludedLineType) {
+        final long excludedLineTypes = LOW_BITS * excludedLineType.ordinal();
+        final int numberOfFullWords = index / LINE_TYPES_PER_WORD;
+        int numberOfExcludedLines = 0;
+
+        for (int wordIndex = 0; wordIndex < numberOfFullWords; wordIndex++) {
+            numberOfExcludedLines += countMatches(lineTypes[wordIndex], excludedLineTypes, LOW_BITS);
+        }
+
+        final int numberOfRemainingLines = index % LINE_TYPES_PER_WORD;
+
+        if (numberOfRemainingLines > 0) {
+            final long remainingLowBits = LOW_BITS >>> (Long.SIZE - numberOfRemainingLines * LINE_TYPE_BITS);
+            numberOfExcludedLines += countMatches(lineTypes[numberOfFullWords], excludedLineTypes, remainingLowBits);
+        }
+
+        return index - numberOfExcludedLines;
+    }
+
+    /**
+     * Finds a line by its position among the lines that are not of the given type, straight from the packed line
+     * types: whole words of 32 lines are skipped by counting them.
+     *
+     * @param rank the zero-based position of the line among the lines not of the given type.
+     * @return the index of the line, or -1 if there are not enough lines.
+     */
+    int findLineIndex(final int rank, @NotNull final Line.LineType excludedLineType) {
+        final long excludedLineTypes = LOW_BITS * excludedLineType.ordinal();
+        final int numberOfWords = (size + LINE_TYPES_PER_WORD - 1) / LINE_TYPES_PER_WORD;
+        int remainingRank = rank;
+
+        for (int wordIndex = 0; wordIndex < numberOfWords; wordIndex++) {
+            final int firstIndex = wordIndex * LINE_TYPES_PER_WORD;
+            final int numberOfLines = Math.min(LINE_TYPES_PER_WORD, size - firstIndex);
+            final long lowBits = LOW_BITS >>> (Long.SIZE - numberOfLines * LINE_TYPE_BITS);
+            final int numberOfIncludedLines
+                    = numberOfLines - countMatches(lineTypes[wordIndex], excludedLineTypes, lowBits);
+
+            if (remainingRank >= numberOfIncludedLines) {
+                remainingRank -= numberOfIncludedLines;
+                continue;
+            }
+
+            for (int index = firstIndex; ; index++) {
+                if (getLineTypeCode(index) != excludedLineType.ordinal() && remainingRank-- == 0) {
+                    return index;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @param lowBits the low bits of the line types to compare.
+     * @return the number of line types in the given word that are equal to those in the other word.
+     */
+    private static int countMatches(final long word, final long otherWord, final long lowBits) {
+        final long differences = word ^ otherWord;
+        return Long.bitCount(~(differences | (differences >>> 1)) & lowBits);
+    }
+
+    private int getLineTypeCode(final int index) {
+        final int shift = (index % LINE_TYPES_PER_WORD) * LINE_TYPE_BITS;
+        return (int) ((lineTypes[index / LINE_TYPES_PER_WORD] >>> shift) & LINE_TYPE_MASK);
+    }
+
+    private void setLineTypeCode(final int index, final int lineTypeCode) {
+        final int wordIndex = index / LINE_TYPES_PER_WORD;
+        final int shift = (index % LINE_TYPES_PER_WORD) * LINE_TYPE_BITS;
+        lineTypes[wordIndex] = (lineTypes[wordIndex] & ~(LINE_TYPE_MASK << shift)) | ((long) lineTypeCode << shift);
+    }
+
+    @Nullable
+    private CharSequence getContent(final int index) {
+        if (contentLengths == null) {
+            return null;
+        }
+
+        //noinspection ConstantConditions
+        final int offset = contentOffsets[index];
+        final int length = contentLengths[index];
+
+        if (length == NO_CONTENT) {
+            return null;
+        } else if (byteContent != null) {
+            //noinspection ConstantConditions
+            return new ContentSlice(byteContent, offset, length, charset);
+        } else {
+            //noinspection ConstantConditions
+            return charContent.substring(offset, offset + length);
+        }
+    }
+
+    private void insert(final int index, final int lineTypeCode) {
+        if (size == lineTypes.length * LINE_TYPES_PER_WORD) {
+            lineTypes = Arrays.copyOf(lineTypes, lineTypes.length * 2);
+        }
+
+        for (int i = size; i > index; i--) {
+            setLineTypeCode(i, getLineTypeCode(i - 1));
+        }
+
+        setLineTypeCode(index, lineTypeCode);
+
+        if (contentLengths != null || storedLength != NO_CONTENT) {
+            ensureContentCapacity(size + 1);
+            final int numberOfLinesToMove = size - index;
+            //noinspection ConstantConditions
+            System.arraycopy(contentOffsets, index, contentOffsets, index + 1, numberOfLinesToMove);
+            System.arraycopy(contentLengths, index, contentLengths, index + 1, numberOfLinesToMove);
+            contentOffsets[index] = storedOffset;
+            contentLengths[index] = storedLength;
+        }
+
+        size++;
+        modCount++;
+        hunk.onLinesModified();
+    }
+
+    /**
+     * Records the content stored by the most recent call to storeContent as that of the line at the given index.
+     */
+    private void setStoredContent(final int index) {
+        if (contentLengths != null || storedLength != NO_CONTENT) {
+            ensureContentCapacity(size);
+            //noinspection ConstantConditions
+            contentOffsets[index] = storedOffset;
+            contentLengths[index] = storedLength;
+        }
+    }
+
+    /**
+     * Makes the offsets and lengths hold at least the given number of lines, allocating them on first use with all
+     * lines stored so far marked as having no content.
+     */
+    private void ensureContentCapacity(final int minCapacity) {
+        if (contentLengths == null) {
+            final int capacity = Math.max(INITIAL_CAPACITY, minCapacity);
+            contentOffsets = new int[capacity];
+            contentLengths = new int[capacity];
+            Arrays.fill(contentLengths, NO_CONTENT);
+        } else if (minCapacity > contentLengths.length) {
+            final int capacity = Math.max(contentLengths.length * 2, minCapacity);
+            //noinspection ConstantConditions
+            contentOffsets = Arrays.copyOf(contentOffsets, capacity);
+            contentLengths = Arrays.copyOf(contentLengths, capacity);
+        }
+    }
+
+    private void storeContent(@Nullable final CharSequence content) {
+        if (content == null) {
+            storedOffset = 0;
+            storedLength = NO_CONTENT;
+        } else if (content instanceof ContentSlice) {
+            final ContentSlice slice = (ContentSlice) content;
+            storeBytes(slice.getBuffer(), slice.getOffset(), slice.getByteLength(), slice.getCharset());
+        } else {
+            storeChars(content);
+        }
+    }
+
+    private void storeBytes(
+            @NotNull final ByteBuffer buffer,
+            final int offset,
+            final int length,
+            @NotNull final Charset charset) {
+
+        if (charContent == null && byteContent == null) {
+            byteContent = buffer;
+            this.charset = charset;
+        }
+
+        if (charContent != null || !charset.equals(this.charset)) {
+            storeChars(new ContentSlice(buffer, offset, length, charset).toString());
+        } else if (buffer == byteContent) {
+            storedOffset = offset;
+            storedLength = length;
+        } else {
+            if (ownedBytes == null) {
+                copyContentIntoOwnedBytes();
+            }
+
+            storedOffset = appendOwnedBytes(buffer, offset, length);
+            storedLength = length;
+        }
+    }
+
+    private void storeChars(@NotNull final CharSequence content) {
+        if (charContent == null) {
+            copyContentIntoChars();
+        }
+
+        //noinspection ConstantConditions
+        storedOffset = charContent.length();
+        storedLength = content.length();
+        charContent.append(content);
+    }
+
+    /**
+     * Moves all byte content stored so far into a byte array owned by this list, so that content from other buffers
+     * can be appended to it.
+     */
+    private void copyContentIntoOwnedBytes() {
+        final ByteBuffer sharedContent = byteContent;
+        ownedBytes = new byte[INITIAL_CAPACITY];
+        ownedBytesLength = 0;
+        byteContent = ByteBuffer.wrap(ownedBytes);
+
+        for (int i = 0; i < size; i++) {
+            if (hasContent(i)) {
+                //noinspection ConstantConditions
+                contentOffsets[i] = appendOwnedBytes(sharedContent, contentOffsets[i], contentLengths[i]);
+            }
+        }
+    }
+
+    private int appendOwnedBytes(@NotNull final ByteBuffer buffer, final int offset, final int length) {
+        //noinspection ConstantConditions
+        if (ownedBytesLength + length > ownedBytes.length) {
+            ownedBytes = Arrays.copyOf(ownedBytes, Math.max(ownedBytes.length * 2, ownedBytesLength + length));
+            byteContent = ByteBuffer.wrap(ownedBytes);
+        }
+
+        final int ownedOffset = ownedBytesLength;
+
+        for (int i = 0; i < length; i++) {
+            ownedBytes[ownedOffset + i] = buffer.get(offset + i);
+        }
+
+        ownedBytesLength += length;
+        return ownedOffset;
+    }
+
+    /**
+     * Decodes all byte content stored so far into a char buffer owned by this list.
+     */
+    private void copyContentIntoChars() {
+        charContent = new StringBuilder();
+
+        if (byteContent != null) {
+            for (int i = 0; i < size; i++) {
+                if (hasContent(i)) {
+                    //noinspection ConstantConditions
+                    final String content =
+                            new ContentSlice(byteContent, contentOffsets[i], contentLengths[i], charset).toString();
+                    contentOffsets[i] = charContent.length();
+                    contentLengths[i] = content.length();
+                    charContent.append(content);
+                }
+            }
+        }
+
+        byteContent = null;
+        charset = null;
+        ownedBytes = null;
+        ownedBytesLength = 0;
+    }
+
+    private boolean hasContent(final int index) {
+        return contentLengths != null && contentLengths[index] != NO_CONTENT;
+    }
+
+    private static int encode(@Nullable final Line.LineType lineType) {
+        return lineType == null ? NO_LINE_TYPE : lineType.ordinal();
+    }
+
+    private void checkIndex(final int index, final int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser.models;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Summarizes a {@link Hunk} by its ranges and the number of lines it adds and removes, without holding its lines.
+ */
+public final class HunkStat {
+
+    @Nullable
+    private final Range fromFileRange;
+
+    @Nullable
+    private final Range toFileRange;
+
+    private final int numberOfAddedLines;
+
+    private final int numberOfRemovedLines;
+
+    public HunkStat(
+            @Nullable final Range fromFileRange,
+            @Nullable final Range toFileRange,
+            final int numberOfAddedLines,
+            final int numberOfRemovedLines) {
+
+        this.fromFileRange = fromFileRange;
+        this.toFileRange = toFileRange;
+        this.numberOfAddedLines = numberOfAddedLines;
+        this.numberOfRemovedLines = numberOfRemovedLines;
+    }
+
+    @Nullable
+    public Range getFromFileRange() {
+        return fromFileRange;
+    }
+
+    @Nullable
+    public Range getToFileRange() {
+        return toFileRange;
+    }
+
+    /**
+     * @return the number of lines of type {@link Line.LineType#TO}.
+     */
+    public int getNumberOfAddedLines() {
+        return numberOfAddedLines;
+    }
+
+    /**
+     * @return the number of lines of type {@link Line.LineType#FROM}.
+     */
+    public int getNumberOfRemovedLines() {
+        return numberOfRemovedLines;
+    }
+
+    @Override
+    public String toString() {
+        return "+" + numberOfAddedLines + " -" + numberOfRemovedLines;
+    }
+
+}
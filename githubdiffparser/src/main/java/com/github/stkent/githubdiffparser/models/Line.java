@@ -65,13 +65,23 @@ public class Line {
 
     private final LineType lineType;
 
-    private final String content;
+    private final CharSequence content;
 
     public Line(LineType lineType, String content) {
         this.lineType = lineType;
         this.content = content;
     }
 
+    /**
+     * Creates a line whose content is only turned into a String when {@link #getContent()} is called, e.g. a
+     * {@link ContentSlice} of the buffer the diff was parsed from. Package-private so that {@code new Line(type, null)}
+     * keeps resolving to the public constructor.
+     */
+    Line(LineType lineType, CharSequence content) {
+        this.lineType = lineType;
+        this.content = content;
+    }
+
     /**
      * The type of this line.
      *
@@ -82,11 +92,21 @@ public class Line {
     }
 
     /**
-     * The actual content of the line as String.
+     * The actual content of the line as String. Lines parsed from bytes decode their content anew on each call, so
+     * callers that need the content repeatedly should keep the result.
      *
      * @return the actual line content.
      */
     public String getContent() {
+        return content != null ? content.toString() : null;
+    }
+
+    /**
+     * The actual content of the line, without forcing it into a String.
+     *
+     * @return the actual line content.
+     */
+    public CharSequence getContentSequence() {
         return content;
     }
     
@@ -100,12 +120,15 @@ public class Line {
         final Line line = (Line) o;
 
         if (lineType != line.lineType) return false;
-        return content != null ? content.equals(line.content) : line.content == null;
+        final String content = getContent();
+        final String otherContent = line.getContent();
+        return content != null ? content.equals(otherContent) : otherContent == null;
 
     }
 
     @Override
     public int hashCode() {
+        final String content = getContent();
         int result = lineType != null ? lineType.hashCode() : 0;
         result = 31 * result + (content != null ? content.hashCode() : 0);
         return result;
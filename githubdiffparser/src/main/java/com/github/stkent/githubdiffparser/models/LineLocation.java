@@ -0,0 +1,92 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser.models;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Describes where a line of a Diff lies in the compared files: its type, and its line numbers in the "from" and "to"
+ * files. A line that is not present in one of the files has no line number in that file.
+ */
+public final class LineLocation {
+
+    @Nullable
+    private final Line.LineType lineType;
+
+    @Nullable
+    private final Integer fromFileLineNumber;
+
+    @Nullable
+    private final Integer toFileLineNumber;
+
+    public LineLocation(
+            @Nullable final Line.LineType lineType,
+            @Nullable final Integer fromFileLineNumber,
+            @Nullable final Integer toFileLineNumber) {
+
+        this.lineType = lineType;
+        this.fromFileLineNumber = fromFileLineNumber;
+        this.toFileLineNumber = toFileLineNumber;
+    }
+
+    @Nullable
+    public Line.LineType getLineType() {
+        return lineType;
+    }
+
+    /**
+     * @return the number of the line in the "from" file, or null for a line of type {@link Line.LineType#TO}.
+     */
+    @Nullable
+    public Integer getFromFileLineNumber() {
+        return fromFileLineNumber;
+    }
+
+    /**
+     * @return the number of the line in the "to" file, or null for a line of type {@link Line.LineType#FROM}.
+     */
+    @Nullable
+    public Integer getToFileLineNumber() {
+        return toFileLineNumber;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        final LineLocation that = (LineLocation) o;
+
+        if (lineType != that.lineType) return false;
+        if (fromFileLineNumber != null ? !fromFileLineNumber.equals(that.fromFileLineNumber) : that.fromFileLineNumber != null) return false;
+        return toFileLineNumber != null ? toFileLineNumber.equals(that.toFileLineNumber) : that.toFileLineNumber == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = lineType != null ? lineType.hashCode() : 0;
+        result = 31 * result + (fromFileLineNumber != null ? fromFileLineNumber.hashCode() : 0);
+        result = 31 * result + (toFileLineNumber != null ? toFileLineNumber.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return lineType + " (from: " + fromFileLineNumber + ", to: " + toFileLineNumber + ")";
+    }
+
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+public class AsyncDiffParserTest {
+
+    private static final String DIFF = ""
+            + "diff --git a/first.txt b/first.txt\n"
+            + "--- a/first.txt\n"
+            + "+++ b/first.txt\n"
+            + "@@ -1 +1 @@\n"
+            + "-old\n"
+            + "+new\n";
+
+    @Test
+    public void testParseAsync_ShouldMatchParse() throws Exception {
+        // given
+        byte[] bytes = TestUtils.readResource("github.diff");
+        GitHubDiffParser parser = new GitHubDiffParser();
+
+        try (AsyncDiffParser asyncParser = new AsyncDiffParser(parser)) {
+            // when
+            List<Diff> actual = asyncParser.parseAsync(new ByteArrayInputStream(bytes)).get(10, TimeUnit.SECONDS);
+
+            // then
+            TestUtils.assertSameDiffs(parser.parse(bytes), actual);
+        }
+    }
+
+    @Test
+    public void testParseAll_ShouldKeepOrderAndLimitConcurrency() throws Exception {
+        // given
+        final AtomicInteger numberOfOpenInputs = new AtomicInteger();
+        final AtomicInteger maxNumberOfOpenInputs = new AtomicInteger();
+        List<AsyncDiffParser.Source> sources = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            final String diff = DIFF.replace("first", "file" + i);
+
+            sources.add(() -> {
+                maxNumberOfOpenInputs.accumulateAndGet(numberOfOpenInputs.incrementAndGet(), Math::max);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+
+                return new ByteArrayInputStream(diff.getBytes(StandardCharsets.US_ASCII)) {
+                    @Override
+                    public void close() {
+                        numberOfOpenInputs.decrementAndGet();
+                    }
+                };
+            });
+        }
+
+        try (AsyncDiffParser asyncParser = new AsyncDiffParser(new GitHubDiffParser(), 3)) {
+            // when
+            List<List<Diff>> diffs = asyncParser.parseAll(sources).get(10, TimeUnit.SECONDS);
+
+            // then
+            Assert.assertEquals(20, diffs.size());
+
+            for (int i = 0; i < 20; i++) {
+                Assert.assertEquals("file" + i + ".txt", diffs.get(i).get(0).getToFileName());
+            }
+
+            Assert.assertTrue(maxNumberOfOpenInputs.get() <= 3);
+            Assert.assertEquals(0, numberOfOpenInputs.get());
+        }
+    }
+
+    @Test
+    public void testParseAll_WhenOneSourceFails_ShouldFailWithItsError() throws Exception {
+        // given
+        List<AsyncDiffParser.Source> sources = Arrays.asList(
+                () -> new ByteArrayInputStream(DIFF.getBytes(StandardCharsets.US_ASCII)),
+                () -> {
+                    throw new FileNotFoundException("missing.diff");
+                });
+
+        try (AsyncDiffParser asyncParser = new AsyncDiffParser(new GitHubDiffParser())) {
+            // when
+            try {
+                asyncParser.parseAll(sources).get(10, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                // then
+                Assert.assertTrue(e.getCause() instanceof FileNotFoundException);
+            }
+        }
+    }
+
+    @Test
+    public void testParseAsync_WithCallerRunsExecutorAndLargeBacklog_ShouldNotRecurse() throws Exception {
+        // given
+        final List<Runnable> deferredTasks = new ArrayList<>();
+        Executor executor = task -> {
+            if (deferredTasks.isEmpty()) {
+                deferredTasks.add(task);
+            } else {
+                task.run();
+            }
+        };
+
+        List<CompletableFuture<List<Diff>>> futures = new ArrayList<>();
+
+        try (AsyncDiffParser asyncParser = new AsyncDiffParser(new GitHubDiffParser(), executor, 1)) {
+            for (int i = 0; i < 50000; i++) {
+                futures.add(asyncParser.parseAsync(new ByteArrayInputStream(DIFF.getBytes(StandardCharsets.US_ASCII))));
+            }
+
+            // when
+            deferredTasks.get(0).run();
+        }
+
+        // then
+        for (CompletableFuture<List<Diff>> future : futures) {
+            Assert.assertEquals(1, future.get(10, TimeUnit.SECONDS).size());
+        }
+    }
+
+    @Test
+    public void testCancel_ShouldStopReadingAndCloseInput() throws Exception {
+        // given
+        final CountDownLatch firstRead = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        final AtomicInteger numberOfReads = new AtomicInteger();
+        final byte[] line = "+endless\n".getBytes(StandardCharsets.US_ASCII);
+
+        final InputStream endlessDiff = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (numberOfReads.incrementAndGet() == 1) {
+                    byte[] header = DIFF.getBytes(StandardCharsets.US_ASCII);
+                    System.arraycopy(header, 0, b, off, header.length);
+                    firstRead.countDown();
+                    await(cancelled);
+                    return header.length;
+                }
+
+                int count = Math.min(len, line.length);
+                System.arraycopy(line, 0, b, off, count);
+                return count;
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+
+        try (AsyncDiffParser asyncParser = new AsyncDiffParser(new GitHubDiffParser(), 1)) {
+            CompletableFuture<List<Diff>> future = asyncParser.parseAsync(() -> endlessDiff);
+            CompletableFuture<List<Diff>> queued = asyncParser.parseAsync(
+                    new ByteArrayInputStream(DIFF.getBytes(StandardCharsets.US_ASCII)));
+            Assert.assertTrue(firstRead.await(10, TimeUnit.SECONDS));
+
+            // when
+            future.cancel(true);
+            cancelled.countDown();
+
+            // then
+            Assert.assertTrue(closed.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(1, numberOfReads.get());
+            Assert.assertTrue(future.isCancelled());
+            Assert.assertEquals(1, queued.get(10, TimeUnit.SECONDS).size());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
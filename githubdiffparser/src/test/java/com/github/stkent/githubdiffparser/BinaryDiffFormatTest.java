@@ -0,0 +1,182 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import com.github.stkent.githubdiffparser.models.Line;
+import com.github.stkent.githubdiffparser.models.Range;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BinaryDiffFormatTest {
+
+    @Test
+    public void testRead_ShouldReturnWrittenDiffs() throws Exception {
+        // given
+        byte[] fixture = TestUtils.readResource("github.diff");
+        List<Diff> parsedFromBytes = new GitHubDiffParser().parse(fixture);
+        List<Diff> parsedFromStream = new GitHubDiffParser().parse(new ByteArrayInputStream(fixture));
+
+        // when
+        byte[] encodedFromBytes = new BinaryDiffWriter().write(parsedFromBytes);
+        ByteArrayOutputStream encodedFromStream = new ByteArrayOutputStream();
+        new BinaryDiffWriter().write(parsedFromStream, encodedFromStream);
+
+        // then
+        Assert.assertArrayEquals(encodedFromBytes, encodedFromStream.toByteArray());
+        Assert.assertTrue(encodedFromBytes.length < fixture.length);
+        TestUtils.assertSameDiffs(parsedFromBytes, new BinaryDiffReader().read(encodedFromBytes));
+        TestUtils.assertSameDiffs(
+                parsedFromBytes,
+                new BinaryDiffReader().read(new ByteArrayInputStream(encodedFromBytes)));
+    }
+
+    @Test
+    public void testRead_FromDirectBufferWithOffset_ShouldReturnWrittenDiffs() throws Exception {
+        // given
+        List<Diff> diffs = new GitHubDiffParser().parse(TestUtils.readResource("github.diff"));
+        byte[] encoded = new BinaryDiffWriter().write(diffs);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.length + 3);
+        buffer.position(3);
+        buffer.put(encoded);
+        buffer.position(3);
+
+        // when
+        List<Diff> decoded = new BinaryDiffReader().read(buffer);
+
+        // then
+        Assert.assertEquals(3, buffer.position());
+        TestUtils.assertSameDiffs(diffs, decoded);
+    }
+
+    @Test
+    public void testRead_WhenModelHasNullsAndUnicode_ShouldReturnWrittenDiffs() {
+        // given
+        Diff diff = new Diff();
+        diff.setToFileName("caf\u00e9.txt");
+        diff.getHeaderLines().add("header \u2603");
+
+        Hunk withoutRanges = new Hunk();
+        withoutRanges.addLine(null, null);
+        diff.getHunks().add(withoutRanges);
+
+        Hunk withRanges = new Hunk();
+        withRanges.setFromFileRange(new Range(-1, 0));
+        withRanges.setToFileRange(new Range(Integer.MAX_VALUE, Integer.MIN_VALUE));
+        for (int i = 0; i < 9; i++) {
+            withRanges.addLine(Line.LineType.values()[i % 3], i == 4 ? "" : "line \u00fc" + i);
+        }
+        diff.getHunks().add(withRanges);
+
+        // when
+        List<Diff> decoded = new BinaryDiffReader().read(new BinaryDiffWriter().write(Collections.singletonList(diff)));
+
+        // then
+        Assert.assertEquals(1, decoded.size());
+        Diff decodedDiff = decoded.get(0);
+        Assert.assertNull(decodedDiff.getFromFileName());
+        Assert.assertEquals("caf\u00e9.txt", decodedDiff.getToFileName());
+        Assert.assertEquals(diff.getHeaderLines(), decodedDiff.getHeaderLines());
+        Assert.assertNull(decodedDiff.getHunks().get(0).getFromFileRange());
+        Assert.assertNull(decodedDiff.getHunks().get(0).getToFileRange());
+        Assert.assertEquals(withoutRanges.getLines(), decodedDiff.getHunks().get(0).getLines());
+        Hunk decodedWithRanges = decodedDiff.getHunks().get(1);
+        Assert.assertEquals(-1, decodedWithRanges.getFromFileRange().getLineStart());
+        Assert.assertEquals(Integer.MAX_VALUE, decodedWithRanges.getToFileRange().getLineStart());
+        Assert.assertEquals(Integer.MIN_VALUE, decodedWithRanges.getToFileRange().getLineCount());
+        Assert.assertEquals(withRanges.getLines(), decodedWithRanges.getLines());
+    }
+
+    @Test
+    public void testRead_WhenInputIsCorrupt_ShouldThrow() throws Exception {
+        byte[] encoded = new BinaryDiffWriter().write(new GitHubDiffParser().parse(TestUtils.readResource("github.diff")));
+
+        for (byte[] corrupt : Arrays.asList(
+                "not a diff".getBytes(),
+                Arrays.copyOf(encoded, encoded.length - 1),
+                Arrays.copyOf(encoded, encoded.length + 1),
+                encodeOneLineHunk(0xFF, 0xFF, 0xFF, 0xFF, 0x0F),
+                encodeOneLineHunk(0x80, 0x80, 0x80, 0x80, 0x08),
+                encodeOneLineHunk(0x03, 'a'))) {
+
+            try {
+                new BinaryDiffReader().read(corrupt);
+                Assert.fail();
+            } catch (IllegalStateException expected) {
+                // expected
+            }
+        }
+
+        List<Diff> wellFormed = new BinaryDiffReader().read(encodeOneLineHunk(0x02, 'a'));
+        Assert.assertEquals("a", wellFormed.get(0).getHunks().get(0).getLines().get(0).getContent());
+    }
+
+    @Test
+    public void testRead_WithVersion1Encoding_ShouldReturnDiffsWithoutTruncatedFlags() {
+        // given
+        byte[] encoded = encode(
+                BinaryDiffFormat.VERSION_WITHOUT_TRUNCATED_FLAGS, 0, 1, 0, 0, 0, 1, 0, 1, 1, 0x02, 'a');
+
+        // when
+        List<Diff> diffs = new BinaryDiffReader().read(encoded);
+
+        // then
+        Assert.assertEquals(1, diffs.size());
+        Assert.assertFalse(diffs.get(0).isTruncated());
+        Assert.assertFalse(diffs.get(0).getHunks().get(0).isTruncated());
+        Assert.assertEquals("a", diffs.get(0).getHunks().get(0).getLines().get(0).getContent());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRead_WithUnknownVersion_ShouldThrow() {
+        new BinaryDiffReader().read(encode(BinaryDiffFormat.VERSION + 1, 0, 0));
+    }
+
+    /**
+     * @return the encoding of a single Diff without file names or header lines, holding a single Hunk with a single
+     *         "to" line whose encoded content length and content are the given bytes.
+     */
+    private static byte[] encodeOneLineHunk(final int... contentBytes) {
+        int[] header = { BinaryDiffFormat.VERSION, 0, 1, 0, 0, 0, 0, 1, 0, 1, 1 };
+        int[] bytes = Arrays.copyOf(header, header.length + contentBytes.length);
+        System.arraycopy(contentBytes, 0, bytes, header.length, contentBytes.length);
+        return encode(bytes);
+    }
+
+    /**
+     * @return the magic bytes followed by the given bytes, which start with the version.
+     */
+    private static byte[] encode(final int... bytesAfterMagic) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(BinaryDiffFormat.MAGIC, 0, BinaryDiffFormat.MAGIC.length);
+
+        for (int b : bytesAfterMagic) {
+            out.write(b);
+        }
+
+        return out.toByteArray();
+    }
+
+}
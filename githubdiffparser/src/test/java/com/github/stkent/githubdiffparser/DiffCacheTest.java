@@ -0,0 +1,183 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DiffCacheTest {
+
+    @Test
+    public void testParse_WhenInputRepeats_ShouldHitCache() throws Exception {
+        // given
+        byte[] fixture = TestUtils.readResource("github.diff");
+        List<Diff> expectedDiffs = new GitHubDiffParser().parse(fixture);
+        DiffCache cache = new DiffCache(1 << 20);
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setCache(cache);
+
+        // when
+        List<Diff> first = parser.parse(fixture);
+        List<Diff> second = parser.parse(fixture.clone());
+        List<Diff> third = parser.parse(new ByteArrayInputStream(fixture));
+
+        // then
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(1, cache.size());
+        TestUtils.assertSameDiffs(expectedDiffs, first);
+        TestUtils.assertSameDiffs(expectedDiffs, second);
+        TestUtils.assertSameDiffs(expectedDiffs, third);
+    }
+
+    @Test
+    public void testParse_WhenCachedResultIsModified_ShouldNotAffectLaterHits() throws Exception {
+        // given
+        byte[] fixture = TestUtils.readResource("github.diff");
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setCache(new DiffCache(1 << 20));
+        parser.parse(fixture);
+
+        // when
+        List<Diff> hit = parser.parse(fixture);
+        hit.get(0).getHunks().clear();
+        hit.get(0).setToFileName("modified");
+
+        // then
+        TestUtils.assertSameDiffs(new GitHubDiffParser().parse(fixture), parser.parse(fixture));
+    }
+
+    @Test
+    public void testParse_WhenRetainedBytesExceedMaximum_ShouldEvictLeastRecentlyUsed() throws Exception {
+        // given
+        byte[] fixture = TestUtils.readResource("github.diff");
+        byte[][] inputs = new byte[3][];
+
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = (new String(fixture) + "\n" + i).getBytes();
+        }
+
+        int encodedSize = new BinaryDiffWriter().write(new GitHubDiffParser().parse(inputs[0])).length;
+        DiffCache cache = new DiffCache(2 * encodedSize + 1000);
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setCache(cache);
+
+        // when
+        parser.parse(inputs[0]);
+        parser.parse(inputs[1]);
+        parser.parse(inputs[0]);
+        parser.parse(inputs[2]);
+
+        // then
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertEquals(2, cache.size());
+        Assert.assertTrue(cache.getRetainedBytes() <= cache.getMaximumRetainedBytes());
+
+        // when
+        parser.parse(inputs[0]);
+        parser.parse(inputs[1]);
+
+        // then
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void testParse_WhenParsersAreConfiguredDifferently_ShouldNotShareResults() throws Exception {
+        // given
+        byte[] fixture = TestUtils.readResource("github.diff");
+        DiffCache cache = new DiffCache(1 << 20);
+        ParseLimits limits = new ParseLimits();
+        limits.setLimit(ParseLimits.Limit.DIFFS, 1, ParseLimits.Policy.TRUNCATE);
+        GitHubDiffParser plainParser = new GitHubDiffParser();
+        GitHubDiffParser limitedParser = new GitHubDiffParser();
+        GitHubDiffParser filteringParser = new GitHubDiffParser();
+        limitedParser.setLimits(limits);
+        filteringParser.setPathFilter(path -> path.endsWith(".yml"));
+
+        for (GitHubDiffParser parser : new GitHubDiffParser[] { plainParser, limitedParser, filteringParser }) {
+            parser.setCache(cache);
+        }
+
+        // when
+        List<Diff> plainDiffs = plainParser.parse(fixture);
+        List<Diff> limitedDiffs = limitedParser.parse(fixture);
+        List<Diff> filteredDiffs = filteringParser.parse(fixture);
+        limits.setLimit(ParseLimits.Limit.DIFFS, 2, ParseLimits.Policy.TRUNCATE);
+        List<Diff> relimitedDiffs = limitedParser.parse(fixture);
+
+        // then
+        Assert.assertEquals(4, plainDiffs.size());
+        Assert.assertEquals(1, limitedDiffs.size());
+        Assert.assertEquals(1, filteredDiffs.size());
+        Assert.assertEquals(2, relimitedDiffs.size());
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testParse_WhenResultExceedsMaximum_ShouldNotCacheIt() throws Exception {
+        // given
+        DiffCache cache = new DiffCache(10);
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setCache(cache);
+
+        // when
+        parser.parse(TestUtils.readResource("github.diff"));
+
+        // then
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getRetainedBytes());
+    }
+
+    @Test
+    public void testParse_WhenSharedAcrossThreads_ShouldReturnEqualResults() throws Exception {
+        // given
+        byte[] fixture = TestUtils.readResource("github.diff");
+        List<Diff> expectedDiffs = new GitHubDiffParser().parse(fixture);
+        DiffCache cache = new DiffCache(1 << 20);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<Diff>>> results = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            results.add(executor.submit(() -> {
+                GitHubDiffParser parser = new GitHubDiffParser();
+                parser.setCache(cache);
+                return parser.parse(fixture);
+            }));
+        }
+
+        // then
+        for (Future<List<Diff>> result : results) {
+            TestUtils.assertSameDiffs(expectedDiffs, result.get());
+        }
+
+        executor.shutdown();
+        Assert.assertEquals(100, cache.getHitCount() + cache.getMissCount());
+        Assert.assertEquals(1, cache.size());
+    }
+
+}
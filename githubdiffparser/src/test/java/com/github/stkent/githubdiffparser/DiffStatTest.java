@@ -0,0 +1,119 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import com.github.stkent.githubdiffparser.models.DiffStat;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import com.github.stkent.githubdiffparser.models.HunkStat;
+import com.github.stkent.githubdiffparser.models.Line;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class DiffStatTest {
+
+    @Test
+    public void testParseDiffStats_ShouldMatchLinesOfFullParse() throws IOException {
+        // given
+        byte[] bytes = TestUtils.readResource("github.diff");
+        GitHubDiffParser parser = new GitHubDiffParser();
+        List<Diff> diffs = parser.parse(bytes);
+
+        // when
+        List<List<DiffStat>> results = Arrays.asList(
+                parser.parseDiffStats(bytes),
+                parser.parseDiffStats(new ByteArrayInputStream(bytes)));
+
+        for (List<DiffStat> diffStats : results) {
+            // then
+            Assert.assertEquals(diffs.size(), diffStats.size());
+
+            for (int i = 0; i < diffs.size(); i++) {
+                Diff diff = diffs.get(i);
+                DiffStat diffStat = diffStats.get(i);
+                Assert.assertEquals(diff.getFromFileName(), diffStat.getFromFileName());
+                Assert.assertEquals(diff.getToFileName(), diffStat.getToFileName());
+                Assert.assertEquals(diff.getHunks().size(), diffStat.getHunkStats().size());
+
+                int numberOfAddedLines = 0;
+                int numberOfRemovedLines = 0;
+
+                for (int j = 0; j < diff.getHunks().size(); j++) {
+                    Hunk hunk = diff.getHunks().get(j);
+                    HunkStat hunkStat = diffStat.getHunkStats().get(j);
+                    Assert.assertEquals(hunk.getToFileRange().getLineStart(), hunkStat.getToFileRange().getLineStart());
+                    Assert.assertEquals(count(hunk, Line.LineType.TO), hunkStat.getNumberOfAddedLines());
+                    Assert.assertEquals(count(hunk, Line.LineType.FROM), hunkStat.getNumberOfRemovedLines());
+                    numberOfAddedLines += hunkStat.getNumberOfAddedLines();
+                    numberOfRemovedLines += hunkStat.getNumberOfRemovedLines();
+                }
+
+                Assert.assertEquals(numberOfAddedLines, diffStat.getNumberOfAddedLines());
+                Assert.assertEquals(numberOfRemovedLines, diffStat.getNumberOfRemovedLines());
+            }
+        }
+    }
+
+    @Test
+    public void testParseDiffStats_WithHunkLimit_ShouldMarkDiffTruncated() {
+        // given
+        String diff = ""
+                + "diff --git a/a.txt b/a.txt\n"
+                + "--- a/a.txt\n"
+                + "+++ b/a.txt\n"
+                + "@@ -1,2 +1 @@\n"
+                + "-one\n"
+                + "-two\n"
+                + "+three\n"
+                + "@@ -10 +10 @@\n"
+                + "+four\n";
+        ParseLimits limits = new ParseLimits();
+        limits.setLimit(ParseLimits.Limit.HUNKS_PER_DIFF, 1, ParseLimits.Policy.TRUNCATE);
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setLimits(limits);
+
+        // when
+        List<DiffStat> diffStats = parser.parseDiffStats(diff.getBytes(StandardCharsets.US_ASCII));
+
+        // then
+        Assert.assertEquals(1, diffStats.size());
+        Assert.assertEquals("a.txt", diffStats.get(0).getToFileName());
+        Assert.assertEquals(1, diffStats.get(0).getHunkStats().size());
+        Assert.assertEquals(1, diffStats.get(0).getNumberOfAddedLines());
+        Assert.assertEquals(2, diffStats.get(0).getNumberOfRemovedLines());
+        Assert.assertTrue(diffStats.get(0).isTruncated());
+    }
+
+    private static int count(Hunk hunk, Line.LineType lineType) {
+        int count = 0;
+
+        for (Line line : hunk.getLines()) {
+            if (line.getLineType() == lineType) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+}
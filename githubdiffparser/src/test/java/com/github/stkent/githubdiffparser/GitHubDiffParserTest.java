@@ -37,13 +37,24 @@ import com.github.stkent.githubdiffparser.models.Diff;
 import com.github.stkent.githubdiffparser.models.Hunk;
 import com.github.stkent.githubdiffparser.models.Line;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 public class GitHubDiffParserTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testParsingActualDiff() throws Exception {
         // given
@@ -130,5 +141,169 @@ public class GitHubDiffParserTest {
         Diff diff1 = diffs.get(0);
         Assert.assertEquals(1, diff1.getHunks().size());
     }
-    
+
+    @Test
+    public void testParse_WithVisitor_ShouldVisitEachDiffInInputOrder() throws Exception {
+        // given
+        GitHubDiffParser parser = new GitHubDiffParser();
+        InputStream in = getClass().getResourceAsStream("github.diff");
+        final List<String> visitedFileNames = new ArrayList<>();
+
+        // when
+        parser.parse(in, diff -> visitedFileNames.add(diff.getToFileName()));
+
+        // then
+        List<Diff> diffs = parser.parse(getClass().getResourceAsStream("github.diff"));
+        Assert.assertEquals(diffs.size(), visitedFileNames.size());
+
+        for (int i = 0; i < diffs.size(); i++) {
+            Assert.assertEquals(diffs.get(i).getToFileName(), visitedFileNames.get(i));
+        }
+    }
+
+    @Test
+    public void testStream_ShouldOnlyParseAsFarAsNeeded() throws Exception {
+        // given
+        GitHubDiffParser parser = new GitHubDiffParser();
+        String in = ""
+                + "diff --git a/first.txt b/first.txt\n"
+                + "index 6f8e7fa..ab40505 100644\n"
+                + "--- a/first.txt\n"
+                + "+++ b/first.txt\n"
+                + "@@ -10,1 +10,1 @@\n"
+                + "-from\n"
+                + "+to\n"
+                + "diff --git a/second.txt b/second.txt\n"
+                + "index 6f8e7fa..ab40505 100644\n"
+                + "--- a/second.txt\n"
+                + "this line makes the second diff invalid\n";
+
+        // when
+        Optional<Diff> firstDiff = parser.stream(new ByteArrayInputStream(in.getBytes())).findFirst();
+
+        // then
+        Assert.assertTrue(firstDiff.isPresent());
+        Assert.assertEquals("first.txt", firstDiff.get().getToFileName());
+    }
+
+    @Test
+    public void testParseBytes_ShouldMatchParseInputStream() throws Exception {
+        // given
+        GitHubDiffParser parser = new GitHubDiffParser();
+        String in = ""
+                + "diff --git a/.file.txt b/.file.txt\r\n"
+                + "index 6f8e7fa..ab40505 100644\r\n"
+                + "--- a/.file.txt\t2015-12-21 17:53:29.082877088 -0500\r\n"
+                + "+++ b/.file.txt\t2015-12-21 08:41:52.663714666 -0500\r\n"
+                + "@@ -10,3 +10,3 @@ class Foo\r\n"
+                + " unchanged\r"
+                + "-fr\u00f6m\n"
+                + "+t\u00f6\n"
+                + "\\ No newline at end of file\n";
+
+        // when
+        List<Diff> diffsFromStream = parser.parse(new ByteArrayInputStream(in.getBytes()));
+        List<Diff> diffsFromBytes = parser.parse(in.getBytes());
+        List<Diff> diffsFromFixtureStream = parser.parse(getClass().getResourceAsStream("github.diff"));
+        List<Diff> diffsFromFixtureBytes = parser.parse(TestUtils.readResource("github.diff"));
+
+        // then
+        TestUtils.assertSameDiffs(diffsFromStream, diffsFromBytes);
+        TestUtils.assertSameDiffs(diffsFromFixtureStream, diffsFromFixtureBytes);
+        Assert.assertEquals(".file.txt", diffsFromBytes.get(0).getToFileName());
+        Assert.assertEquals(4, diffsFromBytes.get(0).getHunks().get(0).getLines().size());
+    }
+
+    @Test
+    public void testParseFile_ShouldMatchParseInputStreamForAnyWindowSize() throws Exception {
+        // given
+        GitHubDiffParser parser = new GitHubDiffParser();
+        byte[] fixture = new String(TestUtils.readResource("github.diff")).replace("\n", "\r\n").getBytes();
+        File file = temporaryFolder.newFile("github.diff");
+        Files.write(file.toPath(), fixture);
+        List<Diff> expectedDiffs = parser.parse(new ByteArrayInputStream(fixture));
+
+        for (int windowSize : new int[] { 1, 7, 64, 1000, fixture.length, Integer.MAX_VALUE }) {
+            // when
+            List<Diff> diffs = new ArrayList<>();
+            parser.parse(file, windowSize, diffs::add);
+
+            // then
+            TestUtils.assertSameDiffs(expectedDiffs, diffs);
+        }
+
+        TestUtils.assertSameDiffs(expectedDiffs, parser.parse(file));
+    }
+
+    @Test
+    public void testParseFile_WhenFileIsOverwrittenAfterwards_ShouldKeepParsedContent() throws Exception {
+        // given
+        byte[] fixture = TestUtils.readResource("github.diff");
+        byte[] overwrite = new byte[fixture.length];
+        Arrays.fill(overwrite, (byte) 'x');
+        File file = temporaryFolder.newFile("github.diff");
+        List<Diff> expectedDiffs = new GitHubDiffParser().parse(fixture);
+
+        GitHubDiffParser cachingParser = new GitHubDiffParser();
+        cachingParser.setCache(new DiffCache(1 << 20));
+
+        for (GitHubDiffParser parser : Arrays.asList(new GitHubDiffParser(), cachingParser)) {
+            Files.write(file.toPath(), fixture);
+
+            // when
+            List<Diff> diffs = new ArrayList<>();
+            parser.parse(file, 64, diffs::add);
+            List<Diff> wholeFileDiffs = parser.parse(file);
+            List<Diff> parallelDiffs = parser.parseParallel(file);
+            Files.write(file.toPath(), overwrite);
+
+            // then
+            TestUtils.assertSameDiffs(expectedDiffs, diffs);
+            TestUtils.assertSameDiffs(expectedDiffs, wholeFileDiffs);
+            TestUtils.assertSameDiffs(expectedDiffs, parallelDiffs);
+        }
+    }
+
+    @Test
+    public void testParsePositions_ShouldMatchPositionsOfParse() throws Exception {
+        // given
+        GitHubDiffParser parser = new GitHubDiffParser();
+        byte[] fixture = TestUtils.readResource("github.diff");
+        List<Diff> expectedDiffs = parser.parse(fixture);
+
+        // when
+        List<Diff> diffsFromBytes = parser.parsePositions(fixture);
+        List<Diff> diffsFromStream = parser.parsePositions(new ByteArrayInputStream(fixture));
+
+        // then
+        for (List<Diff> diffs : Arrays.asList(diffsFromBytes, diffsFromStream)) {
+            Assert.assertEquals(expectedDiffs.size(), diffs.size());
+
+            for (int i = 0; i < diffs.size(); i++) {
+                Diff expectedDiff = expectedDiffs.get(i);
+                Diff diff = diffs.get(i);
+                Assert.assertEquals(expectedDiff.getToFileName(), diff.getToFileName());
+                Assert.assertEquals(expectedDiff.getHeaderLines(), diff.getHeaderLines());
+
+                for (int toFileLineNumber = 1; toFileLineNumber < 100; toFileLineNumber++) {
+                    Assert.assertEquals(
+                            expectedDiff.getDiffLineNumberForToFileLocation(diff.getToFileName(), toFileLineNumber),
+                            diff.getDiffLineNumberForToFileLocation(diff.getToFileName(), toFileLineNumber));
+                }
+
+                for (int diffLineNumber = 1; diffLineNumber < 100; diffLineNumber++) {
+                    Assert.assertEquals(
+                            expectedDiff.getLineLocationForDiffLineNumber(diffLineNumber),
+                            diff.getLineLocationForDiffLineNumber(diffLineNumber));
+                }
+
+                for (Hunk hunk : diff.getHunks()) {
+                    for (Line line : hunk.getLines()) {
+                        Assert.assertNull(line.getContent());
+                    }
+                }
+            }
+        }
+    }
+
 }
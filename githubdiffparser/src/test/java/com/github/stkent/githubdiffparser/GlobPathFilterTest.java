@@ -0,0 +1,210 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class GlobPathFilterTest {
+
+    private static final String RENAME_DIFF = ""
+            + "diff --git a/src/old.gradle b/src/new.txt\n"
+            + "similarity index 90%\n"
+            + "rename from src/old.gradle\n"
+            + "rename to src/new.txt\n"
+            + "--- a/src/old.gradle\n"
+            + "+++ b/src/new.txt\n"
+            + "@@ -1 +1 @@\n"
+            + "-old\n"
+            + "+new\n"
+            + "diff --git a/src/new.gradle b/src/old.txt\n"
+            + "similarity index 90%\n"
+            + "rename from src/new.gradle\n"
+            + "rename to src/old.txt\n"
+            + "--- a/src/new.gradle\n"
+            + "+++ b/src/old.txt\n"
+            + "@@ -1 +1 @@\n"
+            + "-old\n"
+            + "+new\n"
+            + "diff --git a/gone.gradle b/gone.gradle\n"
+            + "deleted file mode 100644\n"
+            + "--- a/gone.gradle\n"
+            + "+++ /dev/null\n"
+            + "@@ -1 +0,0 @@\n"
+            + "-gone\n";
+
+    @Test
+    public void testTest_ShouldMatchGlobsLikeGitignore() {
+        // given
+        GlobPathFilter filter = new GlobPathFilter("*.lock", "/build/", "docs/**/*.md", "gen?");
+
+        // then
+        Assert.assertFalse(filter.test("yarn.lock"));
+        Assert.assertFalse(filter.test("app/yarn.lock"));
+        Assert.assertFalse(filter.test("build/out.txt"));
+        Assert.assertTrue(filter.test("app/build/out.txt"));
+        Assert.assertTrue(filter.test("build"));
+        Assert.assertFalse(filter.test("docs/a.md"));
+        Assert.assertFalse(filter.test("docs/a/b/c.md"));
+        Assert.assertTrue(filter.test("docs/a.txt"));
+        Assert.assertFalse(filter.test("src/gen1/A.java"));
+        Assert.assertTrue(filter.test("src/gen12/A.java"));
+        Assert.assertTrue(filter.test("yarn.locked"));
+        Assert.assertTrue(new GlobPathFilter().test("anything"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_WithEmptyGlob_ShouldThrow() {
+        new GlobPathFilter("");
+    }
+
+    @Test
+    public void testParse_WithPathFilter_ShouldMatchFilteredParse() throws IOException {
+        // given
+        byte[] bytes = TestUtils.readResource("github.diff");
+        GlobPathFilter filter = new GlobPathFilter("*.gradle");
+        List<Diff> expected = new GitHubDiffParser().parse(bytes).stream()
+                .filter(diff -> filter.test(diff.getToFileName()))
+                .collect(Collectors.toList());
+
+        // when
+        List<List<Diff>> results = parseAllWays(bytes, filter);
+
+        // then
+        Assert.assertEquals(2, expected.size());
+
+        for (List<Diff> actual : results) {
+            TestUtils.assertSameDiffs(expected, actual);
+        }
+    }
+
+    @Test
+    public void testParse_WithRenamedAndDeletedFiles_ShouldFilterByFileNames() {
+        // given
+        byte[] bytes = RENAME_DIFF.getBytes(StandardCharsets.US_ASCII);
+
+        // when
+        List<List<Diff>> results = parseAllWays(bytes, new GlobPathFilter("*.gradle"));
+
+        // then
+        for (List<Diff> diffs : results) {
+            Assert.assertEquals(2, diffs.size());
+            Assert.assertEquals("src/new.txt", diffs.get(0).getToFileName());
+            Assert.assertEquals("src/old.txt", diffs.get(1).getToFileName());
+        }
+    }
+
+    @Test
+    public void testParse_WithRenamesAndCopiesOnly_ShouldFilterByHeaderLines() {
+        // given
+        String in = ""
+                + "diff --git a/vendor/old.js b/vendor/new.js\n"
+                + "similarity index 100%\n"
+                + "rename from vendor/old.js\n"
+                + "rename to vendor/new.js\n"
+                + "diff --git a/src/a.js b/vendor/a.js\n"
+                + "similarity index 100%\n"
+                + "copy from src/a.js\n"
+                + "copy to vendor/a.js\n"
+                + "diff --git a/vendor/b.js b/src/b.js\n"
+                + "similarity index 100%\n"
+                + "rename from vendor/b.js\n"
+                + "rename to src/b.js\n"
+                + "diff --git \"a/vendor/\\303\\244.png\" \"b/vendor/\\303\\244.png\"\n"
+                + "index 1111111..2222222 100644\n"
+                + "Binary files differ\n"
+                + "diff --git \"a/src/\\303\\244.png\" \"b/src/\\303\\244.png\"\n"
+                + "index 3333333..4444444 100644\n"
+                + "Binary files differ\n"
+                + "diff --git a/vendor/c.js b/vendor/c.js\n"
+                + "index 1111111..2222222 100644\n"
+                + "Binary files differ\n"
+                + "diff --git \"a/vendor/\\303\\244.png\" \"b/vendor/\\303\\244.png\"\n"
+                + "index 1111111..2222222 100644\n"
+                + "Binary files differ\n";
+        byte[] bytes = in.getBytes(StandardCharsets.US_ASCII);
+
+        // when
+        List<List<Diff>> results = parseAllWays(bytes, new GlobPathFilter("/vendor/"));
+
+        // then
+        for (List<Diff> diffs : results) {
+            Assert.assertEquals(2, diffs.size());
+            Assert.assertTrue(diffs.get(0).getHeaderLines().contains("rename to src/b.js"));
+            Assert.assertTrue(diffs.get(1).getHeaderLines().contains("index 3333333..4444444 100644"));
+        }
+
+        Assert.assertEquals("src/\u00e4.png", GitPaths.getToPath("\"a/src/\\303\\244.png\" \"b/src/\\303\\244.png\""));
+    }
+
+    @Test
+    public void testParse_WithPathFilterAndTracer_ShouldOnlyTraceKeptLines() throws IOException {
+        // given
+        byte[] bytes = TestUtils.readResource("github.diff");
+        ParseStats unfilteredStats = new ParseStats();
+        ParseStats filteredStats = new ParseStats();
+        GitHubDiffParser parser = new GitHubDiffParser();
+
+        // when
+        parser.setTracer(unfilteredStats);
+        parser.parse(bytes);
+        parser.setTracer(filteredStats);
+        parser.setPathFilter(new GlobPathFilter("*.gradle"));
+        parser.parse(bytes);
+
+        // then
+        Assert.assertEquals(unfilteredStats.getNumberOfBytes(), filteredStats.getNumberOfBytes());
+        Assert.assertTrue(filteredStats.getNumberOfLines() < unfilteredStats.getNumberOfLines());
+        Assert.assertEquals(2, filteredStats.getNumberOfDiffs());
+    }
+
+    private static List<List<Diff>> parseAllWays(byte[] bytes, Predicate<String> filter) {
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setPathFilter(filter);
+
+        List<Diff> fromStream = new ArrayList<>();
+        Iterator<Diff> iterator = parser.iterate(new ByteArrayInputStream(bytes));
+        iterator.forEachRemaining(fromStream::add);
+
+        List<Diff> fromChunks = new ArrayList<>();
+        IncrementalDiffParser incrementalParser = parser.newIncrementalParser();
+        for (int start = 0; start < bytes.length; start += 5) {
+            fromChunks.addAll(incrementalParser.feed(ByteBuffer.wrap(bytes, start, Math.min(5, bytes.length - start))));
+        }
+        fromChunks.addAll(incrementalParser.finish());
+
+        List<Diff> fromSections = new ParallelDiffParser(Charset.defaultCharset(), null, null, filter, 1)
+                .parse(ByteBuffer.wrap(bytes), ForkJoinPool.commonPool());
+
+        return Arrays.asList(parser.parse(bytes), fromStream, fromChunks, fromSections);
+    }
+
+}
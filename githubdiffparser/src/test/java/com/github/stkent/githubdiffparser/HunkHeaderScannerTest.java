@@ -0,0 +1,90 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+
+public class HunkHeaderScannerTest {
+
+    @Test
+    public void testScan_WhenCountsArePresent_ShouldDecodeAllRanges() throws Exception {
+        // given
+        HunkHeaderScanner scanner = new HunkHeaderScanner();
+
+        // when
+        boolean isHunkHeader = scanner.scan("@@ -4,6 +4,10 @@ cache:");
+
+        // then
+        Assert.assertTrue(isHunkHeader);
+        Assert.assertEquals(4, scanner.getFromLineStart());
+        Assert.assertEquals(6, scanner.getFromLineCount());
+        Assert.assertEquals(4, scanner.getToLineStart());
+        Assert.assertEquals(10, scanner.getToLineCount());
+    }
+
+    @Test
+    public void testScan_WhenCountsAreOmitted_ShouldDefaultCountsToOne() throws Exception {
+        // given
+        HunkHeaderScanner scanner = new HunkHeaderScanner();
+
+        // when
+        boolean isHunkHeader = scanner.scan("@@ -10 +12 @@");
+
+        // then
+        Assert.assertTrue(isHunkHeader);
+        Assert.assertEquals(10, scanner.getFromLineStart());
+        Assert.assertEquals(1, scanner.getFromLineCount());
+        Assert.assertEquals(12, scanner.getToLineStart());
+        Assert.assertEquals(1, scanner.getToLineCount());
+    }
+
+    @Test
+    public void testScan_ShouldAgreeWithHunkStartPattern() throws Exception {
+        // given
+        HunkHeaderScanner scanner = new HunkHeaderScanner();
+        Random random = new Random(42);
+        String alphabet = "@-+, 0123x";
+
+        for (int i = 0; i < 200000; i++) {
+            StringBuilder line = new StringBuilder();
+            int length = random.nextInt(16);
+
+            for (int j = 0; j < length; j++) {
+                line.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            // when
+            Matcher matcher = Constants.HUNK_START_PATTERN.matcher(line);
+            boolean isHunkHeader = scanner.scan(line);
+
+            // then
+            Assert.assertEquals(line.toString(), matcher.matches(), isHunkHeader);
+
+            if (isHunkHeader) {
+                Assert.assertEquals(Integer.parseInt(matcher.group(1)), scanner.getFromLineStart());
+                Assert.assertEquals(matcher.group(2) == null ? 1 : Integer.parseInt(matcher.group(2)), scanner.getFromLineCount());
+                Assert.assertEquals(Integer.parseInt(matcher.group(3)), scanner.getToLineStart());
+                Assert.assertEquals(matcher.group(4) == null ? 1 : Integer.parseInt(matcher.group(4)), scanner.getToLineCount());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IncrementalDiffParserTest {
+
+    private static final String CRLF_DIFF = ""
+            + "diff --git a/first.txt b/first.txt\r\n"
+            + "--- a/first.txt\r\n"
+            + "+++ b/first.txt\r\n"
+            + "@@ -1 +1 @@\r\n"
+            + "-old\r\n"
+            + "+new\r\n"
+            + "diff --git a/second.txt b/second.txt\r\n"
+            + "--- a/second.txt\r\n"
+            + "+++ b/second.txt\r\n"
+            + "@@ -1 +1,2 @@\r\n"
+            + " same\r"
+            + "+added";
+
+    @Test
+    public void testFeed_WithAnyChunkSize_ShouldMatchParse() throws IOException {
+        // given
+        byte[] bytes = TestUtils.readResource("github.diff");
+        List<Diff> expected = new GitHubDiffParser().parse(bytes);
+
+        for (int chunkSize : new int[] { 1, 2, 3, 7, 64, 4096, bytes.length }) {
+            // when
+            List<Diff> actual = parseInChunks(bytes, chunkSize);
+
+            // then
+            TestUtils.assertSameDiffs(expected, actual);
+        }
+    }
+
+    @Test
+    public void testFeed_WithCarriageReturnsSplitAcrossChunks_ShouldMatchParse() {
+        // given
+        byte[] bytes = CRLF_DIFF.getBytes(StandardCharsets.US_ASCII);
+        List<Diff> expected = new GitHubDiffParser().parse(bytes);
+
+        for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+            // when
+            List<Diff> actual = parseInChunks(bytes, chunkSize);
+
+            // then
+            Assert.assertEquals(2, actual.size());
+            TestUtils.assertSameDiffs(expected, actual);
+        }
+    }
+
+    @Test
+    public void testFeed_ShouldEmitEachDiffOnceTheNextOneStarts() {
+        // given
+        IncrementalDiffParser parser = new IncrementalDiffParser(StandardCharsets.UTF_8);
+        String firstDiff = CRLF_DIFF.substring(0, CRLF_DIFF.indexOf("diff --git a/second.txt"));
+
+        // when
+        List<Diff> afterFirstDiff = parser.feed(ByteBuffer.wrap(firstDiff.getBytes(StandardCharsets.US_ASCII)));
+        List<Diff> afterSecondStart = parser.feed(ByteBuffer.wrap("diff --git a/s".getBytes(StandardCharsets.US_ASCII)));
+        int numberOfPendingBytes = parser.getNumberOfPendingBytes();
+        List<Diff> afterSecondLine = parser.feed(ByteBuffer.wrap("econd.txt b/second.txt\n".getBytes(StandardCharsets.US_ASCII)));
+
+        // then
+        Assert.assertTrue(afterFirstDiff.isEmpty());
+        Assert.assertTrue(afterSecondStart.isEmpty());
+        Assert.assertEquals(14, numberOfPendingBytes);
+        Assert.assertEquals(1, afterSecondLine.size());
+        Assert.assertEquals("first.txt", afterSecondLine.get(0).getToFileName());
+        Assert.assertEquals(0, parser.getNumberOfPendingBytes());
+    }
+
+    @Test
+    public void testFeed_WithTracer_ShouldReportAllBytes() {
+        // given
+        ParseStats stats = new ParseStats();
+        GitHubDiffParser diffParser = new GitHubDiffParser();
+        diffParser.setTracer(stats);
+        IncrementalDiffParser parser = diffParser.newIncrementalParser();
+        byte[] bytes = CRLF_DIFF.getBytes(StandardCharsets.US_ASCII);
+
+        // when
+        parser.feed(ByteBuffer.wrap(bytes, 0, 50));
+        parser.feed(ByteBuffer.wrap(bytes, 50, bytes.length - 50));
+        parser.finish();
+
+        // then
+        Assert.assertEquals(bytes.length, stats.getNumberOfBytes());
+        Assert.assertEquals(12, stats.getNumberOfLines());
+        Assert.assertEquals(2, stats.getNumberOfDiffs());
+    }
+
+    @Test
+    public void testFeed_WithLineLengthLimit_ShouldBoundPendingLine() {
+        // given
+        StringBuilder longLine = new StringBuilder("+");
+
+        for (int i = 0; i < 100000; i++) {
+            longLine.append('x');
+        }
+
+        byte[] bytes = (CRLF_DIFF.replace("+added", longLine) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        ParseStats stats = new ParseStats();
+        GitHubDiffParser diffParser = new GitHubDiffParser();
+        diffParser.setLimits(limits(ParseLimits.Policy.TRUNCATE));
+        diffParser.setTracer(stats);
+        IncrementalDiffParser parser = diffParser.newIncrementalParser();
+        List<Diff> actual = new ArrayList<>();
+        int maxNumberOfPendingBytes = 0;
+
+        // when
+        for (int start = 0; start < bytes.length; start += 1000) {
+            actual.addAll(parser.feed(ByteBuffer.wrap(bytes, start, Math.min(1000, bytes.length - start))));
+            maxNumberOfPendingBytes = Math.max(maxNumberOfPendingBytes, parser.getNumberOfPendingBytes());
+        }
+
+        actual.addAll(parser.finish());
+
+        // then
+        GitHubDiffParser expectedParser = new GitHubDiffParser();
+        expectedParser.setLimits(limits(ParseLimits.Policy.TRUNCATE));
+        TestUtils.assertSameDiffs(expectedParser.parse(bytes), actual);
+        Assert.assertTrue(actual.get(1).isTruncated());
+        Assert.assertEquals(101, maxNumberOfPendingBytes);
+        Assert.assertEquals(bytes.length, stats.getNumberOfBytes());
+    }
+
+    @Test(expected = ParseLimitExceededException.class)
+    public void testFeed_WithLineLengthLimitAndFail_ShouldThrowOnceLineIsComplete() {
+        // given
+        GitHubDiffParser diffParser = new GitHubDiffParser();
+        diffParser.setLimits(limits(ParseLimits.Policy.FAIL));
+        IncrementalDiffParser parser = diffParser.newIncrementalParser();
+        byte[] bytes = CRLF_DIFF.getBytes(StandardCharsets.US_ASCII);
+        parser.feed(ByteBuffer.wrap(bytes));
+
+        for (int i = 0; i < 1000; i++) {
+            parser.feed(ByteBuffer.wrap("xxxxxxxxxx".getBytes(StandardCharsets.US_ASCII)));
+        }
+
+        // when
+        parser.finish();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFeed_AfterFinish_ShouldThrow() {
+        // given
+        IncrementalDiffParser parser = new IncrementalDiffParser(StandardCharsets.UTF_8);
+        parser.finish();
+
+        // when
+        parser.feed(ByteBuffer.wrap(new byte[1]));
+    }
+
+    private static ParseLimits limits(final ParseLimits.Policy policy) {
+        ParseLimits limits = new ParseLimits();
+        limits.setLimit(ParseLimits.Limit.LINE_LENGTH, 100, policy);
+        limits.setLimit(ParseLimits.Limit.BYTES, 1 << 20, policy);
+        return limits;
+    }
+
+    private static List<Diff> parseInChunks(byte[] bytes, int chunkSize) {
+        IncrementalDiffParser parser = new IncrementalDiffParser(StandardCharsets.UTF_8);
+        List<Diff> result = new ArrayList<>();
+        ByteBuffer chunk = ByteBuffer.allocate(chunkSize);
+
+        for (int start = 0; start < bytes.length; start += chunkSize) {
+            chunk.clear();
+            chunk.put(bytes, start, Math.min(chunkSize, bytes.length - start));
+            chunk.flip();
+            result.addAll(parser.feed(chunk));
+            Assert.assertFalse(chunk.hasRemaining());
+        }
+
+        result.addAll(parser.finish());
+        return result;
+    }
+
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelDiffParserTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @Test
+    public void testParse_ShouldMatchSerialParseForAnySectionSize() throws Exception {
+        // given
+        byte[] fixture = TestUtils.readResource("github.diff");
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < 50; i++) {
+            builder.append(new String(fixture)).append("\n");
+        }
+
+        byte[] in = builder.toString().getBytes();
+        List<Diff> expectedDiffs = new GitHubDiffParser().parse(in);
+
+        for (int minSectionSize : new int[] { 1, 100, 5000, in.length }) {
+            // when
+            List<Diff> diffs = parser(minSectionSize).parse(ByteBuffer.wrap(in), pool);
+
+            // then
+            Assert.assertEquals(200, diffs.size());
+            TestUtils.assertSameDiffs(expectedDiffs, diffs);
+        }
+    }
+
+    @Test
+    public void testParse_WhenSectionEndsInHunkStart_ShouldMatchSerialParse() throws Exception {
+        // given
+        String in = ""
+                + "diff --git a/first.txt b/first.txt\n"
+                + "--- a/first.txt\n"
+                + "+++ b/first.txt\n"
+                + "@@ -1,0 +1,0 @@\n"
+                + "diff --git a/second.txt b/second.txt\n"
+                + "--- a/second.txt\n"
+                + "+++ b/second.txt\n"
+                + "@@ -1 +1 @@\n"
+                + "-from\n"
+                + "+to\n";
+
+        // when
+        List<Diff> diffs = parser(1).parse(ByteBuffer.wrap(in.getBytes()), pool);
+
+        // then
+        TestUtils.assertSameDiffs(new GitHubDiffParser().parse(in.getBytes()), diffs);
+        Assert.assertEquals(1, diffs.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testParse_WhenSectionIsMalformed_ShouldThrowLikeSerialParse() throws Exception {
+        // given
+        String in = ""
+                + "diff --git a/first.txt b/first.txt\n"
+                + "--- a/first.txt\n"
+                + "+++ b/first.txt\n"
+                + "@@ -1 +1 @@\n"
+                + "-from\n"
+                + "+to\n"
+                + "diff --git a/second.txt b/second.txt\n"
+                + "--- a/second.txt\n"
+                + "this line makes the second diff invalid\n";
+
+        // when
+        parser(1).parse(ByteBuffer.wrap(in.getBytes()), pool);
+    }
+
+    @Test
+    public void testParse_WithTracer_ShouldReportOneParseWithTotalsOfAllSections() throws Exception {
+        // given
+        byte[] fixture = TestUtils.readResource("github.diff");
+        byte[] in = (new String(fixture) + "\n" + new String(fixture)).getBytes();
+        ParseStats serialStats = new ParseStats();
+        ParseStats parallelStats = new ParseStats();
+        GitHubDiffParser serialParser = new GitHubDiffParser();
+        serialParser.setTracer(serialStats);
+        serialParser.parse(in);
+
+        // when
+        new ParallelDiffParser(Charset.defaultCharset(), parallelStats, null, null, 1)
+                .parse(ByteBuffer.wrap(in), pool);
+
+        // then
+        Assert.assertEquals(1, parallelStats.getNumberOfParses());
+        Assert.assertEquals(serialStats.getNumberOfLines(), parallelStats.getNumberOfLines());
+        Assert.assertEquals(serialStats.getNumberOfBytes(), parallelStats.getNumberOfBytes());
+        Assert.assertEquals(serialStats.getNumberOfDiffs(), parallelStats.getNumberOfDiffs());
+    }
+
+    @Test
+    public void testParse_WithTracer_ShouldReportSameEventsAsSerialParse() throws Exception {
+        // given
+        byte[] fixture = TestUtils.readResource("github.diff");
+        String sectionEndingInHunkStart = ""
+                + "diff --git a/first.txt b/first.txt\n"
+                + "--- a/first.txt\n"
+                + "+++ b/first.txt\n"
+                + "@@ -1,0 +1,0 @@\n";
+
+        for (String in : new String[] {
+                new String(fixture) + "\n" + new String(fixture),
+                sectionEndingInHunkStart + new String(fixture) }) {
+
+            ParseTracerTest.RecordingTracer serialTracer = new ParseTracerTest.RecordingTracer();
+            ParseTracerTest.RecordingTracer parallelTracer = new ParseTracerTest.RecordingTracer();
+            GitHubDiffParser serialParser = new GitHubDiffParser();
+            serialParser.setTracer(serialTracer);
+            serialParser.parse(in.getBytes());
+
+            // when
+            new ParallelDiffParser(Charset.defaultCharset(), parallelTracer, null, null, 1)
+                    .parse(ByteBuffer.wrap(in.getBytes()), pool);
+
+            // then
+            Assert.assertEquals(serialTracer.events, parallelTracer.events);
+        }
+    }
+
+    @Test
+    public void testParse_WhenLimitFailsInLaterSection_ShouldReportLineNumberLikeSerialParse() throws Exception {
+        // given
+        String in = ""
+                + "diff --git a/first.txt b/first.txt\n"
+                + "--- a/first.txt\n"
+                + "+++ b/first.txt\n"
+                + "@@ -1 +1 @@\n"
+                + "-from\n"
+                + "+to\n"
+                + new String(TestUtils.readResource("github.diff"));
+
+        ParseLimits limits = new ParseLimits();
+        limits.setLimit(ParseLimits.Limit.LINES_PER_HUNK, 2, ParseLimits.Policy.FAIL);
+        ParseTracerTest.RecordingTracer serialTracer = new ParseTracerTest.RecordingTracer();
+        ParseTracerTest.RecordingTracer parallelTracer = new ParseTracerTest.RecordingTracer();
+        GitHubDiffParser serialParser = new GitHubDiffParser();
+        serialParser.setLimits(limits);
+        serialParser.setTracer(serialTracer);
+        ParseLimitExceededException expected = null;
+
+        try {
+            serialParser.parse(in.getBytes());
+        } catch (ParseLimitExceededException e) {
+            expected = e;
+        }
+
+        try {
+            // when
+            new ParallelDiffParser(Charset.defaultCharset(), parallelTracer, limits, null, 1)
+                    .parse(ByteBuffer.wrap(in.getBytes()), pool);
+            Assert.fail();
+        } catch (ParseLimitExceededException e) {
+            // then
+            Assert.assertNotNull(expected);
+            Assert.assertTrue(expected.getLineNumber() > 6);
+            Assert.assertEquals(expected.getLineNumber(), e.getLineNumber());
+            Assert.assertEquals(expected.getMessage(), e.getMessage());
+            Assert.assertEquals(serialTracer.events, parallelTracer.events);
+        }
+    }
+
+    private static ParallelDiffParser parser(final int minSectionSize) {
+        return new ParallelDiffParser(Charset.defaultCharset(), null, null, null, minSectionSize);
+    }
+
+}
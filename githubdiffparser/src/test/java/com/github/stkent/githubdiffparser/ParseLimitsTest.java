@@ -0,0 +1,286 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ParseLimitsTest {
+
+    private static final String DIFF = ""
+            + "diff --git a/first.txt b/first.txt\n"
+            + "index 1111111..2222222 100644\n"
+            + "--- a/first.txt\n"
+            + "+++ b/first.txt\n"
+            + "@@ -1,3 +1,3 @@\n"
+            + "-old\n"
+            + "+a much longer new line\n"
+            + " same\n"
+            + " same again\n"
+            + "@@ -10 +10 @@\n"
+            + "-gone\n"
+            + "diff --git a/second.txt b/second.txt\n"
+            + "--- a/second.txt\n"
+            + "+++ b/second.txt\n"
+            + "@@ -1 +1 @@\n"
+            + "+added\n"
+            + "diff --git a/third.txt b/third.txt\n"
+            + "--- a/third.txt\n"
+            + "+++ b/third.txt\n"
+            + "@@ -1 +1 @@\n"
+            + "+added\n";
+
+    @Test
+    public void testLineLength_WithTruncate_ShouldCutLinesAndMarkHunk() {
+        for (List<Diff> diffs : parseAllWays(limits(ParseLimits.Limit.LINE_LENGTH, 16, ParseLimits.Policy.TRUNCATE))) {
+            Hunk hunk = diffs.get(0).getHunks().get(0);
+            Assert.assertEquals("a much longer n", hunk.getLines().get(1).getContent());
+            Assert.assertEquals(" same", hunk.getLines().get(2).getContent());
+            Assert.assertTrue(hunk.isTruncated());
+            Assert.assertTrue(diffs.get(0).isTruncated());
+            Assert.assertFalse(diffs.get(0).getHunks().get(1).isTruncated());
+            Assert.assertFalse(diffs.get(1).isTruncated());
+            Assert.assertEquals("index 1111111..2", diffs.get(0).getHeaderLines().get(0));
+        }
+    }
+
+    @Test
+    public void testLinesPerHunk_WithTruncate_ShouldDropLines() {
+        for (List<Diff> diffs : parseAllWays(limits(ParseLimits.Limit.LINES_PER_HUNK, 2, ParseLimits.Policy.TRUNCATE))) {
+            Assert.assertEquals(3, diffs.size());
+            Assert.assertEquals(2, diffs.get(0).getHunks().get(0).getNumberOfLines());
+            Assert.assertTrue(diffs.get(0).getHunks().get(0).isTruncated());
+            Assert.assertEquals(1, diffs.get(0).getHunks().get(1).getNumberOfLines());
+            Assert.assertFalse(diffs.get(0).getHunks().get(1).isTruncated());
+        }
+    }
+
+    @Test
+    public void testHunksPerDiff_WithTruncate_ShouldDropHunks() {
+        for (List<Diff> diffs : parseAllWays(limits(ParseLimits.Limit.HUNKS_PER_DIFF, 1, ParseLimits.Policy.TRUNCATE))) {
+            Assert.assertEquals(1, diffs.get(0).getHunks().size());
+            Assert.assertEquals(4, diffs.get(0).getHunks().get(0).getNumberOfLines());
+            Assert.assertTrue(diffs.get(0).isTruncated());
+            Assert.assertFalse(diffs.get(0).getHunks().get(0).isTruncated());
+            Assert.assertEquals(1, diffs.get(1).getHunks().size());
+        }
+    }
+
+    @Test
+    public void testDiffs_WithTruncate_ShouldStopAfterLastAllowedDiff() {
+        for (List<Diff> diffs : parseAllWays(limits(ParseLimits.Limit.DIFFS, 2, ParseLimits.Policy.TRUNCATE))) {
+            Assert.assertEquals(2, diffs.size());
+            Assert.assertEquals("second.txt", diffs.get(1).getToFileName());
+            Assert.assertFalse(diffs.get(1).isTruncated());
+        }
+    }
+
+    @Test
+    public void testBytes_WithTruncate_ShouldKeepDiffInProgressAsTruncated() {
+        ParseLimits limits = limits(ParseLimits.Limit.BYTES, DIFF.indexOf("+added") + 3, ParseLimits.Policy.TRUNCATE);
+
+        for (List<Diff> diffs : parseAllWays(limits)) {
+            Assert.assertEquals(2, diffs.size());
+            Assert.assertFalse(diffs.get(0).isTruncated());
+            Assert.assertTrue(diffs.get(1).isTruncated());
+            Assert.assertTrue(diffs.get(1).getHunks().get(0).isTruncated());
+            Assert.assertEquals(0, diffs.get(1).getHunks().get(0).getNumberOfLines());
+        }
+    }
+
+    @Test
+    public void testBytes_WithTruncate_ShouldParseStreamLikeBytes() throws IOException {
+        // given
+        byte[] bytes = TestUtils.readResource("github.diff");
+        GitHubDiffParser parser = new GitHubDiffParser();
+
+        byte[] crLfBytes = new String(bytes, StandardCharsets.US_ASCII).replace("\n", "\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+
+        for (byte[] input : Arrays.asList(bytes, crLfBytes)) {
+            for (long maxBytes = 1; maxBytes <= input.length; maxBytes++) {
+                parser.setLimits(limits(ParseLimits.Limit.BYTES, maxBytes, ParseLimits.Policy.TRUNCATE));
+
+                // when
+                List<Diff> diffsFromBytes = parser.parse(input);
+                List<Diff> diffsFromStream = parser.parse(new ByteArrayInputStream(input));
+
+                // then
+                TestUtils.assertSameDiffs(diffsFromBytes, diffsFromStream);
+            }
+        }
+    }
+
+    @Test
+    public void testBytes_WithTruncate_ShouldNotReadStreamFarPastLimit() throws IOException {
+        // given
+        byte[] bytes = TestUtils.readResource("github.diff");
+        int maxBytes = 1000;
+        CountingInputStream endlessInput = new CountingInputStream(new InputStream() {
+
+            private int position = 0;
+
+            @Override
+            public int read() {
+                return bytes[position++ % bytes.length] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                // Hands out a single byte at a time, so that no more is read than the parse asks for.
+                b[off] = (byte) read();
+                return 1;
+            }
+
+        });
+
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setLimits(limits(ParseLimits.Limit.BYTES, maxBytes, ParseLimits.Policy.TRUNCATE));
+
+        // when
+        List<Diff> diffs = new ArrayList<>();
+        parser.iterate(endlessInput).forEachRemaining(diffs::add);
+
+        // then
+        TestUtils.assertSameDiffs(parser.parse(bytes), diffs);
+        Assert.assertTrue(endlessInput.getCount() < bytes.length);
+    }
+
+    @Test
+    public void testLinesPerHunk_WithTruncate_ShouldNotLocateDroppedLines() {
+        // given
+        StringBuilder in = new StringBuilder()
+                .append("diff --git a/file.txt b/file.txt\n")
+                .append("--- a/file.txt\n")
+                .append("+++ b/file.txt\n")
+                .append("@@ -1,10 +1,10 @@\n");
+
+        for (int i = 1; i <= 10; i++) {
+            in.append(" line ").append(i).append('\n');
+        }
+
+        byte[] bytes = in.toString().getBytes(StandardCharsets.US_ASCII);
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setLimits(limits(ParseLimits.Limit.LINES_PER_HUNK, 3, ParseLimits.Policy.TRUNCATE));
+
+        for (List<Diff> diffs : Arrays.asList(parser.parse(bytes), parser.parsePositions(bytes))) {
+            // when
+            Diff diff = diffs.get(0);
+
+            // then
+            Assert.assertEquals(Integer.valueOf(5), diff.getDiffLineNumberForToFileLocation("file.txt", 3));
+            Assert.assertNull(diff.getDiffLineNumberForToFileLocation("file.txt", 8));
+            Assert.assertNull(diff.getHunks().get(0).getHunkLineNumberForToFileLineNumber(4));
+        }
+    }
+
+    @Test
+    public void testLimits_WhenNotExceeded_ShouldNotChangeResult() {
+        ParseLimits limits = new ParseLimits();
+        limits.setLimit(ParseLimits.Limit.LINE_LENGTH, 29, ParseLimits.Policy.FAIL);
+        limits.setLimit(ParseLimits.Limit.LINES_PER_HUNK, 4, ParseLimits.Policy.FAIL);
+        limits.setLimit(ParseLimits.Limit.HUNKS_PER_DIFF, 2, ParseLimits.Policy.FAIL);
+        limits.setLimit(ParseLimits.Limit.DIFFS, 3, ParseLimits.Policy.FAIL);
+        limits.setLimit(ParseLimits.Limit.BYTES, DIFF.length(), ParseLimits.Policy.FAIL);
+
+        for (List<Diff> diffs : parseAllWays(limits)) {
+            TestUtils.assertSameDiffs(new GitHubDiffParser().parse(DIFF.getBytes(StandardCharsets.US_ASCII)), diffs);
+        }
+    }
+
+    @Test
+    public void testLimits_WithFail_ShouldThrow() {
+        for (ParseLimits.Limit limit : ParseLimits.Limit.values()) {
+            // given
+            GitHubDiffParser parser = new GitHubDiffParser();
+            parser.setLimits(limits(limit, 1, ParseLimits.Policy.FAIL));
+
+            try {
+                // when
+                parser.parse(DIFF.getBytes(StandardCharsets.US_ASCII));
+                Assert.fail(limit.toString());
+            } catch (ParseLimitExceededException e) {
+                // then
+                Assert.assertEquals(limit, e.getLimit());
+                Assert.assertEquals(1, e.getMaximum());
+            }
+        }
+    }
+
+    @Test
+    public void testTruncatedFlags_ShouldSurviveBinaryEncoding() {
+        // given
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setLimits(limits(ParseLimits.Limit.LINES_PER_HUNK, 1, ParseLimits.Policy.TRUNCATE));
+        List<Diff> diffs = parser.parse(DIFF.getBytes(StandardCharsets.US_ASCII));
+
+        // when
+        List<Diff> decoded = new BinaryDiffReader().read(new BinaryDiffWriter().write(diffs));
+
+        // then
+        TestUtils.assertSameDiffs(diffs, decoded);
+    }
+
+    private static ParseLimits limits(ParseLimits.Limit limit, long maximum, ParseLimits.Policy policy) {
+        ParseLimits limits = new ParseLimits();
+        limits.setLimit(limit, maximum, policy);
+        return limits;
+    }
+
+    /**
+     * Parses {@link #DIFF} from bytes, from a stream, incrementally and (where limits allow) in parallel, checks that
+     * all results are the same and returns them.
+     */
+    private static List<List<Diff>> parseAllWays(ParseLimits limits) {
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setLimits(limits);
+        byte[] bytes = DIFF.getBytes(StandardCharsets.US_ASCII);
+
+        List<List<Diff>> results = new ArrayList<>();
+        results.add(parser.parse(bytes));
+        results.add(parser.parse(new ByteArrayInputStream(bytes)));
+        results.add(parser.parseParallel(bytes));
+
+        IncrementalDiffParser incrementalParser = parser.newIncrementalParser();
+        List<Diff> incrementalResult = new ArrayList<>();
+
+        for (int start = 0; start < bytes.length; start += 7) {
+            incrementalResult.addAll(incrementalParser.feed(ByteBuffer.wrap(bytes, start, Math.min(7, bytes.length - start))));
+        }
+
+        incrementalResult.addAll(incrementalParser.finish());
+        results.add(incrementalResult);
+
+        for (List<Diff> result : results) {
+            TestUtils.assertSameDiffs(results.get(0), result);
+        }
+
+        return results;
+    }
+
+}
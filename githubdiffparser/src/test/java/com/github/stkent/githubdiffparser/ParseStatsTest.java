@@ -0,0 +1,105 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ParseStatsTest {
+
+    private static final String DIFF = ""
+            + "diff --git a/first.txt b/first.txt\n"
+            + "index 1111111..2222222 100644\n"
+            + "--- a/first.txt\n"
+            + "+++ b/first.txt\n"
+            + "@@ -1,2 +1,2 @@\n"
+            + "-old\n"
+            + "+new\n"
+            + " same\n"
+            + "@@ -10 +10 @@\n"
+            + "-gone\n"
+            + "diff --git a/second.txt b/second.txt\n"
+            + "--- a/second.txt\n"
+            + "+++ b/second.txt\n"
+            + "@@ -1 +1 @@\n"
+            + "+added\n";
+
+    @Test
+    public void testParse_WithStats_ShouldCountLinesBytesDiffsAndHunks() {
+        // given
+        ParseStats stats = new ParseStats();
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setTracer(stats);
+
+        // when
+        parser.parse(DIFF.getBytes());
+        parser.parse(new ByteArrayInputStream(DIFF.getBytes()));
+
+        // then
+        Assert.assertEquals(2, stats.getNumberOfParses());
+        Assert.assertEquals(30, stats.getNumberOfLines());
+        Assert.assertEquals(2 * DIFF.length(), stats.getNumberOfBytes());
+        Assert.assertEquals(4, stats.getNumberOfDiffs());
+        Assert.assertEquals(6, stats.getNumberOfHunks());
+        Assert.assertEquals(3, stats.getLargestHunkSize());
+        Assert.assertEquals(4, stats.getNumberOfLines(ParserState.DIFF_START));
+        Assert.assertEquals(6, stats.getNumberOfLines(ParserState.HUNK_START));
+        Assert.assertEquals(4, stats.getNumberOfLines(ParserState.FROM_LINE));
+        Assert.assertEquals(4, stats.getNumberOfLines(ParserState.TO_LINE));
+        Assert.assertEquals(0, stats.getNumberOfLines(ParserState.INITIAL));
+        Assert.assertTrue(stats.getSlowestDiffTime(TimeUnit.NANOSECONDS) <= stats.getDiffTime(TimeUnit.NANOSECONDS));
+        Assert.assertTrue(stats.getDiffTime(TimeUnit.NANOSECONDS) <= stats.getParseTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testToMap_ShouldExportEveryCounterUnderStableKeys() {
+        // given
+        ParseStats stats = new ParseStats();
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setTracer(stats);
+        parser.parse(DIFF.getBytes());
+
+        // when
+        Map<String, Number> map = stats.toMap();
+
+        // then
+        Assert.assertEquals(15L, map.get("lines"));
+        Assert.assertEquals(2L, map.get("lines.TO_FILE"));
+        Assert.assertEquals((long) DIFF.length(), map.get("bytes"));
+        Assert.assertEquals(3L, map.get("hunks"));
+        Assert.assertEquals(stats.getLinesPerSecond(), map.get("linesPerSecond"));
+        Assert.assertEquals("parses", map.keySet().iterator().next());
+    }
+
+    @Test
+    public void testRates_WithoutParses_ShouldBeZero() {
+        // given
+        ParseStats stats = new ParseStats();
+
+        // when
+        double linesPerSecond = stats.getLinesPerSecond();
+
+        // then
+        Assert.assertEquals(0, linesPerSecond, 0);
+        Assert.assertEquals(0, stats.getBytesPerSecond(), 0);
+    }
+
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ParseTracerTest {
+
+    private static final String DIFF = ""
+            + "diff --git a/first.txt b/first.txt\n"
+            + "index 1111111..2222222 100644\n"
+            + "--- a/first.txt\n"
+            + "+++ b/first.txt\n"
+            + "@@ -1,2 +1,2 @@\n"
+            + "-old\n"
+            + "+new\n"
+            + " same\n"
+            + "diff --git a/second.txt b/second.txt\n"
+            + "--- a/second.txt\n"
+            + "+++ b/second.txt\n"
+            + "@@ -1 +1 @@\n"
+            + "+added\n";
+
+    @Test
+    public void testParse_WithTracer_ShouldReportEveryTransitionAndDiff() {
+        // given
+        RecordingTracer tracer = new RecordingTracer();
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setTracer(tracer);
+
+        for (Object input : new Object[] { DIFF.getBytes(), new ByteArrayInputStream(DIFF.getBytes()) }) {
+            tracer.events.clear();
+
+            // when
+            if (input instanceof byte[]) {
+                parser.parse((byte[]) input);
+            } else {
+                parser.parse((ByteArrayInputStream) input);
+            }
+
+            // then
+            Assert.assertEquals(16, tracer.events.size());
+            Assert.assertEquals("1 INITIAL -> DIFF_START: diff --git a/first.txt b/first.txt", tracer.events.get(0));
+            Assert.assertEquals("2 DIFF_START -> HEADER: index 1111111..2222222 100644", tracer.events.get(1));
+            Assert.assertEquals("9 NEUTRAL_LINE -> DIFF_START: diff --git a/second.txt b/second.txt", tracer.events.get(8));
+            Assert.assertEquals("diff 1-8", tracer.events.get(9));
+            Assert.assertEquals("13 HUNK_START -> TO_LINE: +added", tracer.events.get(13));
+            Assert.assertEquals("diff 9-13", tracer.events.get(14));
+            Assert.assertEquals("finished 13 " + DIFF.length(), tracer.events.get(15));
+        }
+    }
+
+    @Test
+    public void testRingBufferTracer_ShouldDeliverEventsToSinkInOrder() {
+        // given
+        RecordingTracer expected = new RecordingTracer();
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setTracer(expected);
+        parser.parse(DIFF.getBytes());
+
+        RecordingTracer sink = new RecordingTracer();
+
+        // when
+        try (RingBufferParseTracer tracer = new RingBufferParseTracer(1024, sink, 1, TimeUnit.MILLISECONDS)) {
+            parser.setTracer(tracer);
+            parser.parse(DIFF.getBytes());
+        }
+
+        // then
+        Assert.assertEquals(expected.events.size(), sink.events.size());
+
+        for (int i = 0; i < expected.events.size(); i++) {
+            String expectedEvent = expected.events.get(i);
+            Assert.assertEquals(expectedEvent.contains(":") ? expectedEvent.replaceAll(":.*", ": ") : expectedEvent, sink.events.get(i));
+        }
+    }
+
+    @Test
+    public void testRingBufferTracer_WhenDiffIsModifiedBeforeDelivery_ShouldDeliverSnapshot() {
+        // given
+        ParseStats sink = new ParseStats();
+        RingBufferParseTracer tracer = new RingBufferParseTracer(64, sink, 1, TimeUnit.DAYS);
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setTracer(tracer);
+        List<Diff> diffs = parser.parse(DIFF.getBytes());
+
+        // when
+        for (Diff diff : diffs) {
+            diff.getHunks().clear();
+        }
+
+        tracer.close();
+
+        // then
+        Assert.assertEquals(2, sink.getNumberOfDiffs());
+        Assert.assertEquals(2, sink.getNumberOfHunks());
+        Assert.assertEquals(3, sink.getLargestHunkSize());
+    }
+
+    @Test
+    public void testRingBufferTracer_WhenSinkFallsBehind_ShouldDropOldestEvents() {
+        // given
+        RecordingTracer sink = new RecordingTracer();
+        RingBufferParseTracer tracer = new RingBufferParseTracer(4, sink, 1, TimeUnit.DAYS);
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setTracer(tracer);
+
+        // when
+        parser.parse(DIFF.getBytes());
+        tracer.close();
+
+        // then
+        Assert.assertEquals(12, tracer.getDroppedEventCount());
+        Assert.assertEquals(4, sink.events.size());
+        Assert.assertEquals("finished 13 " + DIFF.length(), sink.events.get(3));
+    }
+
+    @Test
+    public void testRingBufferTracer_WhenThreadsRecordConcurrently_ShouldDeliverOrDropEveryEvent() throws Exception {
+        // given
+        RecordingTracer sink = new RecordingTracer();
+        RingBufferParseTracer tracer = new RingBufferParseTracer(64, sink, 1, TimeUnit.MICROSECONDS);
+        GitHubDiffParser parser = new GitHubDiffParser();
+        parser.setTracer(tracer);
+        Thread[] threads = new Thread[4];
+
+        // when
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 500; j++) {
+                    parser.parse(DIFF.getBytes());
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        tracer.close();
+
+        // then
+        Assert.assertEquals(threads.length * 500 * 16, sink.events.size() + tracer.getDroppedEventCount());
+    }
+
+    static final class RecordingTracer implements ParseTracer {
+
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onTransition(
+                @NotNull ParserState fromState,
+                @NotNull ParserState toState,
+                long lineNumber,
+                @NotNull CharSequence line) {
+
+            events.add(lineNumber + " " + fromState + " -> " + toState + ": " + line);
+        }
+
+        @Override
+        public void onDiffParsed(@NotNull Diff diff, long firstLineNumber, long lastLineNumber, long elapsedNanos) {
+            Assert.assertTrue(elapsedNanos >= 0);
+            events.add("diff " + firstLineNumber + "-" + lastLineNumber);
+        }
+
+        @Override
+        public void onParseFinished(long numberOfLines, long numberOfBytes, long elapsedNanos) {
+            Assert.assertTrue(elapsedNanos >= 0);
+            events.add("finished " + numberOfLines + " " + numberOfBytes);
+        }
+
+    }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+/**
+ * Line classification must be linear in the length of each line. These inputs contain single lines of about a megabyte
+ * that are built to provoke backtracking in regex-based classification (many dashes, long digit runs, near-miss hunk
+ * ranges, no tabs or many tabs); each test fails if parsing takes anywhere near quadratic time.
+ */
+public class PathologicalInputTest {
+
+    private static final int LINE_LENGTH = 1 << 20;
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testParse_WhenHunkContainsManyDashes() throws Exception {
+        assertParsesHunkLine(repeat("-", LINE_LENGTH).replaceFirst("-", "x"));
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testParse_WhenHunkContainsManyDashesFollowedByDigits() throws Exception {
+        assertParsesHunkLine("x" + repeat("-1", LINE_LENGTH / 2));
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testParse_WhenHunkContainsNearMissRanges() throws Exception {
+        assertParsesHunkLine("x" + repeat("-1,2 +", LINE_LENGTH / 6));
+        assertParsesHunkLine("x" + repeat("-1,2 -3,4 ", LINE_LENGTH / 10));
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testParse_WhenHunkContainsLongDigitRuns() throws Exception {
+        assertParsesHunkLine("x-" + repeat("1", LINE_LENGTH) + ",");
+        assertParsesHunkLine("x" + repeat("-" + repeat("9", 1000) + ",", LINE_LENGTH / 1002));
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testParse_WhenHunkContainsAlmostNoNewlineMarkers() throws Exception {
+        assertParsesHunkLine("x" + repeat("\\ No newline at end of fil", LINE_LENGTH / 27));
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testParse_WhenHunkHeaderHasHugeSectionHeading() throws Exception {
+        // given
+        String in = ""
+                + "diff --git a/min.js b/min.js\n"
+                + "--- a/min.js\n"
+                + "+++ b/min.js\n"
+                + "@@ -1,1 +1,1 @@ " + repeat("a-b-c-", LINE_LENGTH / 6) + "\n"
+                + "-from\n"
+                + "+to\n";
+
+        // when
+        Diff diff = assertSameResultForAllInputTypes(in).get(0);
+
+        // then
+        Assert.assertEquals(1, diff.getHunks().size());
+        Assert.assertEquals(2, diff.getHunks().get(0).getLines().size());
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testParse_WhenFileNamesAreHuge() throws Exception {
+        // given
+        String fileNameWithoutTabs = repeat("x", LINE_LENGTH);
+        String fileNameWithTabs = repeat("y\t", LINE_LENGTH / 2);
+        String in = ""
+                + "diff --git a/x b/x\n"
+                + "--- a/" + fileNameWithoutTabs + "\n"
+                + "+++ b/" + fileNameWithTabs + "\n"
+                + "@@ -1,1 +1,1 @@\n"
+                + "-from\n"
+                + "+to\n";
+
+        // when
+        Diff diff = assertSameResultForAllInputTypes(in).get(0);
+
+        // then
+        Assert.assertEquals(fileNameWithoutTabs, diff.getFromFileName());
+        Assert.assertEquals(fileNameWithTabs.substring(0, fileNameWithTabs.length() - 1).trim(), diff.getToFileName());
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testParse_WhenHeaderLineIsHuge() throws Exception {
+        // given
+        String headerLine = repeat("-1 ", LINE_LENGTH / 3);
+        String in = ""
+                + "diff --git a/x b/x\n"
+                + "x" + headerLine + "\n"
+                + "--- a/x\n"
+                + "+++ b/x\n"
+                + "@@ -1,1 +1,1 @@\n"
+                + "-from\n"
+                + "+to\n";
+
+        // when
+        Diff diff = assertSameResultForAllInputTypes(in).get(0);
+
+        // then
+        Assert.assertEquals("x" + headerLine, diff.getHeaderLines().get(0));
+    }
+
+    /**
+     * Places the given line inside a hunk, where it is checked against every line pattern and finally falls through to
+     * being treated as a header line.
+     */
+    private static void assertParsesHunkLine(final String line) throws Exception {
+        // given
+        String in = ""
+                + "diff --git a/x b/x\n"
+                + "--- a/x\n"
+                + "+++ b/x\n"
+                + "@@ -1,1 +1,1 @@\n"
+                + "-from\n"
+                + line + "\n"
+                + "+to\n";
+
+        // when
+        Diff diff = assertSameResultForAllInputTypes(in).get(0);
+
+        // then
+        Assert.assertEquals(line, diff.getHeaderLines().get(0));
+    }
+
+    private static List<Diff> assertSameResultForAllInputTypes(final String in) {
+        GitHubDiffParser parser = new GitHubDiffParser();
+        List<Diff> diffsFromStream = parser.parse(new ByteArrayInputStream(in.getBytes()));
+        List<Diff> diffsFromBytes = parser.parse(in.getBytes());
+        TestUtils.assertSameDiffs(diffsFromStream, diffsFromBytes);
+        return diffsFromBytes;
+    }
+
+    private static String repeat(final String s, final int times) {
+        StringBuilder builder = new StringBuilder(s.length() * times);
+
+        for (int i = 0; i < times; i++) {
+            builder.append(s);
+        }
+
+        return builder.toString();
+    }
+
+}
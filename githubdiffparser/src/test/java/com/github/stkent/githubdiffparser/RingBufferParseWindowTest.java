@@ -0,0 +1,98 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+public class RingBufferParseWindowTest {
+
+    @Test
+    public void testSlideForward_ShouldReturnEachLineInOrder() throws Exception {
+        // given
+        ParseWindow window = new RingBufferParseWindow(stream(40));
+
+        for (int i = 0; i < 40; i++) {
+            // when
+            String line = window.slideForward();
+
+            // then
+            Assert.assertEquals("line " + i, line);
+            Assert.assertEquals("line " + i, window.getFocusLine());
+            Assert.assertEquals(i + 1, window.getFocusLineNumber());
+        }
+
+        Assert.assertNull(window.slideForward());
+    }
+
+    @Test
+    public void testLookaheadAndAddLine_ShouldBehaveLikeResizingParseWindow() throws Exception {
+        // given
+        ParseWindow expected = new ResizingParseWindow(stream(100));
+        ParseWindow actual = new RingBufferParseWindow(stream(100));
+
+        for (int step = 0; step < 110; step++) {
+            // when
+            String expectedLine = expected.slideForward();
+            String actualLine = actual.slideForward();
+
+            // then
+            Assert.assertEquals(expectedLine, actualLine);
+
+            if (expectedLine == null) {
+                continue;
+            }
+
+            Assert.assertEquals(expected.getFutureLine(step % 23), actual.getFutureLine(step % 23));
+
+            if (step % 7 == 0) {
+                expected.addLine(1, "inserted " + step);
+                actual.addLine(1, "inserted " + step);
+            }
+
+            Assert.assertEquals(expected.getFutureLine(1), actual.getFutureLine(1));
+            Assert.assertEquals(expected.getFutureLine(200), actual.getFutureLine(200));
+        }
+    }
+
+    @Test
+    public void testAddIgnorePattern_ShouldSkipMatchingLines() throws Exception {
+        // given
+        RingBufferParseWindow window = new RingBufferParseWindow(stream(10));
+        window.addIgnorePattern("line [13579]");
+
+        // when
+        String third = window.getFutureLine(2);
+
+        // then
+        Assert.assertEquals("line 4", third);
+    }
+
+    private static InputStream stream(final int numberOfLines) {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < numberOfLines; i++) {
+            builder.append("line ").append(i).append('\n');
+        }
+
+        return new ByteArrayInputStream(builder.toString().getBytes());
+    }
+
+}
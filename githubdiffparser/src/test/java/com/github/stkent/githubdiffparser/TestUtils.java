@@ -0,0 +1,72 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import com.github.stkent.githubdiffparser.models.Diff;
+import com.github.stkent.githubdiffparser.models.Hunk;
+import org.junit.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+final class TestUtils {
+
+    private TestUtils() {
+    }
+
+    static byte[] readResource(final String name) throws IOException {
+        try (InputStream in = TestUtils.class.getResourceAsStream(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+
+            return out.toByteArray();
+        }
+    }
+
+    static void assertSameDiffs(final List<Diff> expected, final List<Diff> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            Diff expectedDiff = expected.get(i);
+            Diff actualDiff = actual.get(i);
+            Assert.assertEquals(expectedDiff.getFromFileName(), actualDiff.getFromFileName());
+            Assert.assertEquals(expectedDiff.getToFileName(), actualDiff.getToFileName());
+            Assert.assertEquals(expectedDiff.getHeaderLines(), actualDiff.getHeaderLines());
+            Assert.assertEquals(expectedDiff.isTruncated(), actualDiff.isTruncated());
+            Assert.assertEquals(expectedDiff.getHunks().size(), actualDiff.getHunks().size());
+
+            for (int j = 0; j < expectedDiff.getHunks().size(); j++) {
+                Hunk expectedHunk = expectedDiff.getHunks().get(j);
+                Hunk actualHunk = actualDiff.getHunks().get(j);
+                Assert.assertEquals(expectedHunk.getFromFileRange().getLineStart(), actualHunk.getFromFileRange().getLineStart());
+                Assert.assertEquals(expectedHunk.getFromFileRange().getLineCount(), actualHunk.getFromFileRange().getLineCount());
+                Assert.assertEquals(expectedHunk.getToFileRange().getLineStart(), actualHunk.getToFileRange().getLineStart());
+                Assert.assertEquals(expectedHunk.getToFileRange().getLineCount(), actualHunk.getToFileRange().getLineCount());
+                Assert.assertEquals(expectedHunk.getLines(), actualHunk.getLines());
+                Assert.assertEquals(expectedHunk.isTruncated(), actualHunk.isTruncated());
+            }
+        }
+    }
+
+}
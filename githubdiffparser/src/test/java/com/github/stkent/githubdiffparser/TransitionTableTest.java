@@ -0,0 +1,107 @@
+/**
+ * Copyright 2016 Stuart Kent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.stkent.githubdiffparser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransitionTableTest {
+
+    private static final String[] LINES = {
+            "",
+            "d",
+            "diff",
+            "diff --git a/a.txt b/a.txt",
+            "diff --gi",
+            "deleted file mode 100644",
+            "-",
+            "--",
+            "---",
+            "--- a/a.txt",
+            "-@@ -1 +1 @@",
+            "+",
+            "++",
+            "+++",
+            "+++ b/a.txt",
+            " ",
+            " context",
+            "@@ -1,5 +2,6 @@ heading",
+            "@@ -1 +1 @@",
+            "@@ not a hunk header",
+            "\\ No newline at end of file",
+            "index 1111111..2222222 100644",
+            "x -3 +4 anything",
+            "\u00e4 -3 +4",
+            "\u0100 -3 +4",
+    };
+
+    @Test
+    public void testNextState_ShouldMatchParserStateForEveryStateAndLine() {
+        for (ParserState state : ParserState.values()) {
+            for (String line : LINES) {
+                // given
+                HunkHeaderScanner expectedHunkHeader = new HunkHeaderScanner();
+                HunkHeaderScanner actualHunkHeader = new HunkHeaderScanner();
+                String description = state + " + '" + line + "'";
+
+                // when
+                Object expected = nextState(state, line, expectedHunkHeader, false);
+                Object actual = nextState(state, line, actualHunkHeader, true);
+
+                // then
+                Assert.assertEquals(description, expected, actual);
+
+                if (expected == ParserState.HUNK_START) {
+                    Assert.assertEquals(description, expectedHunkHeader.getFromLineStart(), actualHunkHeader.getFromLineStart());
+                    Assert.assertEquals(description, expectedHunkHeader.getToLineCount(), actualHunkHeader.getToLineCount());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testClassify_ShouldLookAtPrefixesOnly() {
+        Assert.assertEquals(TransitionTable.DIFF_START_LINE, TransitionTable.classify("diff --git"));
+        Assert.assertEquals(TransitionTable.OTHER, TransitionTable.classify("diff --gi"));
+        Assert.assertEquals(TransitionTable.FROM_FILE_LINE, TransitionTable.classify("---x"));
+        Assert.assertEquals(TransitionTable.FROM_LINE, TransitionTable.classify("--"));
+        Assert.assertEquals(TransitionTable.TO_FILE_LINE, TransitionTable.classify("+++"));
+        Assert.assertEquals(TransitionTable.TO_LINE, TransitionTable.classify("+"));
+        Assert.assertEquals(TransitionTable.NEUTRAL_LINE, TransitionTable.classify(" "));
+        Assert.assertEquals(TransitionTable.OTHER, TransitionTable.classify("\u0100"));
+        Assert.assertEquals(TransitionTable.OTHER, TransitionTable.classify(""));
+    }
+
+    /**
+     * @return the next state, or the class of the exception thrown.
+     */
+    private static Object nextState(
+            ParserState state,
+            String line,
+            HunkHeaderScanner hunkHeader,
+            boolean useTable) {
+
+        try {
+            return useTable
+                    ? TransitionTable.nextState(state, line, hunkHeader)
+                    : state.nextState(line, hunkHeader);
+        } catch (IllegalStateException e) {
+            return e.getClass();
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.github.stkent.githubdiffparser.models;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContentSliceTest {
+
+    @Test
+    public void testAsciiContent() {
+        final ByteBuffer buffer = ByteBuffer.wrap("+added line\n".getBytes(StandardCharsets.UTF_8));
+
+        final ContentSlice slice = new ContentSlice(buffer, 1, 10, StandardCharsets.UTF_8);
+
+        assertEquals("added line", slice.toString());
+        assertEquals(10, slice.length());
+        assertEquals('a', slice.charAt(0));
+        assertEquals("line", slice.subSequence(6, 10).toString());
+    }
+
+    @Test
+    public void testNonAsciiContent() {
+        final byte[] bytes = "-gr\u00fc\u00dfe \u2713\n".getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+
+        final ContentSlice slice = new ContentSlice(buffer, 1, bytes.length - 2, StandardCharsets.UTF_8);
+
+        assertEquals("gr\u00fc\u00dfe \u2713", slice.toString());
+        assertEquals(7, slice.length());
+        assertEquals('\u00fc', slice.charAt(2));
+        assertEquals('\u2713', slice.charAt(6));
+        assertEquals("\u00dfe", slice.subSequence(3, 5).toString());
+    }
+
+    @Test
+    public void testLineEquality() {
+        final ByteBuffer buffer = ByteBuffer.wrap(" neutral".getBytes(StandardCharsets.UTF_8));
+
+        final Line sliceLine = new Line(Line.LineType.NEUTRAL, new ContentSlice(buffer, 1, 7, StandardCharsets.UTF_8));
+        final Line stringLine = new Line(Line.LineType.NEUTRAL, "neutral");
+
+        assertEquals(stringLine, sliceLine);
+        assertEquals(stringLine.hashCode(), sliceLine.hashCode());
+        assertEquals("neutral", sliceLine.getContent());
+    }
+    
+}
@@ -0,0 +1,98 @@
+package com.github.stkent.githubdiffparser.models;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.stkent.githubdiffparser.models.Line.LineType.FROM;
+import static com.github.stkent.githubdiffparser.models.Line.LineType.NEUTRAL;
+import static com.github.stkent.githubdiffparser.models.Line.LineType.TO;
+import static org.junit.Assert.*;
+
+public class DiffSetTest {
+
+    @Test
+    public void testGetDiffForFileName_ShouldFindDiffsByEitherName() {
+        // given
+        final Diff modified = newDiff("a.txt", "a.txt");
+        final Diff renamed = newDiff("old.txt", "new.txt");
+        final Diff deleted = newDiff("gone.txt", "/dev/null");
+
+        // when
+        final DiffSet diffSet = new DiffSet(Arrays.asList(modified, renamed, deleted));
+
+        // then
+        assertSame(modified, diffSet.getDiffForFileName("a.txt"));
+        assertSame(renamed, diffSet.getDiffForFileName("old.txt"));
+        assertSame(renamed, diffSet.getDiffForFileName("new.txt"));
+        assertSame(renamed, diffSet.getDiffForToFileName("new.txt"));
+        assertNull(diffSet.getDiffForToFileName("old.txt"));
+        assertSame(deleted, diffSet.getDiffForFromFileName("gone.txt"));
+        assertNull(diffSet.getDiffForFileName("missing.txt"));
+        assertEquals(Arrays.asList(modified, renamed, deleted), diffSet.getDiffs());
+    }
+
+    @Test
+    public void testGetDiffForFileName_WhenNamesRepeat_ShouldReturnFirstDiff() {
+        // given
+        final Diff first = newDiff("a.txt", "a.txt");
+        final Diff second = newDiff("a.txt", "a.txt");
+
+        // when
+        final DiffSet diffSet = new DiffSet(Arrays.asList(first, second));
+
+        // then
+        assertSame(first, diffSet.getDiffForFileName("a.txt"));
+    }
+
+    @Test
+    public void testGetDiffLineNumbers_ShouldResolveEachLocationInOrder() {
+        // given
+        final List<Diff> diffs = new ArrayList<>();
+
+        for (int fileIndex = 0; fileIndex < 100; fileIndex++) {
+            final Diff diff = newDiff("file" + fileIndex, "file" + fileIndex);
+            diff.getHeaderLines().add("diff --git a/file" + fileIndex + " b/file" + fileIndex);
+
+            final Hunk hunk = new Hunk();
+            hunk.setToFileRange(new Range(10, 2));
+            hunk.addLine(NEUTRAL, "kept");
+            hunk.addLine(FROM, "removed");
+            hunk.addLine(TO, "added");
+            diff.getHunks().add(hunk);
+
+            diffs.add(diff);
+        }
+
+        final DiffSet diffSet = new DiffSet(diffs);
+        final List<FileLocation> locations = new ArrayList<>();
+        final List<Integer> expected = new ArrayList<>();
+
+        for (int fileIndex = 99; fileIndex >= 0; fileIndex--) {
+            locations.add(new FileLocation("file" + fileIndex, 11));
+            expected.add(6);
+            locations.add(new FileLocation("file" + fileIndex, 12));
+            expected.add(null);
+        }
+
+        locations.add(new FileLocation("missing", 10));
+        expected.add(null);
+
+        // when
+        final List<Integer> actual = diffSet.getDiffLineNumbersForToFileLocations(locations);
+
+        // then
+        assertEquals(expected, actual);
+        assertEquals(Integer.valueOf(4), diffSet.getDiffLineNumberForToFileLocation("file42", 10));
+    }
+
+    private static Diff newDiff(final String fromFileName, final String toFileName) {
+        final Diff diff = new Diff();
+        diff.setFromFileName(fromFileName);
+        diff.setToFileName(toFileName);
+        return diff;
+    }
+
+}
@@ -0,0 +1,223 @@
+package com.github.stkent.githubdiffparser.models;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.github.stkent.githubdiffparser.models.Line.LineType.FROM;
+import static com.github.stkent.githubdiffparser.models.Line.LineType.NEUTRAL;
+import static com.github.stkent.githubdiffparser.models.Line.LineType.TO;
+import static org.junit.Assert.*;
+
+public class DiffTest {
+
+    private static final String TO_FILE_NAME = "file.txt";
+
+    @Test
+    public void testGetDiffLineNumber_ShouldMatchLinearScan() {
+        // given
+        final Random random = new Random(11);
+        final Diff diff = newDiff();
+        diff.getHeaderLines().add("diff --git a/file.txt b/file.txt");
+        diff.getHeaderLines().add("index 0000000..1111111 100644");
+
+        int toLineStart = 1;
+
+        for (int hunkIndex = 0; hunkIndex < 200; hunkIndex++) {
+            toLineStart += random.nextInt(20);
+            final Hunk hunk = new Hunk();
+            int toLineCount = 0;
+
+            for (int lineIndex = random.nextInt(12); lineIndex >= 0; lineIndex--) {
+                final Line.LineType lineType = Line.LineType.values()[random.nextInt(3)];
+                hunk.addLine(lineType, "line");
+
+                if (lineType != FROM) {
+                    toLineCount++;
+                }
+            }
+
+            hunk.setToFileRange(new Range(toLineStart, toLineCount));
+            diff.getHunks().add(hunk);
+            toLineStart += toLineCount;
+        }
+
+        // then
+        for (int toFileLineNumber = 0; toFileLineNumber <= toLineStart + 1; toFileLineNumber++) {
+            assertEquals(
+                    getDiffLineNumberByLinearScan(diff, toFileLineNumber),
+                    diff.getDiffLineNumberForToFileLocation(TO_FILE_NAME, toFileLineNumber));
+        }
+    }
+
+    @Test
+    public void testGetDiffLineNumber_WhenHunksAreModifiedAfterLookup_ShouldReflectModifications() {
+        // given
+        final Diff diff = newDiff();
+        diff.getHunks().add(newHunk(1, NEUTRAL, TO));
+        diff.getHunks().add(newHunk(10, TO, NEUTRAL));
+        assertEquals(Integer.valueOf(6), diff.getDiffLineNumberForToFileLocation(TO_FILE_NAME, 10));
+
+        // when
+        diff.getHunks().get(0).getLines().add(0, new Line(FROM, "removed"));
+        diff.getHunks().get(1).getLines().add(0, new Line(NEUTRAL, "inserted"));
+        diff.getHunks().get(1).setToFileRange(new Range(9, 3));
+
+        // then
+        assertEquals(Integer.valueOf(7), diff.getDiffLineNumberForToFileLocation(TO_FILE_NAME, 9));
+        assertEquals(Integer.valueOf(8), diff.getDiffLineNumberForToFileLocation(TO_FILE_NAME, 10));
+
+        // when
+        diff.getHunks().remove(0);
+
+        // then
+        assertEquals(Integer.valueOf(4), diff.getDiffLineNumberForToFileLocation(TO_FILE_NAME, 10));
+        assertNull(diff.getDiffLineNumberForToFileLocation(TO_FILE_NAME, 1));
+    }
+
+    @Test
+    public void testGetDiffLineNumber_WhenRangesOverlap_ShouldUseFirstContainingHunk() {
+        // given
+        final Diff diff = newDiff();
+        diff.getHunks().add(newHunk(20, NEUTRAL, NEUTRAL));
+        diff.getHunks().add(newHunk(5, TO, TO, TO));
+        diff.getHunks().add(newHunk(6, NEUTRAL));
+
+        // then
+        assertEquals(Integer.valueOf(6), diff.getDiffLineNumberForToFileLocation(TO_FILE_NAME, 5));
+        assertEquals(Integer.valueOf(7), diff.getDiffLineNumberForToFileLocation(TO_FILE_NAME, 6));
+        assertEquals(Integer.valueOf(3), diff.getDiffLineNumberForToFileLocation(TO_FILE_NAME, 20));
+        assertNull(diff.getDiffLineNumberForToFileLocation(TO_FILE_NAME, 8));
+    }
+
+    @Test
+    public void testGetDiffLineNumber_WhenFileNameDiffers_ShouldReturnNull() {
+        // given
+        final Diff diff = newDiff();
+        diff.getHunks().add(newHunk(1, NEUTRAL));
+
+        // then
+        assertNull(diff.getDiffLineNumberForToFileLocation("other.txt", 1));
+    }
+
+    @Test
+    public void testGetLineLocation_ShouldMatchLinearScan() {
+        // given
+        final Random random = new Random(13);
+        final Diff diff = newDiff();
+        diff.getHeaderLines().add("diff --git a/file.txt b/file.txt");
+
+        int fromLineStart = 1;
+        int toLineStart = 1;
+        int numberOfDiffLines = diff.getHeaderLines().size() + Diff.NUMBER_OF_LINES_PER_DELIMITER;
+
+        for (int hunkIndex = 0; hunkIndex < 100; hunkIndex++) {
+            final int gap = random.nextInt(20);
+            fromLineStart += gap;
+            toLineStart += gap;
+
+            final Hunk hunk = new Hunk();
+            int fromLineCount = 0;
+            int toLineCount = 0;
+
+            for (int lineIndex = random.nextInt(12); lineIndex > 0; lineIndex--) {
+                final Line.LineType lineType = Line.LineType.values()[random.nextInt(3)];
+                hunk.addLine(lineType, "line");
+                fromLineCount += lineType != TO ? 1 : 0;
+                toLineCount += lineType != FROM ? 1 : 0;
+            }
+
+            hunk.setFromFileRange(new Range(fromLineStart, fromLineCount));
+            hunk.setToFileRange(new Range(toLineStart, toLineCount));
+            diff.getHunks().add(hunk);
+
+            fromLineStart += fromLineCount;
+            toLineStart += toLineCount;
+            numberOfDiffLines += Hunk.NUMBER_OF_LINES_PER_DELIMITER + hunk.getNumberOfLines();
+        }
+
+        // then
+        for (int diffLineNumber = -1; diffLineNumber <= numberOfDiffLines + 1; diffLineNumber++) {
+            final LineLocation expected = getLineLocationByLinearScan(diff, diffLineNumber);
+            assertEquals(expected, diff.getLineLocationForDiffLineNumber(diffLineNumber));
+
+            if (expected != null && expected.getToFileLineNumber() != null) {
+                assertEquals(
+                        Integer.valueOf(diffLineNumber),
+                        diff.getDiffLineNumberForToFileLocation(TO_FILE_NAME, expected.getToFileLineNumber()));
+            }
+        }
+    }
+
+    private static Diff newDiff() {
+        final Diff diff = new Diff();
+        diff.setToFileName(TO_FILE_NAME);
+        return diff;
+    }
+
+    private static Hunk newHunk(final int toLineStart, final Line.LineType... lineTypes) {
+        final Hunk hunk = new Hunk();
+        int toLineCount = 0;
+
+        for (final Line.LineType lineType : lineTypes) {
+            hunk.addLine(lineType, "line");
+
+            if (lineType != FROM) {
+                toLineCount++;
+            }
+        }
+
+        hunk.setToFileRange(new Range(toLineStart, toLineCount));
+        return hunk;
+    }
+
+    private static LineLocation getLineLocationByLinearScan(final Diff diff, final int diffLineNumber) {
+        int currentDiffLineNumber = diff.getHeaderLines().size() + Diff.NUMBER_OF_LINES_PER_DELIMITER;
+
+        for (final Hunk hunk : diff.getHunks()) {
+            currentDiffLineNumber += Hunk.NUMBER_OF_LINES_PER_DELIMITER;
+            int fromLineNumber = hunk.getFromFileRange().getLineStart();
+            int toLineNumber = hunk.getToFileRange().getLineStart();
+
+            for (final Line line : hunk.getLines()) {
+                currentDiffLineNumber++;
+
+                if (currentDiffLineNumber == diffLineNumber) {
+                    return new LineLocation(
+                            line.getLineType(),
+                            line.getLineType() != TO ? fromLineNumber : null,
+                            line.getLineType() != FROM ? toLineNumber : null);
+                }
+
+                fromLineNumber += line.getLineType() != TO ? 1 : 0;
+                toLineNumber += line.getLineType() != FROM ? 1 : 0;
+            }
+        }
+
+        return null;
+    }
+
+    private static Integer getDiffLineNumberByLinearScan(final Diff diff, final int toFileLineNumber) {
+        int diffLineNumber = diff.getHeaderLines().size() + Diff.NUMBER_OF_LINES_PER_DELIMITER;
+
+        for (final Hunk hunk : diff.getHunks()) {
+            diffLineNumber += Hunk.NUMBER_OF_LINES_PER_DELIMITER;
+            int toLineNumber = hunk.getToFileRange().getLineStart();
+
+            for (int lineIndex = 0; lineIndex < hunk.getLines().size(); lineIndex++) {
+                if (hunk.getLines().get(lineIndex).getLineType() != FROM) {
+                    if (toLineNumber == toFileLineNumber) {
+                        return diffLineNumber + lineIndex + 1;
+                    }
+
+                    toLineNumber++;
+                }
+            }
+
+            diffLineNumber += hunk.getNumberOfLines();
+        }
+
+        return null;
+    }
+
+}
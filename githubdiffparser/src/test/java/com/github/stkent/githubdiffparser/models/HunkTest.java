@@ -2,7 +2,10 @@ package com.github.stkent.githubdiffparser.models;
 
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.List;
 
 import static com.github.stkent.githubdiffparser.models.Line.LineType.FROM;
 import static com.github.stkent.githubdiffparser.models.Line.LineType.NEUTRAL;
@@ -67,5 +70,127 @@ public class HunkTest {
         final int actualHunkLineNumber = hunk.getHunkLineNumberForToFileLineNumber(targetToFileLineNumber);
         assertEquals(expectedHunkLineNumber, actualHunkLineNumber);
     }
-    
+
+    @Test
+    public void testLinesBehaveLikeAList() {
+        final ByteBuffer firstBuffer = ByteBuffer.wrap("-first\n+second\n".getBytes(StandardCharsets.UTF_8));
+        final ByteBuffer secondBuffer = ByteBuffer.wrap(" third\n".getBytes(StandardCharsets.UTF_8));
+
+        final Hunk hunk = new Hunk();
+        final List<Line> expectedLines = new ArrayList<>();
+
+        hunk.addLine(FROM, firstBuffer, 1, 5, StandardCharsets.UTF_8);
+        expectedLines.add(new Line(FROM, "first"));
+        hunk.addLine(TO, new ContentSlice(firstBuffer, 8, 6, StandardCharsets.UTF_8));
+        expectedLines.add(new Line(TO, "second"));
+        assertEquals(expectedLines, hunk.getLines());
+
+        // content from a second buffer is copied
+        hunk.addLine(NEUTRAL, secondBuffer, 1, 5, StandardCharsets.UTF_8);
+        expectedLines.add(new Line(NEUTRAL, "third"));
+        assertEquals(expectedLines, hunk.getLines());
+
+        // content that is not a slice of a buffer moves all content into chars
+        hunk.getLines().add(1, new Line(NEUTRAL, "inserted"));
+        expectedLines.add(1, new Line(NEUTRAL, "inserted"));
+        assertEquals(expectedLines, hunk.getLines());
+
+        hunk.getLines().set(0, new Line(TO, "replaced"));
+        expectedLines.set(0, new Line(TO, "replaced"));
+        hunk.getLines().remove(2);
+        expectedLines.remove(2);
+        hunk.getLines().add(new Line(FROM, null));
+        expectedLines.add(new Line(FROM, null));
+
+        assertEquals(expectedLines, hunk.getLines());
+        assertEquals(expectedLines.size(), hunk.getNumberOfLines());
+    }
+
+    @Test
+    public void testGetLineLocationForHunkLineNumber() {
+        // given
+        final Hunk hunk = new Hunk();
+        hunk.setFromFileRange(new Range(10, 4));
+        hunk.setToFileRange(new Range(20, 3));
+        hunk.addLine(NEUTRAL, "1");
+        hunk.addLine(FROM, "2");
+        hunk.addLine(FROM, "3");
+        hunk.addLine(TO, "4");
+        hunk.addLine(NEUTRAL, "5");
+
+        // then
+        assertNull(hunk.getLineLocationForHunkLineNumber(0));
+        assertEquals(new LineLocation(NEUTRAL, 10, 20), hunk.getLineLocationForHunkLineNumber(1));
+        assertEquals(new LineLocation(FROM, 11, null), hunk.getLineLocationForHunkLineNumber(2));
+        assertEquals(new LineLocation(FROM, 12, null), hunk.getLineLocationForHunkLineNumber(3));
+        assertEquals(new LineLocation(TO, null, 21), hunk.getLineLocationForHunkLineNumber(4));
+        assertEquals(new LineLocation(NEUTRAL, 13, 22), hunk.getLineLocationForHunkLineNumber(5));
+        assertNull(hunk.getLineLocationForHunkLineNumber(6));
+
+        // when
+        hunk.getLines().remove(1);
+
+        // then
+        assertEquals(new LineLocation(NEUTRAL, 12, 22), hunk.getLineLocationForHunkLineNumber(4));
+    }
+
+    @Test
+    public void testLookups_WithoutContent_ShouldMatchLookupsWithContent() {
+        // given
+        final Line.LineType[] lineTypes = Line.LineType.values();
+        final Hunk hunk = new Hunk();
+        final Hunk hunkWithoutContent = new Hunk();
+        int numberOfFromLines = 0;
+        int numberOfToLines = 0;
+
+        for (int i = 0; i < 100; i++) {
+            final Line.LineType lineType = lineTypes[(i * 7 + i / 5) % 3];
+            hunk.addLine(lineType, String.valueOf(i));
+            hunkWithoutContent.addLine(lineType, null);
+            numberOfFromLines += lineType != TO ? 1 : 0;
+            numberOfToLines += lineType != FROM ? 1 : 0;
+        }
+
+        for (final Hunk h : new Hunk[] { hunk, hunkWithoutContent }) {
+            h.setFromFileRange(new Range(5, numberOfFromLines));
+            h.setToFileRange(new Range(8, numberOfToLines));
+        }
+
+        // then
+        for (int toFileLineNumber = 8; toFileLineNumber < 8 + numberOfToLines; toFileLineNumber++) {
+            assertEquals(
+                    hunk.getHunkLineNumberForToFileLineNumber(toFileLineNumber),
+                    hunkWithoutContent.getHunkLineNumberForToFileLineNumber(toFileLineNumber));
+        }
+
+        for (int hunkLineNumber = 0; hunkLineNumber <= 101; hunkLineNumber++) {
+            assertEquals(
+                    hunk.getLineLocationForHunkLineNumber(hunkLineNumber),
+                    hunkWithoutContent.getLineLocationForHunkLineNumber(hunkLineNumber));
+        }
+    }
+
+    @Test
+    public void testLinesWithoutContent_ShouldBehaveLikeAList() {
+        // given
+        final Hunk hunk = new Hunk();
+        final List<Line> expectedLines = new ArrayList<>();
+
+        for (int i = 0; i < 40; i++) {
+            hunk.addLine(i % 2 == 0 ? TO : null, null);
+            expectedLines.add(new Line(i % 2 == 0 ? TO : null, null));
+        }
+
+        // when
+        hunk.getLines().remove(3);
+        expectedLines.remove(3);
+        hunk.getLines().add(33, new Line(FROM, "content"));
+        expectedLines.add(33, new Line(FROM, "content"));
+        hunk.getLines().set(0, new Line(NEUTRAL, null));
+        expectedLines.set(0, new Line(NEUTRAL, null));
+
+        // then
+        assertEquals(expectedLines, hunk.getLines());
+    }
+
 }